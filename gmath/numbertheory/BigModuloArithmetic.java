@@ -1,7 +1,8 @@
 package gmath.numbertheory;
 
-import gcore.tuples.Pair;
 import gmath.types.BigInteger;
+import gmath.types.Exponentiation;
+import gmath.types.RingContext;
 
 /**
  * util class for basic modulo arithmetic operations using big integers.
@@ -13,6 +14,9 @@ public final class BigModuloArithmetic {
 	// make class non-instantiable
 	private BigModuloArithmetic() {}
 
+	// shared zero and one so the loops don't allocate them
+	private static final RingContext<BigInteger> CONTEXT = new BigInteger(0).context();
+
 	/**
 	 * takes two arguments and returns their greatest common divisor using the
 	 * euclidean algorithm.
@@ -46,7 +50,7 @@ public final class BigModuloArithmetic {
 	 */
 	private static BigInteger gcdHelper(BigInteger x, BigInteger y) {
 		// if y is zero the gcd will be x
-		if (y.equals(y.ZERO()))
+		if (CONTEXT.isZero(y))
 			return x;
 
 		// use recursion to decrease size of x and y, x will be what y was and y
@@ -56,61 +60,100 @@ public final class BigModuloArithmetic {
 
 	/**
 	 * returns the modulo inverse r of x with respect to the modulus m, i.e. r *
-	 * x = 1 mod m.
+	 * x = 1 mod m. Uses the iterative extended euclidean algorithm.
 	 * 
 	 * @param x
 	 *            number to invert
 	 * @param m
-	 *            modulus of inversion
-	 * @return the inverse of x modulo m
+	 *            modulus of inversion, must be positive
+	 * @return the inverse of x modulo m in the range [0, m)
 	 * 
 	 * @throws IllegalArgumentException
 	 *             if gcd(x, m) != 1
 	 */
 	public static BigInteger moduloInverse(BigInteger x, BigInteger m) {
-		// returns the value that is multiplied x to get the gcd(x, m)
-		if (x.greaterThan(m)) {
-			return inverseHelper(x, m).getFirst();
-		}
-		return inverseHelper(m, x).getSecond();
+		return new BigInteger(inverse(value(x), value(m)));
 	}
 
 	/**
-	 * inverse helper used by the moduloInverse method. Takes in two arguments
-	 * and applies extended euclidean algorithm to find the gcd and then loops
-	 * back to find the inverse.
+	 * inverts every number in the array modulo m with montgomery's trick. The
+	 * running products are inverted with a single extended euclidean
+	 * algorithm and then unwound, so n numbers take 3 (n - 1) multiplications
+	 * and one inverse.
 	 * 
-	 * @param x
-	 *            larger of the two numbers.
+	 * @param xs
+	 *            numbers to invert
 	 * @param m
-	 *            smaller of the two numbers.
-	 * @return pair relating how the two numbers are a linear combination of
-	 *         their gcd.
+	 *            modulus of inversion, must be positive
+	 * @return the inverses of the numbers modulo m in the range [0, m)
 	 * 
 	 * @throws IllegalArgumentException
-	 *             if gcd(x, m) != 1
+	 *             if gcd(x, m) != 1 for any of the numbers
 	 */
-	private static Pair<BigInteger, BigInteger> inverseHelper(BigInteger x, BigInteger m) {
-		// check if gcd was never found to be 1 if so throw an illegal argument
-		// exception
-		if (m.equals(m.ZERO())) {
-			throw new IllegalArgumentException("gcd of two numbers needs to be 1 for there to be an inverse.");
+	public static BigInteger[] moduloInverseAll(BigInteger[] xs, BigInteger m) {
+		int n = xs.length;
+		BigInteger[] results = new BigInteger[n];
+		if (n == 0)
+			return results;
+
+		java.math.BigInteger modulus = value(m);
+		if (modulus.signum() <= 0)
+			throw new IllegalArgumentException("modulus must be positive!");
+
+		// prefix products, prefix[i] is the product of the first i + 1 values
+		java.math.BigInteger[] values = new java.math.BigInteger[n];
+		java.math.BigInteger[] prefix = new java.math.BigInteger[n];
+		for (int i = 0; i < n; i++) {
+			values[i] = value(xs[i]).mod(modulus);
+			prefix[i] = i == 0 ? values[0] : prefix[i - 1].multiply(values[i]).mod(modulus);
 		}
 
-		// gets how many m go into x
-		BigInteger d = x.truncate(m);
+		// the product is invertible exactly when every value is
+		java.math.BigInteger inverse = inverse(prefix[n - 1], modulus);
 
-		// check if at the end of the algorithm
-		if (x.mod(m).equals(new BigInteger(1))) {
+		// walk back peeling one value off of the inverse at a time
+		for (int i = n - 1; i > 0; i--) {
+			results[i] = new BigInteger(inverse.multiply(prefix[i - 1]).mod(modulus));
+			inverse = inverse.multiply(values[i]).mod(modulus);
+		}
+		results[0] = new BigInteger(inverse);
+		return results;
+	}
 
-			// return a new pair of (-d * b + 1, -d * a)
-			return new Pair<>(new BigInteger(1), d.negate());
+	/**
+	 * iterative extended euclidean algorithm keeping only the coefficients of
+	 * x.
+	 */
+	private static java.math.BigInteger inverse(java.math.BigInteger x, java.math.BigInteger m) {
+		if (m.signum() <= 0)
+			throw new IllegalArgumentException("modulus must be positive!");
+
+		java.math.BigInteger oldR = m;
+		java.math.BigInteger r = x.mod(m);
+		java.math.BigInteger oldS = java.math.BigInteger.ZERO;
+		java.math.BigInteger s = java.math.BigInteger.ONE;
+		while (r.signum() != 0) {
+			java.math.BigInteger[] division = oldR.divideAndRemainder(r);
+			oldR = r;
+			r = division[1];
+
+			java.math.BigInteger temp = oldS.subtract(division[0].multiply(s));
+			oldS = s;
+			s = temp;
 		}
-		// recursive step
-		Pair<BigInteger, BigInteger> previous = inverseHelper(m, x.mod(m));
 
-		// return based off extended euclidean algorithm.
-		return new Pair<>(previous.getSecond(), previous.getFirst().subtract(d.multiply(previous.getSecond())));
+		if (!oldR.equals(java.math.BigInteger.ONE))
+			throw new IllegalArgumentException("gcd of two numbers needs to be 1 for there to be an inverse.");
+
+		// the coefficients stay below the modulus in absolute value
+		return oldS.signum() < 0 ? oldS.add(m) : oldS;
+	}
+
+	/**
+	 * underlying value of a gmath big integer.
+	 */
+	private static java.math.BigInteger value(BigInteger x) {
+		return new java.math.BigInteger(x.toByteArray());
 	}
 
 	/**
@@ -125,29 +168,14 @@ public final class BigModuloArithmetic {
 	 * @return x ^ p mod m
 	 */
 	public static BigInteger powerModulus(BigInteger x, BigInteger p, BigInteger m) {
-		// copy the original
-		BigInteger original = x;
-		BigInteger num = original;
-
-		// convert the power to binary to use a binary power method.
-		String binaryPower = p.toBinaryString();
-
-		// get rid of the first character as it will always be a 1
-		binaryPower = binaryPower.substring(1, binaryPower.length());
-
-		// loop through the digits if they are a 1 times by the number and if it
-		// is a 0 just square.
-		for (char c : binaryPower.toCharArray()) {
-			num = num.square();
-			switch (c) {
-			case '1':
-				num = num.multiply(original);
-			}
-			num = num.mod(m);
-		}
-
-		// return the result.
-		return num;
+		if (p.lessThan(CONTEXT.zero()))
+			throw new IllegalArgumentException("power must not be negative!");
+
+		// read the power bit by bit with a sliding window, reducing after every
+		// multiplication so the numbers never grow past m^2
+		int bitLength = p.bitLength();
+		return Exponentiation.slidingWindow(x, p::testBit, bitLength, Exponentiation.windowSize(bitLength),
+				num -> num.mod(m));
 	}
 
 }
\ No newline at end of file
@@ -1,10 +1,43 @@
 package gmath.numbertheory;
 
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
 import gmath.types.BigInteger;
+import gmath.types.RingContext;
 
 public final class BigPrimes {
 	private BigPrimes() {}
 
+	// miller-rabin runs its witnesses in parallel for numbers at least this
+	// long, below it a single exponentiation is too quick to hand off
+	private static final int PARALLEL_BITS = 1024;
+
+	// the odd primes below this are checked with a single gcd before the
+	// probable prime tests
+	private static final int TRIAL_LIMIT = 1 << 10;
+
+	// product of the odd primes below the trial limit
+	private static final java.math.BigInteger PRIMORIAL = primorial();
+
+	private static final java.math.BigInteger TWO = java.math.BigInteger.valueOf(2);
+
+	// odd primes that the windows of candidates are sieved by
+	private static final int[] SIEVE_PRIMES = SegmentedSieve.oddPrimesUpTo(1 << 15);
+
+	// numbers with fewer bits than this are past the sieve primes
+	private static final int SIEVE_BITS = 17;
+
+	// odd candidates in a window
+	private static final int WINDOW = 1 << 12;
+
+	// shared zero and one so the loops don't allocate them
+	private static final RingContext<BigInteger> CONTEXT = new BigInteger(0).context();
+
 	/**
 	 * tests a number to see if it is prime numbers less than 2 will return
 	 * false
@@ -18,40 +51,16 @@ public final class BigPrimes {
 			return false;
 		BigInteger sqrt = p.sqrt();
 		for (BigInteger x = new BigInteger(2); x.lessThanOrEqual(sqrt); x = x.inc()) {
-			if (p.mod(x).equals(p.ZERO()))
-				return false;
-		}
-		return true;
-	}
-
-	private static final BigInteger[] prime10 = new BigInteger[] { new BigInteger(2), new BigInteger(3),
-			new BigInteger(5), new BigInteger(7), new BigInteger(11), new BigInteger(13), new BigInteger(17),
-			new BigInteger(19), new BigInteger(23), new BigInteger(29) };
-
-	/**
-	 * checks the first 10 primes for trivial primes and speed up the prime
-	 * finding process. Only 1 out of every 300 composites should pass this
-	 * test.
-	 * 
-	 * @param p
-	 *            number to check
-	 * @return whether the first 10 prime numbers divide it.
-	 */
-	private static boolean isBasicPrime(BigInteger p) {
-		// loop through the primes and check the modulus.
-		for (BigInteger prime : prime10) {
-
-			// if any of them divide p then return false
-			if (p.mod(prime).equals(p.ZERO()))
+			if (CONTEXT.isZero(p.mod(x)))
 				return false;
 		}
-
-		// if they all pass return true
 		return true;
 	}
 
 	/**
-	 * uses the current number to find the first prime larger than it is.
+	 * uses the current number to find the first prime larger than it is. The
+	 * odd candidates after c are sieved a window at a time by the small primes
+	 * and only the survivors get a probable prime test.
 	 * 
 	 * @param c
 	 *            number as the lower bound for the prime search
@@ -64,34 +73,83 @@ public final class BigPrimes {
 			return new BigInteger(Primes.getFirstPrimeLargerThan(Long.valueOf(c.toString())));
 		}
 
-		// continue to loop until a prime number is found.
-		boolean isntPrime = true;
-		while (isntPrime) {
-
-			// increment the currently tested number
-			c = c.inc();
+		// first odd number past c
+		java.math.BigInteger start = value(c).add(java.math.BigInteger.ONE).setBit(0);
+		CandidateSieve sieve = new CandidateSieve(start);
+		while (true) {
+			java.math.BigInteger prime = sieve.search(null);
+			if (prime != null)
+				return new BigInteger(prime);
+			sieve.advance();
+		}
+	}
 
-			// check if it fails the basic primality test, this is to eliminate
-			// easily prooven prime numbers without having to spend time on the
-			// costly fermat prime test.
-			if (!isBasicPrime(c))
-				continue;
+	/**
+	 * generates a random probable prime with exactly the given number of bits,
+	 * the top bit is always set. A random odd starting point is picked and the
+	 * window after it is sieved, if that doesn't hold a prime a new starting
+	 * point is picked.
+	 * 
+	 * @param bits
+	 *            bit length of the prime, at least 2
+	 * @param random
+	 *            generator for the starting points
+	 * @return random prime with the given bit length
+	 */
+	public static BigInteger randomPrime(int bits, Random random) {
+		if (bits < 2)
+			throw new IllegalArgumentException("primes have at least 2 bits!");
+
+		while (true) {
+			java.math.BigInteger prime = searchRandomWindow(bits, random, null);
+			if (prime != null)
+				return new BigInteger(prime);
+		}
+	}
 
-			// check the current number for fermat primality
-			if (!isFermatPrime(c, 3))
-				continue;
+	/**
+	 * generates a random probable prime with exactly the given number of bits
+	 * by racing one window per thread of the pool, the first prime found by
+	 * any of them is returned.
+	 * 
+	 * @param bits
+	 *            bit length of the prime, at least 2
+	 * @param random
+	 *            generator for the starting points, shared by the threads
+	 * @param pool
+	 *            pool to search on
+	 * @return random prime with the given bit length
+	 */
+	public static BigInteger randomPrime(int bits, Random random, ForkJoinPool pool) {
+		if (bits < 2)
+			throw new IllegalArgumentException("primes have at least 2 bits!");
 
-			// if it passes the fermat test run a miller-rabin test
-			if (!isMillerRabinPrime(c, 10))
-				continue;
+		AtomicReference<java.math.BigInteger> found = new AtomicReference<>();
+		pool.invoke(new RaceTask(bits, random, found, 0, pool.getParallelism()));
+		return new BigInteger(found.get());
+	}
 
-			// c has a chance of being prime of 1 : 8,388,608 which should be
-			// good enough for most applications.
-			isntPrime = false;
+	/**
+	 * picks a random odd starting point with the given bit length and searches
+	 * the window after it, returns null if it has no prime or another thread
+	 * found one first.
+	 */
+	private static java.math.BigInteger searchRandomWindow(int bits, Random random,
+			AtomicReference<java.math.BigInteger> found) {
+		// the sieve primes would be mistaken for composites, small sizes are
+		// drawn one at a time instead
+		if (bits < SIEVE_BITS) {
+			long candidate = (1L << bits - 1 | random.nextInt(1 << bits - 1)) | 1;
+			if (bits == 2)
+				candidate = 2 + random.nextInt(2);
+			return Primes.isPrime(candidate) ? java.math.BigInteger.valueOf(candidate) : null;
 		}
 
-		// return the number once it is found to be prime
-		return c;
+		java.math.BigInteger start = new java.math.BigInteger(bits - 1, random).setBit(bits - 1).setBit(0);
+		java.math.BigInteger prime = new CandidateSieve(start).search(found);
+
+		// the window can run past the bit length at the very top
+		return prime != null && prime.bitLength() == bits ? prime : null;
 	}
 
 	/**
@@ -107,19 +165,23 @@ public final class BigPrimes {
 	 */
 	public static boolean isFermatPrime(BigInteger p, int iterations) {
 		// check for basic primality/non-primality.
-		if (p.equals(p.ZERO()) || p.equals(new BigInteger(1)))
+		if (CONTEXT.isZero(p) || CONTEXT.isOne(p))
 			return false;
 		if (p.equals(new BigInteger(2)))
 			return true;
-		if (p.mod(new BigInteger(2)).equals(p.ZERO()))
+		if (CONTEXT.isZero(p.mod(new BigInteger(2))))
 			return false;
 
+		java.math.BigInteger n = value(p);
+		java.math.BigInteger minusOne = n.subtract(java.math.BigInteger.ONE);
+		Random random = ThreadLocalRandom.current();
+
 		// iterate the given number of times
 		for (int i = 0; i < iterations; i++) {
 			// generate a random big integer in the range 1 to p - 1.
-			BigInteger r = BigInteger.randomBigInteger(p.dec()).inc();
+			java.math.BigInteger r = randomBelow(minusOne, random).add(java.math.BigInteger.ONE);
 
-			if (!BigModuloArithmetic.powerModulus(r, p.dec(), p).equals(new BigInteger(1))) {
+			if (!r.modPow(minusOne, n).equals(java.math.BigInteger.ONE)) {
 				return false;
 			}
 		}
@@ -131,7 +193,8 @@ public final class BigPrimes {
 	 * tests p for primality using the miller-rabin primality test. The fact
 	 * that p is prime returned by this function is only a probability,
 	 * additional tests need to be conducted to confirm it. This probability,
-	 * however, is stronger than fermat with less iterations required.
+	 * however, is stronger than fermat with less iterations required. Numbers
+	 * of at least 1024 bits run their witnesses in parallel on the common pool.
 	 * 
 	 * @param p
 	 *            number to test.
@@ -141,69 +204,475 @@ public final class BigPrimes {
 	 */
 	public static boolean isMillerRabinPrime(BigInteger p, int iterations) {
 		// check for basic primality/non-primality.
-		if (p.equals(p.ZERO()) || p.equals(new BigInteger(1)))
+		if (CONTEXT.isZero(p) || CONTEXT.isOne(p))
 			return false;
 		if (p.equals(new BigInteger(2)))
 			return true;
-		if (p.mod(new BigInteger(2)).equals(p.ZERO()))
+		if (CONTEXT.isZero(p.mod(new BigInteger(2))))
 			return false;
 		// needed for the random number generation to work.
 		if (p.equals(new BigInteger(3)))
 			return true;
+		if (p.lessThan(CONTEXT.zero()))
+			return false;
+
+		java.math.BigInteger n = value(p);
+
+		// pick every witness up front in the range 2 to p - 2 inclusive with a
+		// single generator
+		Random random = ThreadLocalRandom.current();
+		java.math.BigInteger range = n.subtract(java.math.BigInteger.valueOf(3));
+		java.math.BigInteger[] witnesses = new java.math.BigInteger[iterations];
+		for (int i = 0; i < iterations; i++) {
+			witnesses[i] = randomBelow(range, random).add(TWO);
+		}
+
+		if (n.bitLength() < PARALLEL_BITS || iterations < 2) {
+			for (java.math.BigInteger witness : witnesses) {
+				if (isWitness(n, witness))
+					return false;
+			}
+			return true;
+		}
+
+		AtomicBoolean composite = new AtomicBoolean();
+		ForkJoinPool.commonPool().invoke(new WitnessTask(n, witnesses, 0, iterations, composite));
+		return !composite.get();
+	}
+
+	/**
+	 * tests p for primality with the strong Baillie-PSW test, a strong
+	 * miller-rabin test to base 2 followed by a strong lucas test. No
+	 * composite is known to pass both, and none exist below 2^64, so a single
+	 * round is enough where miller-rabin needs many random ones.
+	 * 
+	 * @param p
+	 *            number to test
+	 * @return true if p is a probable prime
+	 */
+	public static boolean isBailliePSWPrime(BigInteger p) {
+		return isBailliePSW(value(p));
+	}
+
+	/**
+	 * tests p for primality with trial division by the small primes followed
+	 * by the strong Baillie-PSW test.
+	 * 
+	 * @param p
+	 *            number to test
+	 * @return true if p is a probable prime
+	 */
+	public static boolean isProbablePrime(BigInteger p) {
+		return isProbablePrime(value(p));
+	}
+
+	/**
+	 * tests every number in the array with
+	 * {@link #isProbablePrime(BigInteger)}, the numbers are tested in parallel
+	 * on the common pool.
+	 * 
+	 * @param ps
+	 *            numbers to test
+	 * @return whether each number is a probable prime
+	 */
+	public static boolean[] isProbablePrime(BigInteger[] ps) {
+		return isProbablePrime(ps, ForkJoinPool.commonPool());
+	}
 
-		// generate r and d in n - 1 = 2 ^ r * d so that d is odd
-		BigInteger two = new BigInteger(2);
-		int r = 1;
-		// loop through until there are no more factors of 2 in p - 1.
-		while (p.mod(two.pow(r)).equals(p.ZERO())) {
-			// add 1 to r
-			r++;
+	/**
+	 * tests every number in the array with
+	 * {@link #isProbablePrime(BigInteger)} on the given pool. The product of
+	 * the small primes is shared by all of them so each number only needs one
+	 * gcd to be trial divided.
+	 * 
+	 * @param ps
+	 *            numbers to test
+	 * @param pool
+	 *            pool to test on
+	 * @return whether each number is a probable prime
+	 */
+	public static boolean[] isProbablePrime(BigInteger[] ps, ForkJoinPool pool) {
+		java.math.BigInteger[] values = new java.math.BigInteger[ps.length];
+		for (int i = 0; i < ps.length; i++) {
+			values[i] = value(ps[i]);
 		}
 
-		// get d by dividing p by 2 ^ r
-		BigInteger d = p.truncate(two.pow(r));
+		boolean[] results = new boolean[ps.length];
+		if (ps.length > 0)
+			pool.invoke(new BatchTask(values, results, 0, ps.length));
+		return results;
+	}
 
-		// go through the iteration the number of times provided
-		for (int i = 0; i < iterations; i++) {
-			// pick a random big integer in the range 2 to p - 2 inclusive
-			BigInteger rand = BigInteger.randomBigInteger(p.subtract(new BigInteger(3))).add(two);
+	/**
+	 * trial division by the small primes followed by baillie-psw.
+	 */
+	static boolean isProbablePrime(java.math.BigInteger n) {
+		if (n.signum() <= 0)
+			return false;
 
-			// check if it passes fermat's little theorem.
-			BigInteger x = BigModuloArithmetic.powerModulus(rand, d, p);
-			if (x.equals(new BigInteger(1)) || x.equals(p.dec()))
-				continue;
+		// small numbers are handled by the deterministic long test
+		if (n.bitLength() < 63)
+			return Primes.isPrime(n.longValue());
 
-			// boolean value for whether the number was a witness or not
-			boolean wasWitness = false;
+		// n is past the small primes so any shared factor with the primorial
+		// is a small prime dividing it
+		if (!n.testBit(0) || !PRIMORIAL.gcd(n).equals(java.math.BigInteger.ONE))
+			return false;
 
-			// square x and check for as many values as there are of r - 1
-			for (int j = 0; j < r - 1; j++) {
-				// square x modulo p
-				x = BigModuloArithmetic.powerModulus(x, new BigInteger(2), p);
+		return isBailliePSW(n);
+	}
 
-				// if it is 1 then p is composite
-				if (x.equals(new BigInteger(1)))
-					return false;
+	/**
+	 * strong base 2 miller-rabin followed by the strong lucas test.
+	 */
+	static boolean isBailliePSW(java.math.BigInteger n) {
+		if (n.signum() <= 0)
+			return false;
+
+		// small numbers are handled by the deterministic long test
+		if (n.bitLength() < 63)
+			return Primes.isPrime(n.longValue());
+		if (!n.testBit(0))
+			return false;
+
+		return !isWitness(n, TWO) && isStrongLucasPrime(n);
+	}
+
+	/**
+	 * checks if a is a miller-rabin witness to the odd number n being
+	 * composite. n - 1 = 2 ^ r * d is split off with the lowest set bit.
+	 */
+	private static boolean isWitness(java.math.BigInteger n, java.math.BigInteger a) {
+		java.math.BigInteger minusOne = n.subtract(java.math.BigInteger.ONE);
+		int r = minusOne.getLowestSetBit();
+		java.math.BigInteger d = minusOne.shiftRight(r);
+
+		// check if it passes fermat's little theorem.
+		java.math.BigInteger x = a.modPow(d, n);
+		if (x.equals(java.math.BigInteger.ONE) || x.equals(minusOne))
+			return false;
 
-				// if it is p-1 then continue to the next iteration
-				if (x.equals(p.dec())) {
-					// x is a witness so set was witness to true
-					wasWitness = true;
+		// square x and check for as many values as there are of r - 1
+		for (int j = 0; j < r - 1; j++) {
+			x = x.multiply(x).mod(n);
 
-					// break out of the current loop
-					break;
+			// if it is 1 then p is composite
+			if (x.equals(java.math.BigInteger.ONE))
+				return true;
+
+			// if it is p - 1 then a isn't a witness
+			if (x.equals(minusOne))
+				return false;
+		}
+		return true;
+	}
+
+	/**
+	 * strong lucas probable prime test with the parameters from selfridge's
+	 * method A, D is the first of 5, -7, 9, -11, ... with jacobi symbol (D/n)
+	 * = -1, P = 1 and Q = (1 - D) / 4. Writing n + 1 = 2 ^ s * d with d odd, n
+	 * passes if U_d = 0 or V_(d 2^r) = 0 mod n for some r < s.
+	 */
+	private static boolean isStrongLucasPrime(java.math.BigInteger n) {
+		// squares never have a D with symbol -1 so the search would not end
+		java.math.BigInteger root = n.sqrt();
+		if (root.multiply(root).equals(n))
+			return false;
+
+		long d = 5;
+		while (true) {
+			int symbol = jacobi(java.math.BigInteger.valueOf(d), n);
+			if (symbol == -1)
+				break;
+
+			// D shares a factor with n, which is only prime if it is D
+			if (symbol == 0)
+				return n.equals(java.math.BigInteger.valueOf(Math.abs(d)));
+			d = d > 0 ? -d - 2 : -d + 2;
+		}
+
+		java.math.BigInteger bigD = java.math.BigInteger.valueOf(d).mod(n);
+		java.math.BigInteger q = java.math.BigInteger.valueOf((1 - d) / 4).mod(n);
+
+		java.math.BigInteger plusOne = n.add(java.math.BigInteger.ONE);
+		int s = plusOne.getLowestSetBit();
+		java.math.BigInteger odd = plusOne.shiftRight(s);
+
+		// walk the bits of the odd part from the top, U_1 = 1, V_1 = P = 1
+		java.math.BigInteger u = java.math.BigInteger.ONE;
+		java.math.BigInteger v = java.math.BigInteger.ONE;
+		java.math.BigInteger qk = q;
+		for (int bit = odd.bitLength() - 2; bit >= 0; bit--) {
+			// k to 2 k
+			u = u.multiply(v).mod(n);
+			v = v.multiply(v).subtract(qk.shiftLeft(1)).mod(n);
+			qk = qk.multiply(qk).mod(n);
+
+			// 2 k to 2 k + 1
+			if (odd.testBit(bit)) {
+				java.math.BigInteger nextU = half(u.add(v), n);
+				v = half(bigD.multiply(u).add(v), n);
+				u = nextU;
+				qk = qk.multiply(q).mod(n);
+			}
+		}
+
+		if (u.signum() == 0 || v.signum() == 0)
+			return true;
+
+		// keep doubling the index, V_(2k) = V_k^2 - 2 Q^k
+		for (int r = 1; r < s; r++) {
+			v = v.multiply(v).subtract(qk.shiftLeft(1)).mod(n);
+			if (v.signum() == 0)
+				return true;
+			qk = qk.multiply(qk).mod(n);
+		}
+		return false;
+	}
+
+	/**
+	 * divides x by 2 modulo the odd number n.
+	 */
+	private static java.math.BigInteger half(java.math.BigInteger x, java.math.BigInteger n) {
+		x = x.mod(n);
+		if (x.testBit(0))
+			x = x.add(n);
+		return x.shiftRight(1);
+	}
+
+	/**
+	 * jacobi symbol (a / n) for an odd positive n.
+	 */
+	private static int jacobi(java.math.BigInteger a, java.math.BigInteger n) {
+		a = a.mod(n);
+		int results = 1;
+		while (a.signum() != 0) {
+			// pull out factors of 2, (2 / n) is -1 when n is 3 or 5 mod 8
+			int twos = a.getLowestSetBit();
+			a = a.shiftRight(twos);
+			int nMod8 = n.intValue() & 7;
+			if ((twos & 1) == 1 && (nMod8 == 3 || nMod8 == 5))
+				results = -results;
+
+			// quadratic reciprocity flips the sign when both are 3 mod 4
+			java.math.BigInteger temp = a;
+			a = n;
+			n = temp;
+			if ((a.intValue() & 3) == 3 && (n.intValue() & 3) == 3)
+				results = -results;
+			a = a.mod(n);
+		}
+		return n.equals(java.math.BigInteger.ONE) ? results : 0;
+	}
+
+	/**
+	 * uniformly random number in [0, max) with max positive.
+	 */
+	private static java.math.BigInteger randomBelow(java.math.BigInteger max, Random random) {
+		java.math.BigInteger results;
+		do {
+			results = new java.math.BigInteger(max.bitLength(), random);
+		} while (results.compareTo(max) >= 0);
+		return results;
+	}
+
+	/**
+	 * underlying value of a gmath big integer.
+	 */
+	private static java.math.BigInteger value(BigInteger p) {
+		return new java.math.BigInteger(p.toByteArray());
+	}
+
+	/**
+	 * product of the odd primes below the trial limit.
+	 */
+	private static java.math.BigInteger primorial() {
+		java.math.BigInteger results = java.math.BigInteger.ONE;
+		for (int prime : SegmentedSieve.oddPrimesUpTo(TRIAL_LIMIT - 1)) {
+			results = results.multiply(java.math.BigInteger.valueOf(prime));
+		}
+		return results;
+	}
+
+	/**
+	 * window of odd candidates start, start + 2, ... that is sieved by the
+	 * small primes. The residues of start are kept so the next window can be
+	 * sieved without dividing the big number again.
+	 * 
+	 * @author Gavin
+	 *
+	 */
+	private static final class CandidateSieve {
+		private java.math.BigInteger start;
+
+		// start mod each of the sieve primes
+		private final int[] residues = new int[SIEVE_PRIMES.length];
+
+		private CandidateSieve(java.math.BigInteger start) {
+			this.start = start;
+			for (int i = 0; i < SIEVE_PRIMES.length; i++) {
+				residues[i] = start.mod(java.math.BigInteger.valueOf(SIEVE_PRIMES[i])).intValue();
+			}
+		}
+
+		/**
+		 * returns the first probable prime in the window, or null if there
+		 * isn't one or another search found one first. Every candidate is
+		 * larger than the sieve primes.
+		 */
+		private java.math.BigInteger search(AtomicReference<java.math.BigInteger> found) {
+			boolean[] composite = new boolean[WINDOW];
+			for (int i = 0; i < SIEVE_PRIMES.length; i++) {
+				int p = SIEVE_PRIMES[i];
+				int r = residues[i];
+
+				// first index with start + 2 index = 0 mod p, p - r is halved
+				// modulo p
+				int index = r == 0 ? 0 : ((p - r) & 1) == 0 ? (p - r) / 2 : (2 * p - r) / 2;
+				for (int j = index; j < WINDOW; j += p) {
+					composite[j] = true;
 				}
+			}
+
+			for (int i = 0; i < WINDOW; i++) {
+				if (composite[i])
+					continue;
+				if (found != null && found.get() != null)
+					return null;
 
+				java.math.BigInteger candidate = start.add(java.math.BigInteger.valueOf(2L * i));
+				if (isBailliePSW(candidate))
+					return candidate;
 			}
+			return null;
+		}
 
-			// if rand wasn't a witness to the primality then it is composite
-			// and return so
-			if (!wasWitness)
-				return false;
+		/**
+		 * moves on to the next window.
+		 */
+		private void advance() {
+			start = start.add(java.math.BigInteger.valueOf(2L * WINDOW));
+			for (int i = 0; i < SIEVE_PRIMES.length; i++) {
+				residues[i] = (int) ((residues[i] + 2L * WINDOW) % SIEVE_PRIMES[i]);
+			}
 		}
+	}
 
-		// if all the tests pass return true
-		return true;
+	/**
+	 * fork join task that races random windows for a prime, splitting the
+	 * range of workers in half until each task is a single worker that keeps
+	 * searching new windows until one of them finds a prime.
+	 * 
+	 * @author Gavin
+	 *
+	 */
+	private static final class RaceTask extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+
+		private final int bits;
+		private final Random random;
+		private final AtomicReference<java.math.BigInteger> found;
+		private final int from;
+		private final int to;
+
+		private RaceTask(int bits, Random random, AtomicReference<java.math.BigInteger> found, int from, int to) {
+			this.bits = bits;
+			this.random = random;
+			this.found = found;
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		protected void compute() {
+			if (to - from <= 1) {
+				while (found.get() == null) {
+					java.math.BigInteger prime = searchRandomWindow(bits, random, found);
+					if (prime != null)
+						found.compareAndSet(null, prime);
+				}
+				return;
+			}
+
+			int middle = from + (to - from) / 2;
+			invokeAll(new RaceTask(bits, random, found, from, middle), new RaceTask(bits, random, found, middle, to));
+		}
 	}
 
+	/**
+	 * fork join task that runs a range of miller-rabin witnesses, splitting the
+	 * range in half until it is a single witness. Once one proves the number
+	 * composite the rest are skipped.
+	 * 
+	 * @author Gavin
+	 *
+	 */
+	private static final class WitnessTask extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+
+		private final java.math.BigInteger n;
+		private final java.math.BigInteger[] witnesses;
+		private final int from;
+		private final int to;
+		private final AtomicBoolean composite;
+
+		private WitnessTask(java.math.BigInteger n, java.math.BigInteger[] witnesses, int from, int to,
+				AtomicBoolean composite) {
+			this.n = n;
+			this.witnesses = witnesses;
+			this.from = from;
+			this.to = to;
+			this.composite = composite;
+		}
+
+		@Override
+		protected void compute() {
+			if (composite.get())
+				return;
+
+			if (to - from == 1) {
+				if (isWitness(n, witnesses[from]))
+					composite.set(true);
+				return;
+			}
+
+			int middle = from + (to - from) / 2;
+			invokeAll(new WitnessTask(n, witnesses, from, middle, composite),
+					new WitnessTask(n, witnesses, middle, to, composite));
+		}
+	}
+
+	/**
+	 * fork join task that tests a range of numbers for primality, splitting
+	 * the range in half until it is a single number.
+	 * 
+	 * @author Gavin
+	 *
+	 */
+	private static final class BatchTask extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+
+		private final java.math.BigInteger[] values;
+		private final boolean[] results;
+		private final int from;
+		private final int to;
+
+		private BatchTask(java.math.BigInteger[] values, boolean[] results, int from, int to) {
+			this.values = values;
+			this.results = results;
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		protected void compute() {
+			if (to - from == 1) {
+				results[from] = isProbablePrime(values[from]);
+				return;
+			}
+
+			int middle = from + (to - from) / 2;
+			invokeAll(new BatchTask(values, results, from, middle), new BatchTask(values, results, middle, to));
+		}
+	}
 }
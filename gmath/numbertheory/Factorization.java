@@ -0,0 +1,531 @@
+package gmath.numbertheory;
+
+import java.util.ArrayDeque;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.Map;
+import java.util.PrimitiveIterator;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicReference;
+
+import gmath.types.BigInteger;
+
+/**
+ * util class for factoring integers into primes. Longs are factored with trial
+ * division on a mod 30 wheel followed by Pollard-Brent rho on a
+ * {@link gmath.numbertheory.ModularContext ModularContext}, which finds any
+ * factor of a long in well under a millisecond. Big integers that are too
+ * large for that fall back to Lenstra's elliptic curve method, the curves are
+ * independent so they are run in parallel on a fork join pool.
+ *
+ * The factors are returned as a sorted map from each prime to its exponent.
+ *
+ * @author Gavin
+ *
+ */
+public final class Factorization {
+	// make class non-instantiable
+	private Factorization() {}
+
+	// offsets from 30 k of the numbers coprime to 30
+	private static final int[] WHEEL = { 1, 7, 11, 13, 17, 19, 23, 29 };
+
+	// longs are trial divided up to this before running rho
+	private static final long WHEEL_LIMIT = 1 << 12;
+
+	// rho multiplies this many differences together between gcds
+	private static final int RHO_BATCH = 128;
+
+	// big integers are trial divided by the primes below this
+	private static final int BIG_TRIAL_LIMIT = 1 << 16;
+
+	// stage 1 bounds of the elliptic curve method and the default number of
+	// curves to run at each one, enough to find factors of about 15, 20, 25,
+	// 30, 35, 40 and 45 digits
+	private static final int[] STAGE_ONE_BOUNDS = { 2000, 11000, 50000, 250000, 1000000, 3000000, 11000000 };
+	private static final int[] DEFAULT_CURVES = { 25, 90, 300, 700, 1800, 5100, 10600 };
+
+	// stage 2 searches primes up to this multiple of the stage 1 bound
+	private static final int STAGE_TWO_MULTIPLE = 100;
+
+	// stage 2 steps by this much, primes are written as m D +- j
+	private static final int STAGE_TWO_STEP = 210;
+
+	// ordering of big integer keys
+	private static final Comparator<BigInteger> ORDER = (a, b) -> a.lessThan(b) ? -1 : a.equals(b) ? 0 : 1;
+
+	/**
+	 * factors a positive long into primes.
+	 *
+	 * @param n
+	 *            number to factor, must be positive
+	 * @return map from each prime factor to its exponent, empty for 1
+	 */
+	public static SortedMap<Long, Integer> factor(long n) {
+		if (n < 1)
+			throw new IllegalArgumentException("number to factor must be positive!");
+
+		SortedMap<Long, Integer> results = new TreeMap<>();
+		factor(n, results);
+		return results;
+	}
+
+	/**
+	 * factors a positive big integer into primes with the default number of
+	 * elliptic curves at each bound, the curves are run on the common pool.
+	 *
+	 * @param n
+	 *            number to factor, must be positive
+	 * @return map from each prime factor to its exponent, empty for 1
+	 */
+	public static SortedMap<BigInteger, Integer> factor(BigInteger n) {
+		return factor(n, 0, ForkJoinPool.commonPool());
+	}
+
+	/**
+	 * factors a positive big integer into primes. Factors that trial division
+	 * and rho can't find are searched for with the elliptic curve method, the
+	 * given number of curves is run at each stage 1 bound before moving on to
+	 * a larger one. This doesn't give up, so a product of two huge primes will
+	 * run for a very long time.
+	 *
+	 * @param n
+	 *            number to factor, must be positive
+	 * @param curves
+	 *            curves to run at each bound, 0 for the default counts that
+	 *            grow with the bound
+	 * @param pool
+	 *            pool to run the curves on
+	 * @return map from each prime factor to its exponent, empty for 1
+	 */
+	public static SortedMap<BigInteger, Integer> factor(BigInteger n, int curves, ForkJoinPool pool) {
+		if (!n.greaterThan(n.context().zero()))
+			throw new IllegalArgumentException("number to factor must be positive!");
+		if (curves < 0)
+			throw new IllegalArgumentException("number of curves must not be negative!");
+
+		SortedMap<BigInteger, Integer> results = new TreeMap<>(ORDER);
+		java.math.BigInteger value = new java.math.BigInteger(n.toByteArray());
+
+		// pull out the small primes first
+		for (int prime : Primes.intPrimes(2, BIG_TRIAL_LIMIT)) {
+			java.math.BigInteger p = java.math.BigInteger.valueOf(prime);
+			while (value.mod(p).signum() == 0) {
+				value = value.divide(p);
+				add(results, p, 1);
+			}
+		}
+
+		// split the cofactors until every piece is prime, a piece that was a
+		// power of a composite keeps its exponent while it is split
+		Deque<java.math.BigInteger> pieces = new ArrayDeque<>();
+		Deque<Integer> exponents = new ArrayDeque<>();
+		if (!value.equals(java.math.BigInteger.ONE)) {
+			pieces.push(value);
+			exponents.push(1);
+		}
+		while (!pieces.isEmpty()) {
+			java.math.BigInteger piece = pieces.pop();
+			int exponent = exponents.pop();
+
+			// longs are left to rho
+			if (piece.bitLength() < 63) {
+				for (Map.Entry<Long, Integer> entry : factor(piece.longValue()).entrySet()) {
+					add(results, java.math.BigInteger.valueOf(entry.getKey()), entry.getValue() * exponent);
+				}
+				continue;
+			}
+
+			if (isProbablePrime(piece)) {
+				add(results, piece, exponent);
+				continue;
+			}
+
+			// the elliptic curve method is slow on prime powers, take their
+			// roots first
+			java.math.BigInteger[] power = perfectPower(piece);
+			if (power != null) {
+				pieces.push(power[0]);
+				exponents.push(exponent * power[1].intValue());
+				continue;
+			}
+
+			java.math.BigInteger divisor = ellipticCurveMethod(piece, curves, pool);
+			pieces.push(divisor);
+			exponents.push(exponent);
+			pieces.push(piece.divide(divisor));
+			exponents.push(exponent);
+		}
+		return results;
+	}
+
+	/**
+	 * adds the prime factors of n to the results.
+	 */
+	private static void factor(long n, SortedMap<Long, Integer> results) {
+		// 2, 3 and 5 are the primes the wheel skips
+		for (long prime : new long[] { 2, 3, 5 }) {
+			while (n % prime == 0) {
+				n /= prime;
+				results.merge(prime, 1, Integer::sum);
+			}
+		}
+
+		// trial divide by the numbers coprime to 30
+		for (long base = 0; base < WHEEL_LIMIT; base += 30) {
+			for (int offset : WHEEL) {
+				long d = base + offset;
+				if (d == 1)
+					continue;
+				if (d * d > n) {
+					if (n > 1)
+						results.merge(n, 1, Integer::sum);
+					return;
+				}
+				while (n % d == 0) {
+					n /= d;
+					results.merge(d, 1, Integer::sum);
+				}
+			}
+		}
+
+		// every factor left is larger than the wheel, split them with rho
+		Deque<Long> pieces = new ArrayDeque<>();
+		if (n > 1)
+			pieces.push(n);
+		while (!pieces.isEmpty()) {
+			long piece = pieces.pop();
+			if (Primes.isPrime(piece)) {
+				results.merge(piece, 1, Integer::sum);
+				continue;
+			}
+
+			// a bad constant can find the whole number at once, try the next
+			long divisor = piece;
+			for (long c = 1; divisor == piece; c++) {
+				divisor = pollardBrent(piece, c);
+			}
+			pieces.push(divisor);
+			pieces.push(piece / divisor);
+		}
+	}
+
+	/**
+	 * finds a divisor of the odd composite n with Pollard-Brent rho iterating
+	 * x^2 + c. The differences are multiplied together so a gcd only has to be
+	 * taken every {@link #RHO_BATCH} steps, if a batch jumps over the factor
+	 * it is redone one step at a time.
+	 *
+	 * @return a divisor of n, could be n itself
+	 */
+	private static long pollardBrent(long n, long c) {
+		ModularContext context = new ModularContext(n);
+		c = context.reduce(c);
+
+		long y = 2;
+		long x = y;
+		long saved = y;
+		long product = 1;
+		long g = 1;
+
+		// r doubles each round, x stays at the start of the round while y walks
+		for (long r = 1; g == 1; r <<= 1) {
+			x = y;
+			for (long i = 0; i < r; i++) {
+				y = context.add(context.multiply(y, y), c);
+			}
+
+			for (long k = 0; k < r && g == 1; k += RHO_BATCH) {
+				saved = y;
+				long steps = Math.min(RHO_BATCH, r - k);
+				for (long i = 0; i < steps; i++) {
+					y = context.add(context.multiply(y, y), c);
+					product = context.multiply(product, context.subtract(x, y));
+				}
+				g = ModuloArithmetic.gcd(product, n);
+			}
+		}
+
+		// the batch had every factor of n in it, back up and go step by step
+		if (g == n) {
+			do {
+				saved = context.add(context.multiply(saved, saved), c);
+				g = ModuloArithmetic.gcd(context.subtract(x, saved), n);
+			} while (g == 1);
+		}
+		return g;
+	}
+
+	/**
+	 * probable prime test for the cofactors left after trial division.
+	 */
+	private static boolean isProbablePrime(java.math.BigInteger n) {
+		return BigPrimes.isBailliePSW(n);
+	}
+
+	/**
+	 * writes n as root ^ k for the largest such k, or returns null if n isn't
+	 * a perfect power. Every prime factor of n is past the trial division
+	 * limit so k is at most the bit length over 16.
+	 */
+	private static java.math.BigInteger[] perfectPower(java.math.BigInteger n) {
+		int maxExponent = n.bitLength() / 16;
+		for (int k = maxExponent; k >= 2; k--) {
+			java.math.BigInteger root = root(n, k);
+			if (root.pow(k).equals(n))
+				return new java.math.BigInteger[] { root, java.math.BigInteger.valueOf(k) };
+		}
+		return null;
+	}
+
+	/**
+	 * floor of the kth root of n with newton's method, starting above the root
+	 * so the iterates decrease to it.
+	 */
+	private static java.math.BigInteger root(java.math.BigInteger n, int k) {
+		java.math.BigInteger big = java.math.BigInteger.valueOf(k);
+		java.math.BigInteger less = java.math.BigInteger.valueOf(k - 1);
+		java.math.BigInteger x = java.math.BigInteger.ONE.shiftLeft(n.bitLength() / k + 1);
+		while (true) {
+			java.math.BigInteger next = less.multiply(x).add(n.divide(x.pow(k - 1))).divide(big);
+			if (next.compareTo(x) >= 0)
+				return x;
+			x = next;
+		}
+	}
+
+	/**
+	 * finds a proper divisor of the composite n with the elliptic curve
+	 * method, raising the stage 1 bound until a curve succeeds.
+	 */
+	private static java.math.BigInteger ellipticCurveMethod(java.math.BigInteger n, int curves, ForkJoinPool pool) {
+		AtomicReference<java.math.BigInteger> found = new AtomicReference<>();
+
+		// every curve gets its own suyama parameter, starting past the ones
+		// that give singular curves
+		long sigma = 6;
+		for (int level = 0;; level++) {
+			int index = Math.min(level, STAGE_ONE_BOUNDS.length - 1);
+			int bound = STAGE_ONE_BOUNDS[index];
+			int count = curves > 0 ? curves : DEFAULT_CURVES[index];
+
+			int[] primes = Primes.intPrimes(2, bound + 1);
+			pool.invoke(new CurveTask(n, primes, bound, sigma, 0, count, found));
+			if (found.get() != null)
+				return found.get();
+			sigma += count;
+		}
+	}
+
+	/**
+	 * adds a prime to a big integer factor map.
+	 */
+	private static void add(SortedMap<BigInteger, Integer> results, java.math.BigInteger prime, int exponent) {
+		results.merge(new BigInteger(prime), exponent, Integer::sum);
+	}
+
+	/**
+	 * montgomery curve By^2 = x^3 + A x^2 + x modulo n from suyama's
+	 * parametrization, points are kept as (X : Z) and the y coordinate is
+	 * never needed. The group order of such a curve modulo any prime is
+	 * divisible by 12 which makes it more likely to be smooth.
+	 *
+	 * @author Gavin
+	 *
+	 */
+	private static final class Curve {
+		private final java.math.BigInteger n;
+
+		// (A + 2) / 4
+		private final java.math.BigInteger a24;
+
+		// starting point
+		private final java.math.BigInteger[] point;
+
+		// a factor found while setting the curve up
+		private final java.math.BigInteger divisor;
+
+		private Curve(java.math.BigInteger n, long sigma) {
+			this.n = n;
+			java.math.BigInteger s = java.math.BigInteger.valueOf(sigma);
+			java.math.BigInteger u = s.multiply(s).subtract(java.math.BigInteger.valueOf(5)).mod(n);
+			java.math.BigInteger v = s.shiftLeft(2).mod(n);
+			java.math.BigInteger u3 = u.pow(3).mod(n);
+
+			this.point = new java.math.BigInteger[] { u3, v.pow(3).mod(n) };
+
+			// (v - u)^3 (3 u + v) / (16 u^3 v), the denominator might share a
+			// factor with n
+			java.math.BigInteger numerator = v.subtract(u).pow(3).multiply(u.multiply(java.math.BigInteger.valueOf(3)).add(v)).mod(n);
+			java.math.BigInteger denominator = u3.multiply(v).shiftLeft(4).mod(n);
+			java.math.BigInteger g = denominator.gcd(n);
+			if (!g.equals(java.math.BigInteger.ONE)) {
+				this.a24 = null;
+				this.divisor = g;
+				return;
+			}
+			this.a24 = numerator.multiply(denominator.modInverse(n)).mod(n);
+			this.divisor = null;
+		}
+
+		/**
+		 * doubles a point.
+		 */
+		private java.math.BigInteger[] doublePoint(java.math.BigInteger[] p) {
+			java.math.BigInteger sum = p[0].add(p[1]);
+			java.math.BigInteger difference = p[0].subtract(p[1]);
+			java.math.BigInteger t1 = sum.multiply(sum).mod(n);
+			java.math.BigInteger t2 = difference.multiply(difference).mod(n);
+			java.math.BigInteger t3 = t1.subtract(t2);
+			return new java.math.BigInteger[] { t1.multiply(t2).mod(n),
+					t3.multiply(t2.add(a24.multiply(t3)).mod(n)).mod(n) };
+		}
+
+		/**
+		 * adds p and q given their difference, x only arithmetic can't add
+		 * points without it.
+		 */
+		private java.math.BigInteger[] addPoints(java.math.BigInteger[] p, java.math.BigInteger[] q,
+				java.math.BigInteger[] difference) {
+			java.math.BigInteger u = p[0].subtract(p[1]).multiply(q[0].add(q[1])).mod(n);
+			java.math.BigInteger v = p[0].add(p[1]).multiply(q[0].subtract(q[1])).mod(n);
+			java.math.BigInteger sum = u.add(v);
+			java.math.BigInteger minus = u.subtract(v);
+			return new java.math.BigInteger[] { difference[1].multiply(sum.multiply(sum).mod(n)).mod(n),
+					difference[0].multiply(minus.multiply(minus).mod(n)).mod(n) };
+		}
+
+		/**
+		 * multiplies a point by a positive scalar with the montgomery ladder,
+		 * the two points always differ by p so they can be added.
+		 */
+		private java.math.BigInteger[] multiply(java.math.BigInteger[] p, long k) {
+			java.math.BigInteger[] low = p;
+			java.math.BigInteger[] high = doublePoint(p);
+			for (int bit = 62 - Long.numberOfLeadingZeros(k); bit >= 0; bit--) {
+				if ((k >>> bit & 1) != 0) {
+					low = addPoints(high, low, p);
+					high = doublePoint(high);
+				} else {
+					high = addPoints(low, high, p);
+					low = doublePoint(low);
+				}
+			}
+			return low;
+		}
+
+		/**
+		 * runs both stages of the curve, returns the gcd of the result with n
+		 * or null if another curve finished first.
+		 */
+		private java.math.BigInteger run(int[] primes, int bound, AtomicReference<java.math.BigInteger> found) {
+			// stage 1, multiply by the largest power of every prime up to the
+			// bound
+			java.math.BigInteger[] q = point;
+			for (int i = 0; i < primes.length; i++) {
+				if ((i & 1023) == 0 && found.get() != null)
+					return null;
+				long power = primes[i];
+				while (power * primes[i] <= bound) {
+					power *= primes[i];
+				}
+				q = multiply(q, power);
+			}
+			java.math.BigInteger g = q[1].gcd(n);
+			if (!g.equals(java.math.BigInteger.ONE))
+				return g;
+
+			// stage 2, one prime past the bound. Each prime p = m D +- j is
+			// hit when x(m D q) = x(j q), tested with the cross product of the
+			// projective coordinates
+			int half = STAGE_TWO_STEP / 2;
+			java.math.BigInteger[][] small = new java.math.BigInteger[half + 1][];
+			small[1] = q;
+			small[2] = doublePoint(q);
+			for (int j = 3; j <= half; j += 2) {
+				small[j] = addPoints(small[j - 2], small[2], small[Math.abs(j - 4)]);
+			}
+
+			long limit = (long) bound * STAGE_TWO_MULTIPLE;
+			long m = (bound + half) / STAGE_TWO_STEP;
+			java.math.BigInteger[] step = multiply(q, STAGE_TWO_STEP);
+			java.math.BigInteger[] previous = multiply(q, (m - 1) * STAGE_TWO_STEP);
+			java.math.BigInteger[] current = multiply(q, m * STAGE_TWO_STEP);
+
+			java.math.BigInteger product = java.math.BigInteger.ONE;
+			PrimitiveIterator.OfLong iterator = Primes.iterator(bound + 1, limit + 1);
+			for (int count = 1; iterator.hasNext(); count++) {
+				if ((count & 4095) == 0 && found.get() != null)
+					return null;
+				long p = iterator.nextLong();
+
+				// walk the multiples of D up to the one closest to p
+				long target = (p + half) / STAGE_TWO_STEP;
+				while (m < target) {
+					java.math.BigInteger[] next = addPoints(current, step, previous);
+					previous = current;
+					current = next;
+					m++;
+				}
+
+				java.math.BigInteger[] r = small[(int) Math.abs(p - m * STAGE_TWO_STEP)];
+				product = product.multiply(current[0].multiply(r[1]).subtract(r[0].multiply(current[1]))).mod(n);
+			}
+			return product.gcd(n);
+		}
+	}
+
+	/**
+	 * fork join task that runs a range of curves, splitting the range in half
+	 * until it is a single curve. Once any curve finds a factor the rest stop.
+	 *
+	 * @author Gavin
+	 *
+	 */
+	private static final class CurveTask extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+
+		private final java.math.BigInteger n;
+		private final int[] primes;
+		private final int bound;
+		private final long sigma;
+		private final int from;
+		private final int to;
+		private final AtomicReference<java.math.BigInteger> found;
+
+		private CurveTask(java.math.BigInteger n, int[] primes, int bound, long sigma, int from, int to,
+				AtomicReference<java.math.BigInteger> found) {
+			this.n = n;
+			this.primes = primes;
+			this.bound = bound;
+			this.sigma = sigma;
+			this.from = from;
+			this.to = to;
+			this.found = found;
+		}
+
+		@Override
+		protected void compute() {
+			if (found.get() != null || from >= to)
+				return;
+
+			if (to - from == 1) {
+				Curve curve = new Curve(n, sigma + from);
+				java.math.BigInteger g = curve.divisor != null ? curve.divisor : curve.run(primes, bound, found);
+
+				// a gcd of n means every factor was found at once, the curve
+				// is wasted
+				if (g != null && !g.equals(java.math.BigInteger.ONE) && !g.equals(n))
+					found.compareAndSet(null, g);
+				return;
+			}
+
+			int middle = from + (to - from) / 2;
+			invokeAll(new CurveTask(n, primes, bound, sigma, from, middle, found),
+					new CurveTask(n, primes, bound, sigma, middle, to, found));
+		}
+	}
+}
@@ -0,0 +1,340 @@
+package gmath.numbertheory;
+
+/**
+ * arithmetic modulo a fixed modulus that fits in a long. The constants needed
+ * for fast reduction are worked out once when the context is created so every
+ * operation after that is done on primitive longs without allocating.
+ * Moduli below 2^31 use Barrett reduction since their products still fit in a
+ * long, larger odd moduli use Montgomery multiplication with
+ * {@link java.lang.Math#multiplyHigh(long, long) multiplyHigh} to get at the
+ * top half of the 128 bit products. Large even moduli fall back to shift and
+ * add.
+ *
+ * All methods take and return numbers in the range [0, modulus) unless they
+ * say otherwise.
+ *
+ * @author Gavin
+ *
+ */
+public final class ModularContext {
+
+	// largest modulus that uses barrett reduction, the product of two
+	// residues is less than 2^62.
+	private static final long BARRETT_LIMIT = 1L << 31;
+
+	private final long modulus;
+
+	// floor((2^64 - 1) / modulus) used by barrett reduction, 0 if not used
+	private final long barrett;
+
+	// true if the modulus is odd and too large for barrett
+	private final boolean montgomery;
+
+	// modulus^-1 mod 2^64 used by montgomery reduction
+	private final long inverse;
+
+	// 2^64 mod modulus and 2^128 mod modulus, that is 1 and 2^64 in
+	// montgomery form.
+	private final long one;
+	private final long r2;
+
+	/**
+	 * creates a context for arithmetic modulo the given modulus.
+	 *
+	 * @param modulus
+	 *            modulus to work in, must be positive
+	 */
+	public ModularContext(long modulus) {
+		if (modulus < 1)
+			throw new IllegalArgumentException("modulus must be positive!");
+
+		this.modulus = modulus;
+
+		if (modulus >= 2 && modulus <= BARRETT_LIMIT) {
+			this.barrett = Long.divideUnsigned(-1L, modulus);
+			this.montgomery = false;
+			this.inverse = 0;
+			this.one = 0;
+			this.r2 = 0;
+		} else if ((modulus & 1) == 1 && modulus > BARRETT_LIMIT) {
+			this.barrett = 0;
+			this.montgomery = true;
+
+			// newton iteration for the inverse modulo 2^64, every odd number is
+			// its own inverse modulo 8 and each step doubles the correct bits
+			long inv = modulus;
+			for (int i = 0; i < 5; i++) {
+				inv *= 2 - modulus * inv;
+			}
+			this.inverse = inv;
+
+			// 2^64 mod m, then square it with shift and add for 2^128 mod m
+			this.one = Long.remainderUnsigned(-modulus, modulus);
+			this.r2 = shiftMultiply(one, one);
+		} else {
+			// modulus 1 and large even moduli
+			this.barrett = 0;
+			this.montgomery = false;
+			this.inverse = 0;
+			this.one = 0;
+			this.r2 = 0;
+		}
+	}
+
+	/**
+	 * returns the modulus of the context.
+	 *
+	 * @return modulus
+	 */
+	public long getModulus() {
+		return modulus;
+	}
+
+	/**
+	 * reduces any long into the range [0, modulus).
+	 *
+	 * @param x
+	 *            number to reduce
+	 * @return x mod modulus
+	 */
+	public long reduce(long x) {
+		if (barrett != 0 && x >= 0)
+			return barrettReduce(x);
+		return Math.floorMod(x, modulus);
+	}
+
+	/**
+	 * adds two residues.
+	 *
+	 * @param a
+	 *            first residue
+	 * @param b
+	 *            second residue
+	 * @return a + b mod modulus
+	 */
+	public long add(long a, long b) {
+		// subtract first so the sum can't overflow
+		long sum = a - (modulus - b);
+		return sum < 0 ? sum + modulus : sum;
+	}
+
+	/**
+	 * subtracts two residues.
+	 *
+	 * @param a
+	 *            residue to subtract from
+	 * @param b
+	 *            residue to subtract
+	 * @return a - b mod modulus
+	 */
+	public long subtract(long a, long b) {
+		long difference = a - b;
+		return difference < 0 ? difference + modulus : difference;
+	}
+
+	/**
+	 * negates a residue.
+	 *
+	 * @param a
+	 *            residue to negate
+	 * @return -a mod modulus
+	 */
+	public long negate(long a) {
+		return a == 0 ? 0 : modulus - a;
+	}
+
+	/**
+	 * multiplies two residues.
+	 *
+	 * @param a
+	 *            first residue
+	 * @param b
+	 *            second residue
+	 * @return a * b mod modulus
+	 */
+	public long multiply(long a, long b) {
+		if (barrett != 0)
+			return barrettReduce(a * b);
+		if (montgomery)
+			return montgomeryMultiply(montgomeryMultiply(a, b), r2);
+		return shiftMultiply(a, b);
+	}
+
+	/**
+	 * raises a residue to a non negative power with binary exponentiation.
+	 *
+	 * @param a
+	 *            residue to raise
+	 * @param power
+	 *            power to raise it to, must not be negative
+	 * @return a ^ power mod modulus
+	 */
+	public long pow(long a, long power) {
+		if (power < 0)
+			throw new IllegalArgumentException("power must not be negative!");
+
+		// montgomery only pays off if the base stays in montgomery form for the
+		// whole loop
+		if (montgomery) {
+			long base = montgomeryMultiply(a, r2);
+			long results = one;
+			for (int bit = 63 - Long.numberOfLeadingZeros(power); bit >= 0; bit--) {
+				results = montgomeryMultiply(results, results);
+				if ((power >>> bit & 1) != 0)
+					results = montgomeryMultiply(results, base);
+			}
+
+			// take it back out of montgomery form
+			return montgomeryMultiply(results, 1);
+		}
+
+		long results = 1 % modulus;
+		for (int bit = 63 - Long.numberOfLeadingZeros(power); bit >= 0; bit--) {
+			results = multiply(results, results);
+			if ((power >>> bit & 1) != 0)
+				results = multiply(results, a);
+		}
+		return results;
+	}
+
+	/**
+	 * returns the inverse of a residue using the extended euclidean algorithm.
+	 *
+	 * @param a
+	 *            residue to invert
+	 * @return r such that r * a = 1 mod modulus
+	 *
+	 * @throws IllegalArgumentException
+	 *             if gcd(a, modulus) != 1
+	 */
+	public long inverse(long a) {
+		return ModuloArithmetic.moduloInverse(a, modulus);
+	}
+
+	/**
+	 * multiplies the entries of two arrays together.
+	 *
+	 * @param a
+	 *            first residues
+	 * @param b
+	 *            second residues
+	 * @param results
+	 *            array to put the products in, can be a or b
+	 */
+	public void multiply(long[] a, long[] b, long[] results) {
+		if (a.length != b.length || a.length != results.length)
+			throw new IllegalArgumentException("arrays must have the same length!");
+
+		for (int i = 0; i < a.length; i++) {
+			results[i] = multiply(a[i], b[i]);
+		}
+	}
+
+	/**
+	 * raises every entry of an array to the same power.
+	 *
+	 * @param bases
+	 *            residues to raise
+	 * @param power
+	 *            power to raise them to, must not be negative
+	 * @param results
+	 *            array to put the powers in, can be bases
+	 */
+	public void pow(long[] bases, long power, long[] results) {
+		if (bases.length != results.length)
+			throw new IllegalArgumentException("arrays must have the same length!");
+
+		for (int i = 0; i < bases.length; i++) {
+			results[i] = pow(bases[i], power);
+		}
+	}
+
+	/**
+	 * inverts every entry of an array with a single modular inverse using
+	 * montgomery's trick, the prefix products are inverted all at once and then
+	 * unwound.
+	 *
+	 * @param values
+	 *            residues to invert
+	 * @param results
+	 *            array to put the inverses in, can be values
+	 *
+	 * @throws IllegalArgumentException
+	 *             if any of the values isn't invertible
+	 */
+	public void inverse(long[] values, long[] results) {
+		int n = values.length;
+		if (n != results.length)
+			throw new IllegalArgumentException("arrays must have the same length!");
+		if (n == 0)
+			return;
+
+		// prefix products, prefix[i] is the product of the first i + 1 values
+		long[] prefix = new long[n];
+		prefix[0] = values[0];
+		for (int i = 1; i < n; i++) {
+			prefix[i] = multiply(prefix[i - 1], values[i]);
+		}
+
+		// the product is invertible exactly when every value is
+		long inverse = inverse(prefix[n - 1]);
+
+		// walk back peeling one value off of the inverse at a time
+		for (int i = n - 1; i > 0; i--) {
+			long value = values[i];
+			results[i] = multiply(inverse, prefix[i - 1]);
+			inverse = multiply(inverse, value);
+		}
+		results[0] = inverse;
+	}
+
+	/**
+	 * reduces a non negative long with barrett reduction, the estimated
+	 * quotient is at most 2 too small.
+	 */
+	private long barrettReduce(long x) {
+		long remainder = x - Math.multiplyHigh(x, barrett) * modulus;
+		while (remainder >= modulus) {
+			remainder -= modulus;
+		}
+		return remainder;
+	}
+
+	/**
+	 * returns a * b * 2^-64 mod modulus. Both are less than the modulus so the
+	 * 128 bit product is less than modulus * 2^64 which keeps the result in
+	 * (-modulus, modulus) before the final correction.
+	 */
+	private long montgomeryMultiply(long a, long b) {
+		long high = Math.multiplyHigh(a, b);
+		long low = a * b;
+
+		// q * modulus has the same low 64 bits as the product so subtracting it
+		// leaves only the difference of the high halves
+		long q = low * inverse;
+		long results = high - unsignedMultiplyHigh(q, modulus);
+		return results < 0 ? results + modulus : results;
+	}
+
+	/**
+	 * high 64 bits of the unsigned product of q and a positive modulus.
+	 */
+	private static long unsignedMultiplyHigh(long q, long modulus) {
+		return Math.multiplyHigh(q, modulus) + ((q >> 63) & modulus);
+	}
+
+	/**
+	 * a * b mod modulus by doubling and adding, only used for the moduli the
+	 * faster reductions can't handle.
+	 */
+	private long shiftMultiply(long a, long b) {
+		long results = 0;
+		while (b != 0) {
+			if ((b & 1) != 0)
+				results = add(results, a);
+			a = add(a, a);
+			b >>>= 1;
+		}
+		return results;
+	}
+}
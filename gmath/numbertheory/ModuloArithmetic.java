@@ -1,9 +1,5 @@
 package gmath.numbertheory;
 
-import java.math.BigInteger;
-
-import gcore.tuples.Pair;
-
 /**
  * util class for basic modulo arithmetic operations.
  * 
@@ -57,65 +53,69 @@ public final class ModuloArithmetic {
 
 	/**
 	 * returns the modulo inverse r of x with respect to the modulus m, i.e. r *
-	 * x = 1 mod m.
+	 * x = 1 mod m. Uses the iterative extended euclidean algorithm so nothing
+	 * is allocated.
 	 * 
 	 * @param x
 	 *            number to invert
 	 * @param m
-	 *            modulus of inversion
-	 * @return the inverse of x modulo m
+	 *            modulus of inversion, must be positive
+	 * @return the inverse of x modulo m in the range [0, m)
 	 * 
 	 * @throws IllegalArgumentException
 	 *             if gcd(x, m) != 1
 	 */
 	public static long moduloInverse(long x, long m) {
-		// inverse of 1 is 1.
-		if (x == 1)
-			return 1;
-		
-		// returns the value that is multiplied x to get the gcd(x, m)
-		if (x > m) {
-			return inverseHelper(x, m).getFirst();
+		if (m < 1)
+			throw new IllegalArgumentException("modulus must be positive!");
+
+		// only the coefficients of x are kept, the ones of m aren't needed
+		long oldR = m;
+		long r = Math.floorMod(x, m);
+		long oldS = 0;
+		long s = 1;
+		while (r != 0) {
+			long quotient = oldR / r;
+
+			long temp = oldR - quotient * r;
+			oldR = r;
+			r = temp;
+
+			temp = oldS - quotient * s;
+			oldS = s;
+			s = temp;
 		}
-		return inverseHelper(m, x).getSecond();
+
+		if (oldR != 1)
+			throw new IllegalArgumentException("gcd of two numbers needs to be 1 for there to be an inverse.");
+
+		// the coefficients stay below the modulus in absolute value
+		return oldS < 0 ? oldS + m : oldS;
 	}
 
 	/**
-	 * inverse helper used by the moduloInverse method. Takes in two arguments
-	 * and applies extended euclidean algorithm to find the gcd and then loops
-	 * back to find the inverse.
+	 * inverts every number in the array modulo m with montgomery's trick. The
+	 * running products are inverted with a single extended euclidean
+	 * algorithm and then unwound, so n numbers take 3 (n - 1) multiplications
+	 * and one inverse.
 	 * 
-	 * @param x
-	 *            larger of the two numbers.
+	 * @param xs
+	 *            numbers to invert
 	 * @param m
-	 *            smaller of the two numbers.
-	 * @return pair relating how the two numbers are a linear combination of
-	 *         their gcd.
+	 *            modulus of inversion, must be positive
+	 * @return the inverses of the numbers modulo m in the range [0, m)
 	 * 
 	 * @throws IllegalArgumentException
-	 *             if gcd(x, m) != 1
+	 *             if gcd(x, m) != 1 for any of the numbers
 	 */
-	private static Pair<Long, Long> inverseHelper(long x, long m) {
-		// check if gcd was never found to be 1 if so throw an illegal argument
-		// exception
-		if (m == 0) {
-			throw new IllegalArgumentException("gcd of two numbers needs to be 1 for there to be an inverse.");
+	public static long[] moduloInverseAll(long[] xs, long m) {
+		ModularContext context = new ModularContext(m);
+		long[] results = new long[xs.length];
+		for (int i = 0; i < xs.length; i++) {
+			results[i] = context.reduce(xs[i]);
 		}
-
-		// gets how many m go into x
-		long d = x / m;
-
-		// check if at the end of the algorithm
-		if (x % m == 1) {
-
-			// return a new pair of (-d * b + 1, -d * a)
-			return new Pair<>(1L, -d);
-		}
-		// recursive step
-		Pair<Long, Long> previous = inverseHelper(m, x % m);
-
-		// return based off extended euclidean algorithm.
-		return new Pair<>(previous.getSecond(), previous.getFirst() - d * previous.getSecond());
+		context.inverse(results, results);
+		return results;
 	}
 
 	/**
@@ -130,35 +130,9 @@ public final class ModuloArithmetic {
 	 * @return x ^ p mod m
 	 */
 	public static long powerModulus(long x, long p, long m) {
-		// convert x to a big integer to prevent overflow and copy the original.
-		BigInteger original = BigInteger.valueOf(x);
-		BigInteger num = original;
-
-		// convert the modulus to big integer to use with the number.
-		BigInteger modulus = BigInteger.valueOf(m);
-
-		// convert the power to binary to use a binary power method.
-		String binaryPower = Long.toBinaryString(p);
-
-		// get rid of the first character as it isn't a 0 or 1 and is
-		// irrelevant.
-		binaryPower = binaryPower.substring(1, binaryPower.length());
-
-		// loop through the digits if they are a 1 times by the number and if it
-		// is a 0 just square.
-		for (char c : binaryPower.toCharArray()) {
-			num = num.pow(2);
-			switch (c) {
-			case '1':
-				num = num.multiply(original);
-			}
-			num = num.mod(modulus);
-		}
-
-		// return the long value of the big integer, since the modulus is a long
-		// the result should be strictly less than the modulus and therefore
-		// also a long.
-		return num.longValue();
+		// the context does the multiplications on longs without overflowing
+		ModularContext context = new ModularContext(m);
+		return context.pow(context.reduce(x), p);
 	}
 
 }
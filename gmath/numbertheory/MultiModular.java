@@ -0,0 +1,445 @@
+package gmath.numbertheory;
+
+import gmath.types.BigInteger;
+
+/**
+ * basis of word sized primes for multi-modular arithmetic. A big integer is
+ * reduced into its residues modulo each prime, the work is done on the
+ * residues with machine word arithmetic, one prime at a time and
+ * independently of the others, and the result is put back together with the
+ * chinese remainder theorem. The primes are the largest ones below 2^62 so
+ * every residue fits in a long and the products can be reduced by a
+ * {@link gmath.numbertheory.ModularContext ModularContext}.
+ *
+ * Everything that only depends on the primes is worked out when the basis is
+ * created. Numbers are reduced word by word with machine arithmetic for each
+ * prime, only numbers with thousands of bits go through a subproduct tree. A
+ * few primes are recombined with Garner's algorithm, larger bases use the
+ * subproduct tree so the cost grows with the cost of multiplying the numbers
+ * instead of quadratically.
+ *
+ * @author Gavin
+ *
+ */
+public final class MultiModular {
+
+	// largest primes used as moduli are below this
+	private static final long PRIME_LIMIT = 1L << 62;
+
+	// every prime in the basis is at least 2^61 so each adds 61 bits
+	private static final int BITS_PER_PRIME = 61;
+
+	// bases with at least this many primes use the subproduct tree
+	private static final int TREE_THRESHOLD = 16;
+
+	// numbers with more bits than this are reduced with the subproduct tree,
+	// smaller ones are reduced word by word for each prime
+	private static final int TREE_BITS = 2048;
+
+	private final long[] primes;
+	private final ModularContext[] contexts;
+
+	// product of all of the primes
+	private final java.math.BigInteger modulus;
+
+	// 2^32 modulo each prime for reducing a number word by word
+	private final long[] shifts;
+
+	// garner, inverse of p_0 ... p_(i - 1) modulo p_i
+	private final long[] garner;
+
+	// subproduct tree, level 0 holds the primes and each level above holds the
+	// products of pairs from the level below, the root is the modulus. null if
+	// the basis is small enough for garner
+	private final java.math.BigInteger[][] tree;
+
+	// inverse of modulus / p_i modulo p_i for the tree recombination
+	private final long[] cofactors;
+
+	/**
+	 * creates a basis of the given number of primes, the largest primes below
+	 * 2^62.
+	 *
+	 * @param count
+	 *            number of primes in the basis, must be positive
+	 */
+	public MultiModular(int count) {
+		if (count < 1)
+			throw new IllegalArgumentException("basis needs at least one prime!");
+
+		this.primes = new long[count];
+		this.contexts = new ModularContext[count];
+		this.shifts = new long[count];
+		long candidate = PRIME_LIMIT - 1;
+		for (int i = 0; i < count; i++) {
+			while (!Primes.isPrime(candidate)) {
+				candidate -= 2;
+			}
+			primes[i] = candidate;
+			contexts[i] = new ModularContext(candidate);
+			shifts[i] = (1L << 32) % candidate;
+			candidate -= 2;
+		}
+
+		// garner constants, the running product is reduced modulo each prime
+		this.garner = new long[count];
+		for (int i = 1; i < count; i++) {
+			ModularContext context = contexts[i];
+			long product = 1;
+			for (int j = 0; j < i; j++) {
+				product = context.multiply(product, context.reduce(primes[j]));
+			}
+			garner[i] = context.inverse(product);
+		}
+
+		if (count < TREE_THRESHOLD) {
+			this.tree = null;
+			this.cofactors = null;
+			this.modulus = product(0, count);
+			return;
+		}
+
+		this.tree = buildTree();
+		this.modulus = tree[tree.length - 1][0];
+
+		// modulus / p_i mod p_i is the product of the other primes
+		this.cofactors = new long[count];
+		for (int i = 0; i < count; i++) {
+			ModularContext context = contexts[i];
+			long product = 1;
+			for (int j = 0; j < count; j++) {
+				if (j != i)
+					product = context.multiply(product, context.reduce(primes[j]));
+			}
+			cofactors[i] = context.inverse(product);
+		}
+	}
+
+	/**
+	 * creates a basis large enough to recover any integer with absolute value
+	 * below 2^bits from its residues with
+	 * {@link #reconstructSigned(long[]) reconstructSigned}.
+	 *
+	 * @param bits
+	 *            bound on the bit length of the numbers to recover
+	 * @return basis with enough primes
+	 */
+	public static MultiModular forBits(int bits) {
+		// the modulus has to be more than twice the bound to fit the sign
+		return new MultiModular(Math.max(1, (bits + 1 + BITS_PER_PRIME) / BITS_PER_PRIME));
+	}
+
+	/**
+	 * returns the number of primes in the basis.
+	 *
+	 * @return number of primes
+	 */
+	public int size() {
+		return primes.length;
+	}
+
+	/**
+	 * returns the ith prime of the basis.
+	 *
+	 * @param i
+	 *            index of the prime
+	 * @return ith prime
+	 */
+	public long getPrime(int i) {
+		return primes[i];
+	}
+
+	/**
+	 * returns the arithmetic modulo the ith prime of the basis.
+	 *
+	 * @param i
+	 *            index of the prime
+	 * @return context for the ith prime
+	 */
+	public ModularContext getContext(int i) {
+		return contexts[i];
+	}
+
+	/**
+	 * returns the product of every prime in the basis, numbers are recovered
+	 * modulo this.
+	 *
+	 * @return product of the primes
+	 */
+	public BigInteger getModulus() {
+		return new BigInteger(modulus);
+	}
+
+	/**
+	 * reduces a number modulo every prime of the basis.
+	 *
+	 * @param x
+	 *            number to reduce
+	 * @return residues of x in [0, p_i)
+	 */
+	public long[] reduce(BigInteger x) {
+		long[] results = new long[primes.length];
+		reduce(value(x), results);
+		return results;
+	}
+
+	/**
+	 * reduces every number of an array modulo every prime of the basis. The
+	 * residues are grouped by prime so the work for each prime reads one
+	 * contiguous array.
+	 *
+	 * @param xs
+	 *            numbers to reduce
+	 * @return residues where [i][j] is xs[j] modulo the ith prime
+	 */
+	public long[][] reduce(BigInteger[] xs) {
+		long[][] results = new long[primes.length][xs.length];
+
+		// the words of each number are only pulled out once and shared by
+		// every prime
+		int[][] words = new int[xs.length][];
+		boolean[] negative = new boolean[xs.length];
+		for (int j = 0; j < xs.length; j++) {
+			java.math.BigInteger x = value(xs[j]);
+			if (x.bitLength() > TREE_BITS && tree != null) {
+				long[] column = new long[primes.length];
+				reduce(x, column);
+				for (int i = 0; i < primes.length; i++) {
+					results[i][j] = column[i];
+				}
+				continue;
+			}
+			words[j] = words(x);
+			negative[j] = x.signum() < 0;
+		}
+
+		// one prime at a time so its context stays hot
+		for (int i = 0; i < primes.length; i++) {
+			for (int j = 0; j < xs.length; j++) {
+				if (words[j] != null)
+					results[i][j] = reduceWords(words[j], negative[j], i);
+			}
+		}
+		return results;
+	}
+
+	/**
+	 * recovers the number in [0, modulus) with the given residues.
+	 *
+	 * @param residues
+	 *            residue modulo each prime of the basis
+	 * @return the number with those residues
+	 */
+	public BigInteger reconstruct(long[] residues) {
+		return new BigInteger(combine(residues));
+	}
+
+	/**
+	 * recovers the number in (-modulus / 2, modulus / 2] with the given
+	 * residues.
+	 *
+	 * @param residues
+	 *            residue modulo each prime of the basis
+	 * @return the number with those residues
+	 */
+	public BigInteger reconstructSigned(long[] residues) {
+		java.math.BigInteger results = combine(residues);
+		if (results.compareTo(modulus.shiftRight(1)) > 0)
+			results = results.subtract(modulus);
+		return new BigInteger(results);
+	}
+
+	/**
+	 * recovers a number for each column of the residues in (-modulus / 2,
+	 * modulus / 2], the layout matches {@link #reduce(BigInteger[])}.
+	 *
+	 * @param residues
+	 *            residues where [i][j] is the jth number modulo the ith prime
+	 * @return the numbers with those residues
+	 */
+	public BigInteger[] reconstructSigned(long[][] residues) {
+		if (residues.length != primes.length)
+			throw new IllegalArgumentException("need residues for every prime of the basis!");
+
+		int count = residues[0].length;
+		BigInteger[] results = new BigInteger[count];
+		long[] column = new long[primes.length];
+		for (int j = 0; j < count; j++) {
+			for (int i = 0; i < primes.length; i++) {
+				column[i] = residues[i][j];
+			}
+			results[j] = reconstructSigned(column);
+		}
+		return results;
+	}
+
+	/**
+	 * puts the residues back together into [0, modulus).
+	 */
+	private java.math.BigInteger combine(long[] residues) {
+		if (residues.length != primes.length)
+			throw new IllegalArgumentException("need residues for every prime of the basis!");
+
+		if (tree == null)
+			return garner(residues);
+		return combineNode(residues, tree.length - 1, 0).mod(modulus);
+	}
+
+	/**
+	 * garner's algorithm, finds the mixed radix digits v_i with x = v_0 + p_0
+	 * (v_1 + p_1 (v_2 + ...)) one prime at a time and then evaluates them.
+	 */
+	private java.math.BigInteger garner(long[] residues) {
+		int count = primes.length;
+		long[] digits = new long[count];
+		for (int i = 0; i < count; i++) {
+			ModularContext context = contexts[i];
+
+			// value of the digits found so far modulo p_i by horner's rule
+			long sum = 0;
+			for (int j = i - 1; j >= 0; j--) {
+				sum = context.add(context.multiply(sum, context.reduce(primes[j])), context.reduce(digits[j]));
+			}
+			long difference = context.subtract(context.reduce(residues[i]), sum);
+			digits[i] = i == 0 ? difference : context.multiply(difference, garner[i]);
+		}
+
+		java.math.BigInteger results = java.math.BigInteger.valueOf(digits[count - 1]);
+		for (int i = count - 2; i >= 0; i--) {
+			results = results.multiply(java.math.BigInteger.valueOf(primes[i])).add(java.math.BigInteger.valueOf(digits[i]));
+		}
+		return results;
+	}
+
+	/**
+	 * recombines the primes under a node of the subproduct tree. Each prime
+	 * contributes r_i c_i (modulus / p_i) where c_i inverts modulus / p_i, so
+	 * a node adds its children with each one scaled by the product of the
+	 * primes under the other. The root is reduced once at the end.
+	 */
+	private java.math.BigInteger combineNode(long[] residues, int level, int index) {
+		if (level == 0) {
+			ModularContext context = contexts[index];
+			return java.math.BigInteger.valueOf(context.multiply(context.reduce(residues[index]), cofactors[index]));
+		}
+
+		int left = 2 * index;
+		int right = left + 1;
+
+		// an odd node at the end of a level has no sibling and was carried up
+		if (right >= tree[level - 1].length)
+			return combineNode(residues, level - 1, left);
+
+		java.math.BigInteger a = combineNode(residues, level - 1, left);
+		java.math.BigInteger b = combineNode(residues, level - 1, right);
+		return a.multiply(tree[level - 1][right]).add(b.multiply(tree[level - 1][left]));
+	}
+
+	/**
+	 * writes the residues of x into results.
+	 */
+	private void reduce(java.math.BigInteger x, long[] results) {
+		if (tree == null || x.bitLength() <= TREE_BITS) {
+			int[] words = words(x);
+			for (int i = 0; i < primes.length; i++) {
+				results[i] = reduceWords(words, x.signum() < 0, i);
+			}
+			return;
+		}
+		reduceNode(x.mod(modulus), tree.length - 1, 0, results);
+	}
+
+	/**
+	 * reduces a magnitude given as big endian 32 bit words modulo the ith
+	 * prime with horner's rule.
+	 */
+	private long reduceWords(int[] words, boolean negative, int i) {
+		ModularContext context = contexts[i];
+		long shift = shifts[i];
+		long results = 0;
+		for (int word : words) {
+			// every word is below the prime so it can be added directly
+			results = context.add(context.multiply(results, shift), word & 0xFFFFFFFFL);
+		}
+		return negative ? context.negate(results) : results;
+	}
+
+	/**
+	 * big endian 32 bit words of the magnitude of x.
+	 */
+	private static int[] words(java.math.BigInteger x) {
+		byte[] bytes = x.abs().toByteArray();
+		int[] results = new int[(bytes.length + 3) / 4];
+
+		// the first word takes whatever is left over past a multiple of 4
+		for (int b = 0; b < bytes.length; b++) {
+			int word = results.length - 1 - (bytes.length - 1 - b) / 4;
+			results[word] = results[word] << 8 | (bytes[b] & 0xFF);
+		}
+		return results;
+	}
+
+	/**
+	 * walks the subproduct tree down from a node, x is already reduced modulo
+	 * the node so each remainder halves in size.
+	 */
+	private void reduceNode(java.math.BigInteger x, int level, int index, long[] results) {
+		if (level == 0) {
+			results[index] = x.longValue();
+			return;
+		}
+
+		int left = 2 * index;
+		int right = left + 1;
+		if (right >= tree[level - 1].length) {
+			reduceNode(x, level - 1, left, results);
+			return;
+		}
+		reduceNode(x.mod(tree[level - 1][left]), level - 1, left, results);
+		reduceNode(x.mod(tree[level - 1][right]), level - 1, right, results);
+	}
+
+	/**
+	 * builds the subproduct tree over the primes.
+	 */
+	private java.math.BigInteger[][] buildTree() {
+		int levels = 1;
+		for (int width = primes.length; width > 1; width = (width + 1) / 2) {
+			levels++;
+		}
+
+		java.math.BigInteger[][] results = new java.math.BigInteger[levels][];
+		results[0] = new java.math.BigInteger[primes.length];
+		for (int i = 0; i < primes.length; i++) {
+			results[0][i] = java.math.BigInteger.valueOf(primes[i]);
+		}
+
+		// an odd node out is carried up to the next level on its own
+		for (int level = 1; level < levels; level++) {
+			java.math.BigInteger[] below = results[level - 1];
+			java.math.BigInteger[] current = new java.math.BigInteger[(below.length + 1) / 2];
+			for (int i = 0; i < current.length; i++) {
+				current[i] = 2 * i + 1 < below.length ? below[2 * i].multiply(below[2 * i + 1]) : below[2 * i];
+			}
+			results[level] = current;
+		}
+		return results;
+	}
+
+	/**
+	 * product of the primes in [from, to) by splitting in half.
+	 */
+	private java.math.BigInteger product(int from, int to) {
+		if (to - from == 1)
+			return java.math.BigInteger.valueOf(primes[from]);
+		int middle = from + (to - from) / 2;
+		return product(from, middle).multiply(product(middle, to));
+	}
+
+	/**
+	 * underlying value of a gmath big integer.
+	 */
+	private static java.math.BigInteger value(BigInteger x) {
+		return new java.math.BigInteger(x.toByteArray());
+	}
+}
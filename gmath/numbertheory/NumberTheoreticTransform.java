@@ -0,0 +1,248 @@
+package gmath.numbertheory;
+
+/**
+ * util class for multiplying polynomials over Z/m with the number theoretic
+ * transform. The coefficients are transformed modulo primes of the form c 2^k
+ * + 1, which have 2^k th roots of unity, multiplied point by point and
+ * transformed back in O(n log n). For any other modulus the product is found
+ * exactly over the integers modulo up to three of these primes, put back
+ * together with the chinese remainder theorem and then reduced, so any
+ * modulus up to 2^31 works.
+ *
+ * The forward transform is decimation in frequency and leaves its output in
+ * bit reversed order, the inverse is decimation in time and takes bit
+ * reversed input, so no permutation is ever done.
+ *
+ * @author Gavin
+ *
+ */
+public final class NumberTheoreticTransform {
+	// make class non-instantiable
+	private NumberTheoreticTransform() {}
+
+	/**
+	 * largest number of coefficients a product can have, limited by the
+	 * primes' 2-adic orders.
+	 */
+	public static final int MAX_LENGTH = 1 << 23;
+
+	// largest modulus that can be handled, the squares of the residues have to
+	// fit in a long and the three primes have to cover the coefficients
+	private static final long MAX_MODULUS = 1L << 31;
+
+	// primes of the form c 2^k + 1 with k >= 23 and 3 as a primitive root
+	private static final long[] PRIMES = { 998244353L, 469762049L, 167772161L };
+	private static final long GENERATOR = 3;
+
+	private static final ModularContext[] CONTEXTS = { new ModularContext(PRIMES[0]),
+			new ModularContext(PRIMES[1]), new ModularContext(PRIMES[2]) };
+
+	/**
+	 * multiplies the polynomials with the given coefficients modulo the
+	 * modulus. Only the convolution of the two arrays is computed so it
+	 * doesn't matter which end holds the leading coefficient as long as both
+	 * arrays agree.
+	 *
+	 * @param a
+	 *            coefficients of the first polynomial in [0, modulus)
+	 * @param b
+	 *            coefficients of the second polynomial in [0, modulus)
+	 * @param modulus
+	 *            modulus of the coefficients, at most 2^31
+	 * @return a.length + b.length - 1 coefficients of the product in [0,
+	 *         modulus)
+	 */
+	public static long[] multiply(long[] a, long[] b, long modulus) {
+		if (modulus < 2 || modulus > MAX_MODULUS)
+			throw new IllegalArgumentException("modulus must be between 2 and 2^31!");
+		if (a.length == 0 || b.length == 0)
+			throw new IllegalArgumentException("polynomials need at least one coefficient!");
+
+		int length = a.length + b.length - 1;
+		if (length > MAX_LENGTH)
+			throw new IllegalArgumentException("products can have at most " + MAX_LENGTH + " coefficients!");
+
+		int size = Integer.highestOneBit(Math.max(1, length - 1)) << 1;
+		boolean square = a == b;
+
+		// a transform prime is its own field, otherwise use just enough primes
+		// that their product is larger than any coefficient over the integers
+		int count = primeIndex(modulus) >= 0 ? 1 : primesNeeded(Math.min(a.length, b.length), modulus);
+		int first = count == 1 && primeIndex(modulus) >= 0 ? primeIndex(modulus) : 0;
+
+		long[][] residues = new long[count][];
+		for (int i = 0; i < count; i++) {
+			residues[i] = convolve(a, b, square, size, first + i);
+		}
+
+		long[] results = new long[length];
+		if (count == 1) {
+			ModularContext context = new ModularContext(modulus);
+			for (int j = 0; j < length; j++) {
+				results[j] = context.reduce(residues[0][j]);
+			}
+			return results;
+		}
+		combine(residues, count, modulus, results);
+		return results;
+	}
+
+	/**
+	 * convolution of a and b modulo the ith transform prime, the first
+	 * a.length + b.length - 1 entries of the result are the product.
+	 */
+	private static long[] convolve(long[] a, long[] b, boolean square, int size, int i) {
+		ModularContext context = CONTEXTS[i];
+		long prime = PRIMES[i];
+
+		// root of unity of order size and its inverse
+		long root = context.pow(GENERATOR, (prime - 1) / size);
+		long[] roots = powers(root, size / 2, context);
+		long[] inverseRoots = powers(context.inverse(root), size / 2, context);
+
+		long[] x = load(a, size, context);
+		forward(x, roots, context);
+		if (square) {
+			context.multiply(x, x, x);
+		} else {
+			long[] y = load(b, size, context);
+			forward(y, roots, context);
+			context.multiply(x, y, x);
+		}
+		inverse(x, inverseRoots, context);
+		return x;
+	}
+
+	/**
+	 * copies the coefficients into a zero padded array of the given size
+	 * reduced modulo the prime.
+	 */
+	private static long[] load(long[] values, int size, ModularContext context) {
+		long[] results = new long[size];
+		for (int i = 0; i < values.length; i++) {
+			results[i] = context.reduce(values[i]);
+		}
+		return results;
+	}
+
+	/**
+	 * returns root^0 ... root^(count - 1).
+	 */
+	private static long[] powers(long root, int count, ModularContext context) {
+		long[] results = new long[Math.max(1, count)];
+		results[0] = 1;
+		for (int i = 1; i < count; i++) {
+			results[i] = context.multiply(results[i - 1], root);
+		}
+		return results;
+	}
+
+	/**
+	 * in place decimation in frequency transform, natural order in and bit
+	 * reversed order out.
+	 */
+	private static void forward(long[] x, long[] roots, ModularContext context) {
+		int n = x.length;
+		for (int length = n; length >= 2; length >>= 1) {
+			int half = length >> 1;
+			int step = n / length;
+			for (int start = 0; start < n; start += length) {
+				for (int j = 0, w = 0; j < half; j++, w += step) {
+					long u = x[start + j];
+					long v = x[start + j + half];
+					x[start + j] = context.add(u, v);
+					x[start + j + half] = context.multiply(context.subtract(u, v), roots[w]);
+				}
+			}
+		}
+	}
+
+	/**
+	 * in place decimation in time inverse transform, bit reversed order in and
+	 * natural order out, including the division by n.
+	 */
+	private static void inverse(long[] x, long[] inverseRoots, ModularContext context) {
+		int n = x.length;
+		for (int length = 2; length <= n; length <<= 1) {
+			int half = length >> 1;
+			int step = n / length;
+			for (int start = 0; start < n; start += length) {
+				for (int j = 0, w = 0; j < half; j++, w += step) {
+					long u = x[start + j];
+					long v = context.multiply(x[start + j + half], inverseRoots[w]);
+					x[start + j] = context.add(u, v);
+					x[start + j + half] = context.subtract(u, v);
+				}
+			}
+		}
+
+		long scale = context.inverse(n);
+		for (int i = 0; i < n; i++) {
+			x[i] = context.multiply(x[i], scale);
+		}
+	}
+
+	/**
+	 * garner's algorithm on the residues modulo the first count primes, the
+	 * exact coefficient is reduced modulo the target as it is built.
+	 */
+	private static void combine(long[][] residues, int count, long modulus, long[] results) {
+		ModularContext target = new ModularContext(modulus);
+		ModularContext c1 = CONTEXTS[1];
+		long p0 = PRIMES[0];
+		long p1 = PRIMES[1];
+		long inverse01 = c1.inverse(p0 % p1);
+		long p0Target = target.reduce(p0);
+		long p01Target = target.multiply(p0Target, target.reduce(p1));
+
+		ModularContext c2 = CONTEXTS[2];
+		long inverse02 = 0;
+		long inverse12 = 0;
+		if (count == 3) {
+			inverse02 = c2.inverse(p0 % PRIMES[2]);
+			inverse12 = c2.inverse(p1 % PRIMES[2]);
+		}
+
+		for (int j = 0; j < results.length; j++) {
+			long r0 = residues[0][j];
+
+			// x = r0 + p0 v1 + p0 p1 v2
+			long v1 = c1.multiply(c1.subtract(residues[1][j], c1.reduce(r0)), inverse01);
+			long value = target.add(target.reduce(r0), target.multiply(p0Target, target.reduce(v1)));
+			if (count == 3) {
+				long v2 = c2.subtract(residues[2][j], c2.reduce(r0));
+				v2 = c2.subtract(c2.multiply(v2, inverse02), c2.reduce(v1));
+				v2 = c2.multiply(v2, inverse12);
+				value = target.add(value, target.multiply(p01Target, target.reduce(v2)));
+			}
+			results[j] = value;
+		}
+	}
+
+	/**
+	 * index of the modulus in the transform primes or -1 if it isn't one.
+	 */
+	private static int primeIndex(long modulus) {
+		for (int i = 0; i < PRIMES.length; i++) {
+			if (PRIMES[i] == modulus)
+				return i;
+		}
+		return -1;
+	}
+
+	/**
+	 * number of transform primes whose product is larger than any coefficient
+	 * of the product over the integers, at most terms (modulus - 1)^2. A bit
+	 * of slack is left for the rounding of the logarithms.
+	 */
+	private static int primesNeeded(int terms, long modulus) {
+		double bound = Math.log(terms) + 2 * Math.log(modulus - 1) + 1;
+		double product = 0;
+		for (int i = 0; i < PRIMES.length; i++) {
+			product += Math.log(PRIMES[i]);
+			if (product > bound)
+				return i + 1;
+		}
+		return PRIMES.length;
+	}
+}
@@ -0,0 +1,418 @@
+package gmath.numbertheory;
+
+import java.util.Arrays;
+import java.util.PrimitiveIterator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * util class that counts primes with the Lagarias-Miller-Odlyzko version of
+ * the Meissel-Lehmer method. With y = alpha * x^(1/3) and a = pi(y)
+ *
+ * <pre>
+ * pi(x) = phi(x, a) + a - 1 - P2(x, a)
+ * </pre>
+ *
+ * where phi(x, a) counts the numbers up to x without any of the first a primes
+ * as factors and P2(x, a) counts the numbers up to x that are a product of two
+ * primes larger than y. phi is split into the ordinary leaves, a sum over the
+ * square free numbers up to y, and the special leaves which are counted with
+ * a segmented sieve of [1, x / y] and a binary indexed tree. The whole method
+ * takes about O(x^(2/3)) time and only one sieve segment per thread of
+ * memory besides the tables up to y.
+ *
+ * The special leaves are split into chunks of segments that are sieved in
+ * parallel. Each chunk counts as if it started at 1 and records how much every
+ * leaf depends on the count before it, so the chunks can be stitched together
+ * in order afterwards.
+ *
+ * @author Gavin
+ *
+ */
+final class PrimeCounting {
+
+	// make class non-instantiable
+	private PrimeCounting() {}
+
+	// below this the primes are just sieved and counted
+	private static final long SIEVE_LIMIT = 1L << 24;
+
+	// numbers in a segment of the special leaf sieve
+	private static final int SEGMENT_SIZE = 1 << 16;
+
+	// segments in a chunk handed to a single task
+	private static final int CHUNK_SEGMENTS = 16;
+
+	/**
+	 * counts the primes less than or equal to x.
+	 *
+	 * @param x
+	 *            number to count up to
+	 * @param pool
+	 *            pool to count the special leaves on
+	 * @return number of primes up to x
+	 */
+	static long primeCount(long x, ForkJoinPool pool) {
+		if (x < 2)
+			return 0;
+		if (x <= SIEVE_LIMIT)
+			return Primes.countPrimes(0, x + 1);
+
+		// a larger y shrinks the sieve of the special leaves but grows the
+		// tables and the number of leaves, y has to stay below sqrt(x)
+		long cubeRoot = root(x, 3);
+		double logX = Math.log(x);
+		double alpha = Math.max(1, logX * logX / 150);
+		long y = Math.min((long) (alpha * cubeRoot), SegmentedSieve.sqrtFloor(x) - 1);
+		y = Math.max(y, cubeRoot);
+		long z = x / y;
+
+		// tables of the least prime factor and mobius function up to y
+		Tables tables = new Tables((int) y);
+		int a = tables.primeCount;
+
+		long s1 = ordinaryLeaves(x, tables);
+		long s2 = specialLeaves(x, (int) y, z, tables, pool);
+		long p2 = p2(x, y, z, a);
+
+		return s1 + s2 + a - 1 - p2;
+	}
+
+	/**
+	 * finds the nth prime, the first prime is 2.
+	 *
+	 * @param n
+	 *            index of the prime
+	 * @param pool
+	 *            pool to count the special leaves on
+	 * @return nth prime
+	 */
+	static long nthPrime(long n, ForkJoinPool pool) {
+		if (n < 1)
+			throw new IllegalArgumentException("n must be positive!");
+
+		// small indices are found by sieving past an upper bound
+		if (n < 6) {
+			long[] first = { 2, 3, 5, 7, 11 };
+			return first[(int) n - 1];
+		}
+		double log = Math.log(n);
+		double logLog = Math.log(log);
+		if (n < 1000000)
+			return Primes.primes(0, (long) (n * (log + logLog)) + 1)[(int) n - 1];
+
+		// estimate from the asymptotic expansion, it is close enough that only
+		// a short range has to be sieved on either side
+		long guess = (long) (n * (log + logLog - 1 + (logLog - 2) / log));
+		long count = primeCount(guess, pool);
+
+		if (count >= n) {
+			// walk down from the guess, the largest prime up to it is the
+			// count-th prime
+			long hi = guess + 1;
+			long window = Math.max(SEGMENT_SIZE, (long) log * 64);
+			while (true) {
+				long lo = Math.max(hi - window, 0);
+				long[] primes = Primes.primes(lo, hi);
+				if (count - primes.length < n)
+					return primes[(int) (n - (count - primes.length)) - 1];
+				count -= primes.length;
+				hi = lo;
+			}
+		}
+
+		// walk up from the guess
+		PrimitiveIterator.OfLong iterator = Primes.iterator(guess + 1, Long.MAX_VALUE);
+		long prime = 0;
+		while (count < n) {
+			prime = iterator.nextLong();
+			count++;
+		}
+		return prime;
+	}
+
+	/**
+	 * sum of mu(n) * floor(x / n) over n up to y.
+	 */
+	private static long ordinaryLeaves(long x, Tables tables) {
+		long results = 0;
+		for (int n = 1; n < tables.mu.length; n++) {
+			results += tables.mu[n] * (x / n);
+		}
+		return results;
+	}
+
+	/**
+	 * sum of -mu(m) * phi(x / (p_b m), b - 1) over the special leaves, those
+	 * with m <= y < p_b m and every prime factor of m larger than p_b.
+	 */
+	private static long specialLeaves(long x, int y, long z, Tables tables, ForkJoinPool pool) {
+		int a = tables.primeCount;
+		long span = (long) CHUNK_SEGMENTS * SEGMENT_SIZE;
+		int chunks = (int) ((z + span - 1) / span);
+
+		// sieve every chunk on its own
+		Chunk[] results = new Chunk[chunks];
+		pool.invoke(new ChunkTask(x, y, z, tables, results, 0, chunks));
+
+		// stitch them together, before[b] is how many numbers in the earlier
+		// chunks are left after removing the first b - 1 primes
+		long[] before = new long[a + 1];
+		long sum = 0;
+		for (Chunk chunk : results) {
+			sum += chunk.sum;
+			for (int b = 1; b <= a; b++) {
+				sum += chunk.weights[b] * before[b];
+				before[b] += chunk.counts[b];
+			}
+		}
+		return sum;
+	}
+
+	/**
+	 * counts the special leaves in [low, high) as if the numbers before low
+	 * didn't exist.
+	 */
+	private static Chunk chunk(long x, int y, long low, long high, Tables tables) {
+		int a = tables.primeCount;
+		int[] primes = tables.primes;
+		int[] lpf = tables.lpf;
+		byte[] mu = tables.mu;
+
+		Chunk chunk = new Chunk(a);
+		boolean[] sieve = new boolean[SEGMENT_SIZE];
+		int[] tree = new int[SEGMENT_SIZE + 1];
+
+		for (long segmentLow = low; segmentLow < high; segmentLow += SEGMENT_SIZE) {
+			long segmentHigh = Math.min(segmentLow + SEGMENT_SIZE, high);
+			int size = (int) (segmentHigh - segmentLow);
+
+			// every number starts unsieved
+			Arrays.fill(sieve, 0, size, true);
+			buildTree(tree, size);
+			int remaining = size;
+
+			for (int b = 1; b <= a; b++) {
+				long p = primes[b];
+
+				// leaves with x / (p m) in the segment and y / p < m <= y
+				long mMax = Math.min(y, x / (p * segmentLow));
+				long mMin = Math.max(y / p, x / (p * segmentHigh));
+				for (long m = mMax; m > mMin; m--) {
+					int mobius = mu[(int) m];
+					if (mobius == 0 || lpf[(int) m] <= p)
+						continue;
+
+					// phi(v, b - 1) is what the earlier segments left plus the
+					// unsieved numbers in this one up to v
+					long v = x / (p * m);
+					long phi = chunk.counts[b] + prefix(tree, (int) (v - segmentLow));
+					chunk.sum -= mobius * phi;
+					chunk.weights[b] -= mobius;
+				}
+
+				chunk.counts[b] += remaining;
+
+				// remove the multiples of p from the segment
+				long multiple = (segmentLow + p - 1) / p * p;
+				for (long k = multiple - segmentLow; k < size; k += p) {
+					if (sieve[(int) k]) {
+						sieve[(int) k] = false;
+						remove(tree, (int) k, size);
+						remaining--;
+					}
+				}
+			}
+		}
+		return chunk;
+	}
+
+	/**
+	 * fills the binary indexed tree for a segment where every number is
+	 * unsieved, node i covers the lowest set bit of i numbers ending at i.
+	 */
+	private static void buildTree(int[] tree, int size) {
+		for (int i = 1; i <= size; i++) {
+			tree[i] = i & -i;
+		}
+	}
+
+	/**
+	 * number of unsieved numbers at positions 0 through index.
+	 */
+	private static int prefix(int[] tree, int index) {
+		int results = 0;
+		for (int i = index + 1; i > 0; i -= i & -i) {
+			results += tree[i];
+		}
+		return results;
+	}
+
+	/**
+	 * marks the number at index as sieved in the tree.
+	 */
+	private static void remove(int[] tree, int index, int size) {
+		for (int i = index + 1; i <= size; i += i & -i) {
+			tree[i]--;
+		}
+	}
+
+	/**
+	 * sum of pi(x / p) - pi(p) + 1 over the primes y < p <= sqrt(x), the
+	 * numbers up to x that are the product of two primes larger than y.
+	 */
+	private static long p2(long x, long y, long z, int a) {
+		long sqrt = SegmentedSieve.sqrtFloor(x);
+		long[] large = Primes.primes(y + 1, sqrt + 1);
+
+		// x / p goes up as p goes down so a single pass over the primes up to
+		// z counts all of them
+		PrimitiveIterator.OfLong iterator = Primes.iterator(2, z + 1);
+		long count = 0;
+		long next = iterator.hasNext() ? iterator.nextLong() : Long.MAX_VALUE;
+
+		long results = 0;
+		for (int i = large.length - 1; i >= 0; i--) {
+			long v = x / large[i];
+			while (next <= v) {
+				count++;
+				next = iterator.hasNext() ? iterator.nextLong() : Long.MAX_VALUE;
+			}
+
+			// large[i] is the (a + i + 1)th prime
+			results += count - (a + i + 1) + 1;
+		}
+		return results;
+	}
+
+	/**
+	 * floor of the kth root of x.
+	 */
+	private static long root(long x, int k) {
+		long results = (long) Math.pow(x, 1.0 / k);
+		while (pow(results, k) > x) {
+			results--;
+		}
+		while (pow(results + 1, k) <= x) {
+			results++;
+		}
+		return results;
+	}
+
+	private static long pow(long base, int k) {
+		long results = 1;
+		for (int i = 0; i < k; i++) {
+			results *= base;
+		}
+		return results;
+	}
+
+	/**
+	 * least prime factor, mobius function and primes up to y.
+	 */
+	private static final class Tables {
+		// 1 indexed, primes[b] is the bth prime
+		private final int[] primes;
+		private final int primeCount;
+		private final int[] lpf;
+		private final byte[] mu;
+
+		private Tables(int y) {
+			lpf = new int[y + 1];
+			mu = new byte[y + 1];
+			Arrays.fill(mu, (byte) 1);
+
+			// 1 has no prime factors so any prime is below its least one
+			lpf[1] = Integer.MAX_VALUE;
+
+			int[] found = new int[y + 1];
+			int count = 0;
+			for (int i = 2; i <= y; i++) {
+				if (lpf[i] != 0)
+					continue;
+
+				// i is prime, it is the least prime factor of the multiples
+				// that don't have one yet
+				found[++count] = i;
+				for (int j = i; j <= y; j += i) {
+					if (lpf[j] == 0)
+						lpf[j] = i;
+					mu[j] = (byte) -mu[j];
+				}
+
+				// multiples of squares aren't square free
+				long square = (long) i * i;
+				for (long j = square; j <= y; j += square) {
+					mu[(int) j] = 0;
+				}
+			}
+			this.primes = Arrays.copyOf(found, count + 1);
+			this.primeCount = count;
+		}
+	}
+
+	/**
+	 * results of the special leaves in one chunk of segments.
+	 */
+	private static final class Chunk {
+		// sum of -mu(m) * phi over the leaves counting only this chunk
+		private long sum = 0;
+
+		// counts[b] is how many numbers in the chunk are left after removing
+		// the first b - 1 primes
+		private final long[] counts;
+
+		// weights[b] is the sum of -mu(m) over the leaves using b
+		private final long[] weights;
+
+		private Chunk(int a) {
+			counts = new long[a + 1];
+			weights = new long[a + 1];
+		}
+	}
+
+	/**
+	 * fork join task that counts the special leaves in a range of chunks,
+	 * splitting the range in half until it is a single chunk.
+	 *
+	 * @author Gavin
+	 *
+	 */
+	private static final class ChunkTask extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+
+		private final long x;
+		private final int y;
+		private final long z;
+		private final Tables tables;
+		private final Chunk[] results;
+		private final int from;
+		private final int to;
+
+		private ChunkTask(long x, int y, long z, Tables tables, Chunk[] results, int from, int to) {
+			this.x = x;
+			this.y = y;
+			this.z = z;
+			this.tables = tables;
+			this.results = results;
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		protected void compute() {
+			if (to - from == 1) {
+				// chunks cover [1, z] in segments
+				long span = (long) CHUNK_SEGMENTS * SEGMENT_SIZE;
+				long low = 1 + from * span;
+				long high = Math.min(low + span, z + 1);
+				results[from] = chunk(x, y, low, high, tables);
+				return;
+			}
+
+			int middle = from + (to - from) / 2;
+			invokeAll(new ChunkTask(x, y, z, tables, results, from, middle),
+					new ChunkTask(x, y, z, tables, results, middle, to));
+		}
+	}
+}
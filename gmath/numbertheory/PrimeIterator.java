@@ -0,0 +1,91 @@
+package gmath.numbertheory;
+
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+
+/**
+ * lazy iterator over the primes in [from, to). One segment of the
+ * {@link gmath.numbertheory.SegmentedSieve SegmentedSieve} is sieved at a time
+ * when the previous one runs out, so the memory used only depends on the base
+ * primes and not on how many primes are read. The base primes are kept
+ * between segments and only grow when the segments pass their square.
+ *
+ * @author Gavin
+ *
+ */
+final class PrimeIterator implements PrimitiveIterator.OfLong {
+
+	// past this limit on the base primes each number is tested with
+	// miller-rabin instead, keeps the base primes to a few MB
+	private static final int MAX_BASE_LIMIT = 1 << 24;
+
+	private static final long[] EMPTY = new long[0];
+
+	private final long to;
+
+	// start of the next segment to sieve
+	private long next;
+
+	// primes of the current segment and the position of the next one
+	private long[] buffer = EMPTY;
+	private int position = 0;
+
+	// odd primes up to baseLimit
+	private int[] basePrimes = new int[0];
+	private int baseLimit = 0;
+
+	/**
+	 * creates an iterator over the primes in [from, to).
+	 *
+	 * @param from
+	 *            smallest number to check
+	 * @param to
+	 *            first number past the range
+	 */
+	PrimeIterator(long from, long to) {
+		this.next = Math.max(from, 2);
+		this.to = to;
+	}
+
+	@Override
+	public boolean hasNext() {
+		// sieve segments until one has a prime or the range runs out
+		while (position == buffer.length) {
+			if (next >= to)
+				return false;
+			sieveNext();
+		}
+		return true;
+	}
+
+	@Override
+	public long nextLong() {
+		if (!hasNext())
+			throw new NoSuchElementException("no primes left in the range!");
+		return buffer[position++];
+	}
+
+	/**
+	 * sieves the segment starting at next and moves next past it.
+	 */
+	private void sieveNext() {
+		// stop at the end of the range without overflowing
+		long hi = to - next <= SegmentedSieve.SEGMENT_SPAN ? to : next + SegmentedSieve.SEGMENT_SPAN;
+
+		// grow the base primes geometrically so they are rarely recomputed
+		long limit = SegmentedSieve.sqrtFloor(hi - 1);
+		int[] base = null;
+		if (limit <= MAX_BASE_LIMIT) {
+			if (limit > baseLimit) {
+				baseLimit = (int) Math.min(MAX_BASE_LIMIT, Math.max(limit, 2L * baseLimit));
+				basePrimes = SegmentedSieve.oddPrimesUpTo(baseLimit);
+			}
+			base = basePrimes;
+		}
+
+		SegmentedSieve sieve = new SegmentedSieve(next, hi, base);
+		buffer = sieve.segments() == 0 ? EMPTY : sieve.primes(0);
+		position = 0;
+		next = hi;
+	}
+}
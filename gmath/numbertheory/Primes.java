@@ -1,16 +1,28 @@
 package gmath.numbertheory;
 
-import java.util.Arrays;
-
-import gcore.util.ArrayUtils;
-import gcore.util.WrapperUtils;
+import java.util.PrimitiveIterator;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+import java.util.stream.StreamSupport;
 
 public final class Primes {
 	private Primes() {}
 
+	// primes used for trial division before running miller-rabin
+	private static final int[] SMALL_PRIMES = { 2, 3, 5, 7, 11, 13, 17, 19, 23, 29, 31, 37, 41, 43, 47 };
+
+	// witnesses that make miller-rabin deterministic for every 64 bit number,
+	// found by Jim Sinclair
+	private static final long[] WITNESSES = { 2, 325, 9375, 28178, 450775, 9780504, 1795265022 };
+
 	/**
 	 * tests a number to see if it is prime numbers less than 2 will return
-	 * false
+	 * false. Small factors are found by trial division and everything else is
+	 * decided by a deterministic miller-rabin test, so any long is classified
+	 * with at most 7 modular exponentiations.
 	 * 
 	 * @param p
 	 *            number to test for primality
@@ -19,11 +31,60 @@ public final class Primes {
 	public static boolean isPrime(long p) {
 		if (p < 2)
 			return false;
-		if (p == 2)
+
+		// check the small primes first, this rules out most composites
+		for (int prime : SMALL_PRIMES) {
+			if (p == prime)
+				return true;
+			if (p % prime == 0)
+				return false;
+		}
+
+		// anything left below the square of the next prime is prime
+		if (p < 53 * 53)
 			return true;
-		long sqrt = (long)(Math.sqrt(p) + 1);
-		for (int x = 2; x <= sqrt; x++) {
-			if (p % x == 0)
+
+		// write p - 1 = 2 ^ r * d with d odd
+		long d = p - 1;
+		int r = Long.numberOfTrailingZeros(d);
+		d >>= r;
+
+		// p is prime exactly when none of the witnesses prove it composite
+		ModularContext context = new ModularContext(p);
+		for (long witness : WITNESSES) {
+			long a = witness % p;
+			if (a == 0)
+				continue;
+			if (isWitness(context, a, d, r))
+				return false;
+		}
+		return true;
+	}
+
+	/**
+	 * checks if a is a miller-rabin witness to the modulus of the context being
+	 * composite.
+	 * 
+	 * @param context
+	 *            arithmetic modulo the odd number being tested
+	 * @param a
+	 *            base to test with, not 0
+	 * @param d
+	 *            odd part of the modulus - 1
+	 * @param r
+	 *            number of factors of 2 in the modulus - 1
+	 * @return true if the modulus is definitely composite
+	 */
+	static boolean isWitness(ModularContext context, long a, long d, int r) {
+		long minusOne = context.getModulus() - 1;
+
+		// a ^ d has to be 1 or reach -1 by squaring
+		long x = context.pow(a, d);
+		if (x == 1 || x == minusOne)
+			return false;
+		for (int i = 1; i < r; i++) {
+			x = context.multiply(x, x);
+			if (x == minusOne)
 				return false;
 		}
 		return true;
@@ -37,16 +98,14 @@ public final class Primes {
 	 * @return first prime number larger than c.
 	 */
 	public static long getFirstPrimeLargerThan(long c) {
-		// continue to loop until a prime number is found.
-		boolean isntPrime = true;
-		while (isntPrime) {
-
-			// increment the currently tested number
-			c++;
-			
-			// check the current number for primality
-			if (isPrime(c))
-				isntPrime = false;
+		// 2 is the only even prime
+		if (c < 2)
+			return 2;
+
+		// move to the next odd number and only test odd numbers after that
+		c = (c + 1) | 1;
+		while (!isPrime(c)) {
+			c += 2;
 		}
 
 		// return the number once it is found to be prime
@@ -54,79 +113,193 @@ public final class Primes {
 	}
 
 	/**
-	 * sieves through all non-negative integers smaller than num and returns all
-	 * prime values
+	 * sieves through all non-negative integers up to and including num and
+	 * returns all prime values
 	 * 
 	 * @param num
 	 *            number for the sieve to go to
-	 * @return boolean array where the value is true if the index is prime,
-	 *         false otherwise
+	 * @return array of the integers that were found to be prime
+	 */
+	public static int[] basicPrimeSieve(int num) {
+		return toInts(primes(0, (long) num + 1));
+	}
+
+	/**
+	 * finds all of the primes in [lo, hi) with a segmented sieve that only
+	 * stores odd numbers, the segments are sieved in parallel on the common
+	 * pool.
+	 * 
+	 * @param lo
+	 *            smallest number to check
+	 * @param hi
+	 *            first number past the range
+	 * @return primes in the range in increasing order
+	 */
+	public static long[] primes(long lo, long hi) {
+		return primes(lo, hi, ForkJoinPool.commonPool());
+	}
+
+	/**
+	 * finds all of the primes in [lo, hi) with a segmented sieve that only
+	 * stores odd numbers, the segments are sieved in parallel on the given
+	 * pool.
+	 * 
+	 * @param lo
+	 *            smallest number to check
+	 * @param hi
+	 *            first number past the range
+	 * @param pool
+	 *            pool to sieve the segments on
+	 * @return primes in the range in increasing order
 	 */
-	private static boolean[] primeSieveHelper(int num) {
+	public static long[] primes(long lo, long hi, ForkJoinPool pool) {
+		SegmentedSieve sieve = new SegmentedSieve(lo, hi);
+
+		// sieve each segment on its own then stitch them together in order
+		long[][] segments = new long[sieve.segments()][];
+		sieve.forEachSegment(i -> segments[i] = sieve.primes(i), pool);
 
-		// if num is small return defaults
-		if (num == 0) {
-			return new boolean[0];
+		int length = 0;
+		for (long[] segment : segments) {
+			length += segment.length;
 		}
-		if (num == 1) {
-			return new boolean[] { false };
+		long[] results = new long[length];
+		int position = 0;
+		for (long[] segment : segments) {
+			System.arraycopy(segment, 0, results, position, segment.length);
+			position += segment.length;
 		}
+		return results;
+	}
+
+	/**
+	 * finds all of the primes in [lo, hi) as integers.
+	 * 
+	 * @param lo
+	 *            smallest number to check
+	 * @param hi
+	 *            first number past the range
+	 * @return primes in the range in increasing order
+	 */
+	public static int[] intPrimes(int lo, int hi) {
+		return toInts(primes(lo, hi));
+	}
 
-		// initialize results array to all true except 0 and 1
-		boolean[] results = new boolean[num + 1];
-		Arrays.fill(results, true);
-		results[0] = false;
-		results[1] = false;
-
-		// loop through all possible divisors of numbers in the sieve
-		int sqrt = (int)(Math.sqrt(num) + 1);
-		for (int x = 2; x <= sqrt; x++) {
-
-			// check if x is prime
-			if (results[x]) {
-
-				// loop through remainder of array with multiple x
-				// and set all of the values to false that are divided by x
-				for (int y = 2 * x; y <= num; y += x) {
-					results[y] = false;
-				}
-			}
+	/**
+	 * streams the primes in [lo, hi), each segment is only sieved once the
+	 * stream reaches it so the memory used doesn't depend on the size of the
+	 * range.
+	 * 
+	 * @param lo
+	 *            smallest number to check
+	 * @param hi
+	 *            first number past the range
+	 * @return stream of the primes in increasing order
+	 */
+	public static LongStream primeStream(long lo, long hi) {
+		SegmentedSieve sieve = new SegmentedSieve(lo, hi);
+		return IntStream.range(0, sieve.segments()).mapToObj(sieve::primes).flatMapToLong(LongStream::of);
+	}
+
+	/**
+	 * returns an iterator over the primes in [from, to). Segments are sieved
+	 * as the iterator reaches them so any number of primes can be read in
+	 * constant memory.
+	 * 
+	 * @param from
+	 *            smallest number to check
+	 * @param to
+	 *            first number past the range
+	 * @return iterator over the primes in increasing order
+	 */
+	public static PrimitiveIterator.OfLong iterator(long from, long to) {
+		return new PrimeIterator(from, to);
+	}
+
+	/**
+	 * returns a lazy stream of every prime that is at least from, it only
+	 * ends when the primes no longer fit in a long.
+	 * 
+	 * @param from
+	 *            smallest number to check
+	 * @return stream of the primes in increasing order
+	 */
+	public static LongStream stream(long from) {
+		return StreamSupport.longStream(Spliterators.spliteratorUnknownSize(iterator(from, Long.MAX_VALUE),
+				Spliterator.ORDERED | Spliterator.DISTINCT | Spliterator.NONNULL | Spliterator.IMMUTABLE), false);
+	}
+
+	/**
+	 * counts the primes in [lo, hi) without storing them, only one segment of
+	 * bits per thread is in memory at a time.
+	 * 
+	 * @param lo
+	 *            smallest number to check
+	 * @param hi
+	 *            first number past the range
+	 * @return number of primes in the range
+	 */
+	public static long countPrimes(long lo, long hi) {
+		SegmentedSieve sieve = new SegmentedSieve(lo, hi);
+		int[] counts = new int[sieve.segments()];
+		sieve.forEachSegment(i -> counts[i] = sieve.count(i), ForkJoinPool.commonPool());
+
+		long results = 0;
+		for (int count : counts) {
+			results += count;
 		}
-		// return the boolean array
 		return results;
 	}
 
 	/**
-	 * sieves through all non-negative integers smaller than num and returns all
-	 * prime values
+	 * counts the primes less than or equal to x with the Meissel-Lehmer
+	 * method, which takes about O(x^(2/3)) time instead of sieving everything
+	 * up to x. The special leaves are counted in parallel on the common pool.
 	 * 
-	 * @param num
-	 *            number for the sieve to go to
-	 * @return array of the integers that were found to be prime
+	 * @param x
+	 *            number to count up to
+	 * @return pi(x)
 	 */
-	public static int[] basicPrimeSieve(int num) {
-		// get the results of the helper function in a boolean array
-		boolean[] sieveResults = primeSieveHelper(num);
-
-		// gets the number of primes that were in the sieve to set the size of
-		// the resulting array
-		int numOfPrimes = ArrayUtils.countOccurences(WrapperUtils.toWrapper(sieveResults), true);
-
-		// initialize the prime result array, and initialize the current index
-		// to 0
-		int currentIndex = 0;
-		int[] primes = new int[numOfPrimes];
-
-		// loop through sieveResults and put all of the primes into the array
-		for (int i = 0; i <= num; i++) {
-			if (sieveResults[i]) {
-				primes[currentIndex] = i;
-				currentIndex++;
-			}
-		}
+	public static long primeCount(long x) {
+		return PrimeCounting.primeCount(x, ForkJoinPool.commonPool());
+	}
+
+	/**
+	 * counts the primes less than or equal to x with the Meissel-Lehmer
+	 * method, the special leaves are counted in parallel on the given pool.
+	 * 
+	 * @param x
+	 *            number to count up to
+	 * @param pool
+	 *            pool to count on
+	 * @return pi(x)
+	 */
+	public static long primeCount(long x, ForkJoinPool pool) {
+		return PrimeCounting.primeCount(x, pool);
+	}
 
-		// returns the primes in the primes array
-		return primes;
+	/**
+	 * finds the nth prime, nthPrime(1) is 2. The prime count of an estimate is
+	 * found with {@link #primeCount(long)} and then the primes near it are
+	 * sieved.
+	 * 
+	 * @param n
+	 *            index of the prime, must be positive
+	 * @return nth prime
+	 */
+	public static long nthPrime(long n) {
+		return PrimeCounting.nthPrime(n, ForkJoinPool.commonPool());
+	}
+
+	/**
+	 * narrows primes that are known to fit into an int array.
+	 */
+	private static int[] toInts(long[] primes) {
+		int[] results = new int[primes.length];
+		for (int i = 0; i < primes.length; i++) {
+			results[i] = (int) primes[i];
+		}
+		return results;
 	}
 
 }
@@ -0,0 +1,322 @@
+package gmath.numbertheory;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.IntConsumer;
+
+/**
+ * segmented sieve of eratosthenes over a range [lo, hi) of longs. Only odd
+ * numbers are stored, one bit each, and the range is cut into segments that
+ * fit in the L1 cache so only the primes up to sqrt(hi) and one segment per
+ * thread are ever in memory. Segments are independent of each other so they
+ * can be sieved in any order or in parallel.
+ *
+ * When the range is short compared to sqrt(hi) sieving would spend most of
+ * its time on the base primes, so the odd numbers in the segments are tested
+ * with {@link gmath.numbertheory.Primes#isPrime(long) isPrime} instead.
+ *
+ * @author Gavin
+ *
+ */
+final class SegmentedSieve {
+
+	// 32KB of bits per segment
+	static final int SEGMENT_WORDS = 1 << 12;
+
+	// number of odd numbers in a segment
+	static final int SEGMENT_BITS = SEGMENT_WORDS * 64;
+
+	// distance between the starts of two segments
+	static final long SEGMENT_SPAN = 2L * SEGMENT_BITS;
+
+	// base primes below this are always sieved even for short ranges
+	private static final long MIN_SIEVE_LIMIT = 1 << 20;
+
+	// floor(sqrt(Long.MAX_VALUE))
+	private static final long MAX_ROOT = 3037000499L;
+
+	private final long hi;
+
+	// true if 2 is in the range, segments only hold odd numbers
+	private final boolean includesTwo;
+
+	// first odd number at least 3 in the range
+	private final long first;
+
+	private final int segments;
+
+	// odd primes up to sqrt(hi - 1), null if the segments are tested with
+	// miller-rabin instead
+	private final int[] basePrimes;
+
+	/**
+	 * prepares to sieve the numbers in [lo, hi), the base primes are found
+	 * here and the segments are sieved when asked for.
+	 *
+	 * @param lo
+	 *            smallest number in the range
+	 * @param hi
+	 *            first number past the range
+	 */
+	SegmentedSieve(long lo, long hi) {
+		this(lo, hi, basePrimesFor(lo, hi));
+	}
+
+	/**
+	 * finds the base primes needed to sieve [lo, hi), or null if the range is
+	 * short enough that testing each number is faster.
+	 */
+	private static int[] basePrimesFor(long lo, long hi) {
+		long limit = sqrtFloor(Math.max(hi - 1, 0));
+		long span = Math.max(hi - Math.max(lo, 2), 0);
+
+		// only sieve if the base primes aren't much bigger than the range
+		if (limit <= Integer.MAX_VALUE && (limit <= MIN_SIEVE_LIMIT || limit <= span))
+			return oddPrimesUpTo((int) limit);
+		return null;
+	}
+
+	/**
+	 * prepares to sieve the numbers in [lo, hi) with base primes that were
+	 * already found, used to sieve many ranges one after the other.
+	 *
+	 * @param lo
+	 *            smallest number in the range
+	 * @param hi
+	 *            first number past the range
+	 * @param basePrimes
+	 *            odd primes in increasing order up to at least sqrt(hi - 1),
+	 *            or null to test each number with miller-rabin
+	 */
+	SegmentedSieve(long lo, long hi, int[] basePrimes) {
+		lo = Math.max(lo, 2);
+		this.hi = Math.max(hi, lo);
+		this.includesTwo = lo <= 2 && this.hi > 2;
+		this.first = Math.max(lo | 1, 3);
+
+		long span = this.hi > first ? this.hi - first : 0;
+		long count = (span + SEGMENT_SPAN - 1) / SEGMENT_SPAN;
+		if (count > Integer.MAX_VALUE)
+			throw new IllegalArgumentException("range is too large to sieve!");
+
+		// the first segment still holds 2 when there are no odd numbers
+		this.segments = (int) Math.max(count, includesTwo ? 1 : 0);
+		this.basePrimes = basePrimes;
+	}
+
+	/**
+	 * returns the number of segments in the range.
+	 */
+	int segments() {
+		return segments;
+	}
+
+	/**
+	 * returns the primes in the given segment in increasing order, 2 is part
+	 * of the first segment if it is in the range.
+	 *
+	 * @param index
+	 *            segment to sieve
+	 * @return primes in the segment
+	 */
+	long[] primes(int index) {
+		long start = first + index * SEGMENT_SPAN;
+		int bits = bits(start);
+		long[] composites = sieve(start, bits);
+
+		// 2 is the only even prime, it goes at the front of the first segment
+		int extra = index == 0 && includesTwo ? 1 : 0;
+		long[] results = new long[count(composites, bits) + extra];
+		int found = 0;
+		if (extra == 1)
+			results[found++] = 2;
+
+		// read off the unset bits
+		for (int word = 0; word < composites.length; word++) {
+			long primes = ~composites[word] & mask(bits, word);
+			while (primes != 0) {
+				int bit = Long.numberOfTrailingZeros(primes);
+				results[found++] = start + 2L * (word * 64 + bit);
+				primes &= primes - 1;
+			}
+		}
+		return results;
+	}
+
+	/**
+	 * returns the number of primes in the given segment.
+	 *
+	 * @param index
+	 *            segment to sieve
+	 * @return number of primes in the segment
+	 */
+	int count(int index) {
+		long start = first + index * SEGMENT_SPAN;
+		int bits = bits(start);
+		return count(sieve(start, bits), bits) + (index == 0 && includesTwo ? 1 : 0);
+	}
+
+	/**
+	 * runs the action for every segment index on the pool, each task handles
+	 * a single segment.
+	 *
+	 * @param action
+	 *            called with each segment index
+	 * @param pool
+	 *            pool to run on
+	 */
+	void forEachSegment(IntConsumer action, ForkJoinPool pool) {
+		// a single segment isn't worth handing to the pool
+		if (segments <= 1) {
+			for (int i = 0; i < segments; i++) {
+				action.accept(i);
+			}
+			return;
+		}
+		pool.invoke(new SegmentTask(action, 0, segments));
+	}
+
+	/**
+	 * number of odd numbers in the segment starting at start.
+	 */
+	private int bits(long start) {
+		return (int) Math.max(0, Math.min(SEGMENT_BITS, (hi - start + 1) / 2));
+	}
+
+	/**
+	 * marks the composites among the bits odd numbers starting at start,
+	 * bit i stands for start + 2 i.
+	 */
+	private long[] sieve(long start, int bits) {
+		long[] composites = new long[(bits + 63) >>> 6];
+		long end = start + 2L * bits;
+
+		// short range, test each number on its own
+		if (basePrimes == null) {
+			for (int i = 0; i < bits; i++) {
+				if (!Primes.isPrime(start + 2L * i))
+					composites[i >>> 6] |= 1L << i;
+			}
+			return composites;
+		}
+
+		for (int prime : basePrimes) {
+			long p = prime;
+			long square = p * p;
+			if (square >= end)
+				break;
+
+			// first odd multiple of p in the segment that isn't p itself
+			long multiple = Math.max(square, start + Math.floorMod(-start, p));
+			if ((multiple & 1) == 0)
+				multiple += p;
+
+			// consecutive odd multiples are 2p apart, which is p bits
+			for (long i = (multiple - start) >>> 1; i < bits; i += p) {
+				composites[(int) (i >>> 6)] |= 1L << i;
+			}
+		}
+		return composites;
+	}
+
+	/**
+	 * counts the unset bits below bits.
+	 */
+	private static int count(long[] composites, int bits) {
+		int results = 0;
+		for (int word = 0; word < composites.length; word++) {
+			results += Long.bitCount(~composites[word] & mask(bits, word));
+		}
+		return results;
+	}
+
+	/**
+	 * mask of the bits in the word that are part of the segment.
+	 */
+	private static long mask(int bits, int word) {
+		int left = bits - word * 64;
+		return left >= 64 ? -1L : (1L << left) - 1;
+	}
+
+	/**
+	 * finds the odd primes up to limit with a bit packed sieve of the odd
+	 * numbers.
+	 */
+	static int[] oddPrimesUpTo(int limit) {
+		if (limit < 3)
+			return new int[0];
+
+		// bit i stands for 2 i + 3
+		int bits = (limit - 1) / 2;
+		long[] composites = new long[(bits + 63) >>> 6];
+		for (int i = 0; (long) (2 * i + 3) * (2 * i + 3) <= limit; i++) {
+			if ((composites[i >>> 6] & 1L << i) != 0)
+				continue;
+			int p = 2 * i + 3;
+			for (long j = ((long) p * p - 3) / 2; j < bits; j += p) {
+				composites[(int) (j >>> 6)] |= 1L << j;
+			}
+		}
+
+		int[] results = new int[count(composites, bits)];
+		int found = 0;
+		for (int word = 0; word < composites.length; word++) {
+			long primes = ~composites[word] & mask(bits, word);
+			while (primes != 0) {
+				int bit = Long.numberOfTrailingZeros(primes);
+				results[found++] = 2 * (word * 64 + bit) + 3;
+				primes &= primes - 1;
+			}
+		}
+		return results;
+	}
+
+	/**
+	 * floor of the square root of a non negative long.
+	 */
+	static long sqrtFloor(long x) {
+		long root = (long) Math.sqrt((double) x);
+
+		// the double can be off by one in either direction for large x, the
+		// square of anything past the largest root of a long overflows
+		while (root > MAX_ROOT || root * root > x) {
+			root--;
+		}
+		while (root < MAX_ROOT && (root + 1) * (root + 1) <= x) {
+			root++;
+		}
+		return root;
+	}
+
+	/**
+	 * fork join task that runs an action on a range of segments, splitting
+	 * the range in half until it is a single segment.
+	 *
+	 * @author Gavin
+	 *
+	 */
+	private static final class SegmentTask extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+
+		private final IntConsumer action;
+		private final int from;
+		private final int to;
+
+		private SegmentTask(IntConsumer action, int from, int to) {
+			this.action = action;
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		protected void compute() {
+			if (to - from == 1) {
+				action.accept(from);
+				return;
+			}
+
+			int middle = from + (to - from) / 2;
+			invokeAll(new SegmentTask(action, from, middle), new SegmentTask(action, middle, to));
+		}
+	}
+}
@@ -10,7 +10,10 @@ import gcore.bits.BitSequence;
  * @author Gavin
  *
  */
-public class BigInteger extends OrderedRing<BigInteger> {
+public class BigInteger extends OrderedRing<BigInteger> implements ExactDivision<BigInteger> {
+
+	private static final RingContext<BigInteger> CONTEXT = new RingContext<>(
+			new BigInteger(java.math.BigInteger.ZERO), new BigInteger(java.math.BigInteger.ONE));
 
 	// value stored in a big integer value.
 	private final java.math.BigInteger value;
@@ -84,6 +87,11 @@ public class BigInteger extends OrderedRing<BigInteger> {
 		return new BigInteger(this.value.divide(divide.value));
 	}
 
+	@Override
+	public BigInteger divideExact(BigInteger divisor) {
+		return truncate(divisor);
+	}
+
 	public BigInteger mod(BigInteger divide) {
 		return new BigInteger(this.value.mod(divide.value));
 	}
@@ -106,30 +114,47 @@ public class BigInteger extends OrderedRing<BigInteger> {
 		return new BigInteger(this.value.multiply(mult.value));
 	}
 
+	/**
+	 * raises the current number to the given power, the power is read bit by
+	 * bit and large powers use sliding window exponentiation.
+	 * 
+	 * @param p
+	 *            power to raise to, must not be negative
+	 * @return this ^ p
+	 */
 	public final BigInteger pow(BigInteger p) {
-		// make two copies of the current number, one for storing the results
-		// and the other for multiplying each time.
-		BigInteger copy = this;
-		BigInteger original = copy;
-
-		// get the binary representation of the power to know when to multiply
-		// and when to square.
-		String binaryPower = p.toBinaryString();
-
-		binaryPower = binaryPower.substring(1, binaryPower.length());
-
-		// each time square the previous number, if there is a 1 also
-		// re-multiply by the original
-		for (char c : binaryPower.toCharArray()) {
-			copy = copy.square();
-			switch (c) {
-			case '1':
-				copy = copy.multiply(original);
-			}
-		}
+		if (p.value.signum() < 0)
+			throw new IllegalArgumentException("power must not be negative!");
+
+		// small powers fit in an int so the built in method can be used
+		int bitLength = p.bitLength();
+		if (bitLength < 32)
+			return new BigInteger(this.value.pow(p.value.intValue()));
+
+		java.math.BigInteger power = p.value;
+		return Exponentiation.slidingWindow(this, power::testBit, bitLength, Exponentiation.windowSize(bitLength),
+				null);
+	}
+
+	/**
+	 * returns the number of bits in the minimal two's complement
+	 * representation of this number, excluding a sign bit.
+	 * 
+	 * @return bit length of the number
+	 */
+	public int bitLength() {
+		return this.value.bitLength();
+	}
 
-		// return the results of the computation.
-		return copy;
+	/**
+	 * returns true if the given bit is set, bit 0 is the least significant.
+	 * 
+	 * @param bit
+	 *            index of the bit to test
+	 * @return true if the bit is set
+	 */
+	public boolean testBit(int bit) {
+		return this.value.testBit(bit);
 	}
 
 	/**
@@ -154,10 +179,6 @@ public class BigInteger extends OrderedRing<BigInteger> {
 	    }
 	}
 
-	private int bitLength() {
-		return this.value.bitLength();
-	}
-
 	@Override
 	public BigInteger negate() {
 		return new BigInteger(this.value.negate());
@@ -177,12 +198,17 @@ public class BigInteger extends OrderedRing<BigInteger> {
 
 	@Override
 	public BigInteger ZERO() {
-		return new BigInteger(java.math.BigInteger.valueOf(0));
+		return CONTEXT.zero();
 	}
 
 	@Override
 	public BigInteger IDENTITY() {
-		return new BigInteger(java.math.BigInteger.valueOf(1));
+		return CONTEXT.identity();
+	}
+
+	@Override
+	public RingContext<BigInteger> context() {
+		return CONTEXT;
 	}
 
 	public byte[] toByteArray() {
@@ -3,6 +3,8 @@ package gmath.types;
 import java.text.DecimalFormat;
 
 public class ComplexNumber extends Field<ComplexNumber>{
+	private static final RingContext<ComplexNumber> CONTEXT = new RingContext<>(new ComplexNumber(0, 0),
+			new ComplexNumber(1, 0));
 	private final double realValue;
 	private final double imaginaryValue;
 	public ComplexNumber(double real, double imaginary) {
@@ -21,7 +23,46 @@ public class ComplexNumber extends Field<ComplexNumber>{
 
 	@Override
 	public ComplexNumber IDENTITY() {
-		return new ComplexNumber(1, 0);
+		return CONTEXT.identity();
+	}
+
+	@Override
+	public RingContext<ComplexNumber> context() {
+		return CONTEXT;
+	}
+
+	/**
+	 * multiplies the polynomials with the {@link gmath.types.FFT fast fourier
+	 * transform} once both have at least
+	 * {@link gmath.types.Polynomial#DEFAULT_FFT_THRESHOLD} coefficients, the
+	 * product is only accurate to rounding.
+	 */
+	@Override
+	public ComplexNumber[] convolve(ComplexNumber[] a, ComplexNumber[] b) {
+		if (Math.min(a.length, b.length) < Polynomial.DEFAULT_FFT_THRESHOLD)
+			return super.convolve(a, b);
+
+		double[][] left = values(a);
+		double[][] right = a == b ? left : values(b);
+		double[][] product = FFT.convolve(left[0], left[1], right[0], right[1]);
+		ComplexNumber[] results = new ComplexNumber[product[0].length];
+		for (int i = 0; i < results.length; i++) {
+			results[i] = new ComplexNumber(product[0][i], product[1][i]);
+		}
+		return results;
+	}
+
+	/**
+	 * real parts at [0] and imaginary parts at [1] of an array of complex
+	 * numbers.
+	 */
+	private static double[][] values(ComplexNumber[] x) {
+		double[][] results = new double[2][x.length];
+		for (int i = 0; i < x.length; i++) {
+			results[0][i] = x[i].getReal();
+			results[1][i] = x[i].getImaginary();
+		}
+		return results;
 	}
 
 	@Override
@@ -41,7 +82,7 @@ public class ComplexNumber extends Field<ComplexNumber>{
 
 	@Override
 	public ComplexNumber ZERO() {
-		return new ComplexNumber(0, 0);
+		return CONTEXT.zero();
 	}
 	
 	public double getReal() {
@@ -0,0 +1,551 @@
+package gmath.types;
+
+import java.util.Arrays;
+
+/**
+ * matrix of real numbers backed by a single row major array of primitive
+ * doubles. This has the same operations as a {@link gmath.types.Matrix
+ * Matrix} of {@link gmath.types.RealNumber RealNumber} but doesn't need an
+ * object for every entry, so large products and decompositions run orders of
+ * magnitude faster. Use {@link #toMatrix()} and
+ * {@link #DenseDoubleMatrix(Matrix)} to move between the two.
+ *
+ * @author Gavin
+ *
+ */
+public class DenseDoubleMatrix extends Ring<DenseDoubleMatrix> {
+
+	// number of columns of the result processed per tile in multiply, chosen
+	// so a tile of a row of the result stays in the L1 cache.
+	private static final int COLUMN_BLOCK = 256;
+
+	// number of inner products processed per tile in multiply, chosen so the
+	// tile of the right matrix stays in the L2 cache.
+	private static final int INNER_BLOCK = 128;
+
+	// number of rows in the square tiles used by transpose.
+	private static final int TRANSPOSE_BLOCK = 32;
+
+	// row major entries, the entry at (i, j) is at i * columns + j
+	private final double[] entries;
+
+	private final int rows;
+	private final int columns;
+
+	private Double determinant = null;
+
+	/**
+	 * creates a matrix from the given rows, if the rows aren't all the same
+	 * length the shorter rows are padded with zeros.
+	 *
+	 * @param rows
+	 *            rows of the matrix
+	 */
+	public DenseDoubleMatrix(double[]... rows) {
+		super(DenseDoubleMatrix.class);
+
+		// set rows to the number of rows
+		this.rows = rows.length;
+
+		// set the number of columns to the maximum column length in the given
+		// array
+		int numOfColumns = 0;
+		for (int i = 0; i < rows.length; i++) {
+			numOfColumns = Math.max(numOfColumns, rows[i].length);
+		}
+		this.columns = numOfColumns;
+
+		// if no rows or columns throw an illegal argument exception as you
+		// cannot have a 0xn or nx0 matrix
+		if (this.rows == 0 || this.columns == 0)
+			throw new IllegalArgumentException("Cannot have a 0xn or nx0 matrix!");
+
+		// copy each row into its place in the flat array, anything missing is
+		// left as zero.
+		this.entries = new double[this.rows * this.columns];
+		for (int i = 0; i < this.rows; i++) {
+			System.arraycopy(rows[i], 0, entries, i * columns, rows[i].length);
+		}
+	}
+
+	/**
+	 * creates a matrix with the same entries as the given matrix of real
+	 * numbers.
+	 *
+	 * @param matrix
+	 *            matrix to copy
+	 */
+	public DenseDoubleMatrix(Matrix<RealNumber> matrix) {
+		super(DenseDoubleMatrix.class);
+		this.rows = matrix.getRowCount();
+		this.columns = matrix.getColumnCount();
+		this.entries = new double[rows * columns];
+
+		// copy over the value of each entry
+		for (int i = 0; i < rows; i++) {
+			for (int j = 0; j < columns; j++) {
+				entries[i * columns + j] = matrix.getEntry(i, j).getValue();
+			}
+		}
+	}
+
+	/**
+	 * private constructor so the arguments don't need to be checked, the entry
+	 * array is used directly and not copied.
+	 *
+	 * @param entries
+	 *            row major entries of the matrix
+	 * @param rows
+	 *            rows of the matrix
+	 * @param columns
+	 *            columns of the matrix
+	 */
+	private DenseDoubleMatrix(double[] entries, int rows, int columns) {
+		super(DenseDoubleMatrix.class);
+		this.entries = entries;
+		this.rows = rows;
+		this.columns = columns;
+	}
+
+	@Override
+	public DenseDoubleMatrix add(DenseDoubleMatrix add) {
+		// make sure the number of rows and columns match up
+		if (!(this.columns == add.columns && this.rows == add.rows))
+			throw new IllegalArgumentException("You can only add two matricies if they have the same dimension!");
+
+		// since both are stored the same way just add the flat arrays
+		double[] results = new double[entries.length];
+		for (int i = 0; i < results.length; i++) {
+			results[i] = entries[i] + add.entries[i];
+		}
+
+		return new DenseDoubleMatrix(results, rows, columns);
+	}
+
+	@Override
+	public DenseDoubleMatrix multiply(DenseDoubleMatrix mult) {
+		// make sure the dimensions of the matrices are compatible for
+		// multiplication.
+		if (this.columns != mult.rows)
+			throw new IllegalArgumentException("You can only multiply an n x r matrix by an r x m matrix!");
+
+		double[] results = new double[this.rows * mult.columns];
+		multiplyKernel(this.entries, mult.entries, results, this.rows, this.columns, mult.columns);
+
+		return new DenseDoubleMatrix(results, this.rows, mult.columns);
+	}
+
+	/**
+	 * multiplies the n x k matrix a by the k x m matrix b and adds the result
+	 * into c. The loops are tiled so the working set of b stays in cache and
+	 * four rows of the result are computed at once so each entry of b loaded
+	 * is used four times. The innermost loop runs along a row so it can be
+	 * vectorized by the JIT.
+	 */
+	private static void multiplyKernel(double[] a, double[] b, double[] c, int n, int k, int m) {
+		for (int jStart = 0; jStart < m; jStart += COLUMN_BLOCK) {
+			int jEnd = Math.min(jStart + COLUMN_BLOCK, m);
+
+			for (int pStart = 0; pStart < k; pStart += INNER_BLOCK) {
+				int pEnd = Math.min(pStart + INNER_BLOCK, k);
+
+				// handle four rows at a time while there are enough left
+				int i = 0;
+				for (; i + 3 < n; i += 4) {
+					int c0 = i * m;
+					int c1 = c0 + m;
+					int c2 = c1 + m;
+					int c3 = c2 + m;
+					int a0 = i * k;
+					int a1 = a0 + k;
+					int a2 = a1 + k;
+					int a3 = a2 + k;
+
+					for (int p = pStart; p < pEnd; p++) {
+						double v0 = a[a0 + p];
+						double v1 = a[a1 + p];
+						double v2 = a[a2 + p];
+						double v3 = a[a3 + p];
+						int bRow = p * m;
+
+						for (int j = jStart; j < jEnd; j++) {
+							double bValue = b[bRow + j];
+							c[c0 + j] += v0 * bValue;
+							c[c1 + j] += v1 * bValue;
+							c[c2 + j] += v2 * bValue;
+							c[c3 + j] += v3 * bValue;
+						}
+					}
+				}
+
+				// finish off any remaining rows one at a time
+				for (; i < n; i++) {
+					int cRow = i * m;
+					int aRow = i * k;
+					for (int p = pStart; p < pEnd; p++) {
+						double value = a[aRow + p];
+						int bRow = p * m;
+						for (int j = jStart; j < jEnd; j++) {
+							c[cRow + j] += value * b[bRow + j];
+						}
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * scales each term of the matrix by the given scalar
+	 *
+	 * @param scalar
+	 *            number to multiply by
+	 * @return scaled matrix
+	 */
+	public DenseDoubleMatrix scale(double scalar) {
+		double[] results = new double[entries.length];
+		for (int i = 0; i < results.length; i++) {
+			results[i] = entries[i] * scalar;
+		}
+		return new DenseDoubleMatrix(results, rows, columns);
+	}
+
+	/**
+	 * transposes the current matrix, this is done in square tiles so that both
+	 * the reads and the writes stay in cache.
+	 *
+	 * @return current matrix's transposition.
+	 */
+	public DenseDoubleMatrix transpose() {
+		double[] results = new double[entries.length];
+
+		for (int iStart = 0; iStart < rows; iStart += TRANSPOSE_BLOCK) {
+			int iEnd = Math.min(iStart + TRANSPOSE_BLOCK, rows);
+			for (int jStart = 0; jStart < columns; jStart += TRANSPOSE_BLOCK) {
+				int jEnd = Math.min(jStart + TRANSPOSE_BLOCK, columns);
+
+				// move the entries of the tile to their transposed position
+				for (int i = iStart; i < iEnd; i++) {
+					for (int j = jStart; j < jEnd; j++) {
+						results[j * rows + i] = entries[i * columns + j];
+					}
+				}
+			}
+		}
+
+		return new DenseDoubleMatrix(results, columns, rows);
+	}
+
+	@Override
+	public DenseDoubleMatrix negate() {
+		double[] results = new double[entries.length];
+		for (int i = 0; i < results.length; i++) {
+			results[i] = -entries[i];
+		}
+		return new DenseDoubleMatrix(results, rows, columns);
+	}
+
+	/**
+	 * calculates and returns the determinant using LU decomposition with
+	 * partial pivoting, the value is saved for future retreival.
+	 *
+	 * @return determinant of the current matrix if it is n x n otherwise
+	 *         illegal argument exception is thrown
+	 */
+	public double determinant() {
+		// if the determinant already exists return it
+		if (determinant != null)
+			return determinant;
+
+		// check that the matrix is square
+		if (rows != columns)
+			throw new IllegalArgumentException("Matrix must be square to find the determinant!");
+
+		int n = rows;
+		double[] lu = Arrays.copyOf(entries, entries.length);
+		double results = 1;
+
+		for (int k = 0; k < n; k++) {
+			// pick the entry with the largest absolute value as the pivot
+			int pivot = k;
+			double max = Math.abs(lu[k * n + k]);
+			for (int i = k + 1; i < n; i++) {
+				double value = Math.abs(lu[i * n + k]);
+				if (value > max) {
+					max = value;
+					pivot = i;
+				}
+			}
+
+			// if the whole column is zero the matrix is singular
+			if (max == 0) {
+				determinant = 0D;
+				return determinant;
+			}
+
+			// swap the rows, this negates the determinant
+			if (pivot != k) {
+				for (int j = 0; j < n; j++) {
+					double temp = lu[k * n + j];
+					lu[k * n + j] = lu[pivot * n + j];
+					lu[pivot * n + j] = temp;
+				}
+				results = -results;
+			}
+
+			double pivotValue = lu[k * n + k];
+			results *= pivotValue;
+
+			// eliminate the column below the pivot
+			for (int i = k + 1; i < n; i++) {
+				double factor = lu[i * n + k] / pivotValue;
+				if (factor == 0)
+					continue;
+				for (int j = k + 1; j < n; j++) {
+					lu[i * n + j] -= factor * lu[k * n + j];
+				}
+			}
+		}
+
+		determinant = results;
+		return determinant;
+	}
+
+	/**
+	 * defaults to the RIGHTZERO matrix
+	 */
+	@Override
+	public DenseDoubleMatrix ZERO() {
+		return RIGHTZERO();
+	}
+
+	/**
+	 * square matrix with all zeros if original matrix has dimension n x m this
+	 * will have dimension n x n
+	 *
+	 * @return left zero matrix
+	 */
+	public DenseDoubleMatrix LEFTZERO() {
+		return new DenseDoubleMatrix(new double[rows * rows], rows, rows);
+	}
+
+	/**
+	 * square matrix with all zeros if original matrix has dimension n x m this
+	 * will have dimension m x m
+	 *
+	 * @return right zero matrix
+	 */
+	public DenseDoubleMatrix RIGHTZERO() {
+		return new DenseDoubleMatrix(new double[columns * columns], columns, columns);
+	}
+
+	/**
+	 * defaults to RIGHTIDENTITY matrix.
+	 */
+	@Override
+	public DenseDoubleMatrix IDENTITY() {
+		return RIGHTIDENTITY();
+	}
+
+	/**
+	 * square matrix with all zeros except along the diagonal, if original
+	 * matrix has dimension n x m this will have dimension n x n
+	 *
+	 * @return left identity matrix
+	 */
+	public DenseDoubleMatrix LEFTIDENTITY() {
+		DenseDoubleMatrix zero = LEFTZERO();
+		for (int i = 0; i < rows; i++) {
+			zero.entries[i * rows + i] = 1;
+		}
+		return zero;
+	}
+
+	/**
+	 * square matrix with all zeros except along the diagonal, if original
+	 * matrix has dimension n x m this will have dimension m x m
+	 *
+	 * @return right identity matrix
+	 */
+	public DenseDoubleMatrix RIGHTIDENTITY() {
+		DenseDoubleMatrix zero = RIGHTZERO();
+		for (int i = 0; i < columns; i++) {
+			zero.entries[i * columns + i] = 1;
+		}
+		return zero;
+	}
+
+	/**
+	 * returns the number of rows in the matrix
+	 *
+	 * @return number of rows
+	 */
+	public int getRowCount() {
+		return rows;
+	}
+
+	/**
+	 * returns the number of columns in the matrix
+	 *
+	 * @return number of columns
+	 */
+	public int getColumnCount() {
+		return columns;
+	}
+
+	/**
+	 * returns the entry in the given row and column of the matrix, the first
+	 * coordinate of the matrix is 0.
+	 *
+	 * @param row
+	 *            row of the entry
+	 * @param column
+	 *            column of the entry
+	 * @return entry at the given position
+	 */
+	public double getEntry(int row, int column) {
+		// check for out of bounds
+		if (row < 0 || column < 0 || row >= rows || column >= columns)
+			throw new IllegalArgumentException("invalid row/column for matrix entry!");
+
+		return entries[row * columns + column];
+	}
+
+	/**
+	 * returns a copy of the ith row of the matrix
+	 *
+	 * @param i
+	 *            row to return
+	 * @return ith row of the matrix null if out of bounds.
+	 */
+	public double[] getRow(int i) {
+		// check for out of bounds
+		if (i < 0 || i >= rows)
+			return null;
+
+		return Arrays.copyOfRange(entries, i * columns, (i + 1) * columns);
+	}
+
+	/**
+	 * returns a copy of the ith column of the matrix
+	 *
+	 * @param i
+	 *            column to return
+	 * @return ith column of the matrix null if out of bounds.
+	 */
+	public double[] getColumn(int i) {
+		// check for out of bounds
+		if (i < 0 || i >= columns)
+			return null;
+
+		double[] results = new double[rows];
+		for (int j = 0; j < rows; j++) {
+			results[j] = entries[j * columns + i];
+		}
+		return results;
+	}
+
+	/**
+	 * gets the matrix within the current matrix that starts at the start
+	 * coordinates and ends just before the end coordinates, the first
+	 * coordinate of the matrix is 0
+	 *
+	 * @param rowStart
+	 *            row to start from
+	 * @param columnStart
+	 *            column to start from
+	 * @param rowEnd
+	 *            row to end at, exclusive
+	 * @param columnEnd
+	 *            column to end at, exclusive
+	 * @return matrix that is made from the sub area.
+	 */
+	public DenseDoubleMatrix getSubMatrix(int rowStart, int columnStart, int rowEnd, int columnEnd) {
+		// check for out of bounds and throw illegal argument exception if they
+		// are.
+		if (rowStart < 0 || columnStart < 0 || rowStart >= rowEnd || columnStart >= columnEnd || rowEnd > rows
+				|| columnEnd > columns)
+			throw new IllegalArgumentException("Invalid coordinates for sub matrix operation!");
+
+		int subRows = rowEnd - rowStart;
+		int subColumns = columnEnd - columnStart;
+		double[] results = new double[subRows * subColumns];
+
+		// copy in each row of the sub area
+		for (int i = 0; i < subRows; i++) {
+			System.arraycopy(entries, (i + rowStart) * columns + columnStart, results, i * subColumns, subColumns);
+		}
+
+		return new DenseDoubleMatrix(results, subRows, subColumns);
+	}
+
+	/**
+	 * gets the matrix with the given row and column removed.
+	 *
+	 * @param rowExclude
+	 *            row to remove
+	 * @param columnExclude
+	 *            column to remove
+	 * @return matrix without the row and column
+	 */
+	public DenseDoubleMatrix getExclusionMatrix(int rowExclude, int columnExclude) {
+		// check for out of bounds
+		if (rowExclude < 0 || columnExclude < 0 || rowExclude >= rows || columnExclude >= columns)
+			throw new IllegalArgumentException("invalid row/column for exclusion matrix!");
+
+		int subColumns = columns - 1;
+		double[] results = new double[(rows - 1) * subColumns];
+
+		// copy the parts of each row on either side of the excluded column
+		for (int i = 0, row = 0; i < rows; i++) {
+			if (i == rowExclude)
+				continue;
+			System.arraycopy(entries, i * columns, results, row * subColumns, columnExclude);
+			System.arraycopy(entries, i * columns + columnExclude + 1, results, row * subColumns + columnExclude,
+					subColumns - columnExclude);
+			row++;
+		}
+
+		return new DenseDoubleMatrix(results, rows - 1, subColumns);
+	}
+
+	/**
+	 * converts the matrix into a generic matrix of real numbers.
+	 *
+	 * @return matrix of real numbers with the same entries
+	 */
+	public Matrix<RealNumber> toMatrix() {
+		RealNumber[][] results = new RealNumber[rows][columns];
+		for (int i = 0; i < rows; i++) {
+			for (int j = 0; j < columns; j++) {
+				results[i][j] = new RealNumber(entries[i * columns + j]);
+			}
+		}
+		return new Matrix<>(results, rows, columns);
+	}
+
+	@Override
+	public boolean equals(DenseDoubleMatrix compare) {
+		// check for dimension mismatch
+		if (!(compare.rows == this.rows && compare.columns == this.columns))
+			return false;
+
+		// check for entry mismatch
+		return Arrays.equals(this.entries, compare.entries);
+	}
+
+	@Override
+	public int hashCode() {
+		return 31 * (31 * rows + columns) + Arrays.hashCode(entries);
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder results = new StringBuilder("{");
+		for (int i = 0; i < rows; i++) {
+			results.append(Arrays.toString(getRow(i))).append("\n");
+		}
+		results.setLength(results.length() - 1);
+		return results.append("}").toString();
+	}
+
+}
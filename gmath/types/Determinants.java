@@ -0,0 +1,413 @@
+package gmath.types;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import gmath.numbertheory.ModularContext;
+import gmath.numbertheory.MultiModular;
+import gmath.order.Ordering;
+
+/**
+ * util class holding the determinant algorithms used by the
+ * {@link gmath.types.Matrix Matrix} class. All of the methods take an n x n
+ * array that they are free to modify, so the matrix must hand them a copy of
+ * its entries.
+ *
+ * @author Gavin
+ *
+ */
+final class Determinants {
+	// make class non-instantiable
+	private Determinants() {}
+
+	// big integer matrices at least this large use the multi-modular method
+	private static final int MULTI_MODULAR_CUTOFF = 8;
+
+	/**
+	 * picks the fastest determinant algorithm that the ring of the entries
+	 * supports. Fields use LU decomposition, big integers use the
+	 * multi-modular method once the matrix is large enough, rings with exact
+	 * division use Bareiss elimination and every other ring falls back to the
+	 * division free Berkowitz algorithm.
+	 *
+	 * @param entries
+	 *            n x n array of entries, will be modified
+	 * @param n
+	 *            dimension of the array
+	 * @return determinant of the entries
+	 */
+	static <R extends Ring<R>> R determinant(R[][] entries, int n) {
+		R sample = entries[0][0];
+		if (sample instanceof Field)
+			return lu(entries, n);
+		if (sample instanceof BigInteger && n >= MULTI_MODULAR_CUTOFF)
+			return multiModular(entries, n);
+		if (sample instanceof ExactDivision)
+			return bareiss(entries, n);
+		return berkowitz(entries, n);
+	}
+
+	/**
+	 * computes the determinant by gaussian elimination into an upper
+	 * triangular matrix, the determinant is then the product of the pivots.
+	 * Entries must be elements of a field. If the field is ordered the pivot
+	 * with the largest absolute value is chosen to keep floating point error
+	 * down, otherwise the first non zero pivot is used. Runs in O(n^3) field
+	 * operations.
+	 *
+	 * @param entries
+	 *            n x n array of entries, will be modified
+	 * @param n
+	 *            dimension of the array
+	 * @return determinant of the entries
+	 */
+	static <R extends Ring<R>> R lu(R[][] entries, int n) {
+		if (!(entries[0][0] instanceof Field))
+			throw new IllegalArgumentException("LU decomposition requires the entries to be in a field!");
+
+		R zero = entries[0][0].ZERO();
+		R determinant = entries[0][0].IDENTITY();
+
+		for (int k = 0; k < n; k++) {
+			// find the row to pivot on, if there isn't one the matrix is
+			// singular.
+			int pivot = findPivot(entries, k, n, k, zero);
+			if (pivot < 0)
+				return zero;
+
+			// swapping two rows negates the determinant
+			if (pivot != k) {
+				swapRows(entries, pivot, k);
+				determinant = determinant.negate();
+			}
+
+			R pivotValue = entries[k][k];
+			determinant = determinant.multiply(pivotValue);
+
+			// only invert the pivot once and multiply for each row below it
+			R inverse = invert(pivotValue);
+
+			// eliminate the column below the pivot
+			for (int i = k + 1; i < n; i++) {
+				if (entries[i][k].equals(zero))
+					continue;
+
+				R factor = entries[i][k].multiply(inverse);
+				for (int j = k + 1; j < n; j++) {
+					entries[i][j] = entries[i][j].subtract(factor.multiply(entries[k][j]));
+				}
+			}
+		}
+
+		return determinant;
+	}
+
+	/**
+	 * computes the determinant with fraction free Bareiss elimination. Every
+	 * division in the algorithm is exact so it works for any ring that is
+	 * either a field or supports {@link gmath.types.ExactDivision
+	 * ExactDivision}, and intermediate entries never grow larger than the
+	 * minors of the matrix. Runs in O(n^3) ring operations.
+	 *
+	 * @param entries
+	 *            n x n array of entries, will be modified
+	 * @param n
+	 *            dimension of the array
+	 * @return determinant of the entries
+	 */
+	static <R extends Ring<R>> R bareiss(R[][] entries, int n) {
+		if (!(entries[0][0] instanceof Field || entries[0][0] instanceof ExactDivision))
+			throw new IllegalArgumentException("Bareiss elimination requires a ring with exact division!");
+
+		R zero = entries[0][0].ZERO();
+		R previous = entries[0][0].IDENTITY();
+		boolean negate = false;
+
+		for (int k = 0; k < n - 1; k++) {
+			// make sure the pivot isn't zero by swapping with a lower row
+			if (entries[k][k].equals(zero)) {
+				int pivot = -1;
+				for (int i = k + 1; i < n && pivot < 0; i++) {
+					if (!entries[i][k].equals(zero))
+						pivot = i;
+				}
+
+				// if the whole column is zero the determinant is zero
+				if (pivot < 0)
+					return zero;
+
+				swapRows(entries, pivot, k);
+				negate = !negate;
+			}
+
+			// each entry becomes the 2 x 2 minor with the pivot divided by the
+			// previous pivot, which is guaranteed to divide it exactly.
+			for (int i = k + 1; i < n; i++) {
+				for (int j = k + 1; j < n; j++) {
+					R minor = entries[i][j].multiply(entries[k][k]).subtract(entries[i][k].multiply(entries[k][j]));
+					entries[i][j] = divideExact(minor, previous);
+				}
+			}
+
+			previous = entries[k][k];
+		}
+
+		// the last entry is the determinant up to the sign of the row swaps
+		R determinant = entries[n - 1][n - 1];
+		return negate ? determinant.negate() : determinant;
+	}
+
+	/**
+	 * computes the determinant of a big integer matrix modulo enough 62 bit
+	 * primes to cover the Hadamard bound, the product of the lengths of the
+	 * rows. Each prime is an independent gaussian elimination on longs so they
+	 * run in parallel on the common pool, then the determinant is recovered
+	 * with the chinese remainder theorem. Runs in O(n^3) word operations per
+	 * prime and the number of primes grows with n and the size of the entries.
+	 *
+	 * @param entries
+	 *            n x n array of big integers, not modified
+	 * @param n
+	 *            dimension of the array
+	 * @return determinant of the entries
+	 */
+	@SuppressWarnings("unchecked")
+	static <R extends Ring<R>> R multiModular(R[][] entries, int n) {
+		if (!(entries[0][0] instanceof BigInteger))
+			throw new IllegalArgumentException("multi-modular determinants require big integer entries!");
+
+		// the determinant is at most the product of the row lengths, the
+		// square root of a number with b bits has at most (b + 1) / 2
+		int bits = 0;
+		BigInteger[] flat = new BigInteger[n * n];
+		for (int i = 0; i < n; i++) {
+			BigInteger squares = ((BigInteger) entries[i][0]).ZERO();
+			for (int j = 0; j < n; j++) {
+				BigInteger entry = (BigInteger) entries[i][j];
+				flat[i * n + j] = entry;
+				squares = squares.add(entry.multiply(entry));
+			}
+			bits += (squares.bitLength() + 1) / 2;
+		}
+
+		MultiModular basis = MultiModular.forBits(bits);
+		long[][] residues = basis.reduce(flat);
+		long[] determinants = new long[basis.size()];
+		ForkJoinPool.commonPool().invoke(new ModularTask(basis, residues, n, determinants, 0, basis.size()));
+		return (R) basis.reconstructSigned(determinants);
+	}
+
+	/**
+	 * gaussian elimination modulo a prime on a row major n x n array, returns
+	 * the determinant modulo the prime.
+	 */
+	private static long modularDeterminant(long[] a, int n, ModularContext context) {
+		long determinant = 1;
+		for (int k = 0; k < n; k++) {
+			// any non zero pivot works in a field
+			int pivot = k;
+			while (pivot < n && a[pivot * n + k] == 0) {
+				pivot++;
+			}
+			if (pivot == n)
+				return 0;
+
+			if (pivot != k) {
+				for (int j = k; j < n; j++) {
+					long temp = a[k * n + j];
+					a[k * n + j] = a[pivot * n + j];
+					a[pivot * n + j] = temp;
+				}
+				determinant = context.negate(determinant);
+			}
+
+			long value = a[k * n + k];
+			determinant = context.multiply(determinant, value);
+			long inverse = context.inverse(value);
+
+			// clear the column below the pivot
+			for (int i = k + 1; i < n; i++) {
+				long factor = context.multiply(a[i * n + k], inverse);
+				if (factor == 0)
+					continue;
+				for (int j = k + 1; j < n; j++) {
+					a[i * n + j] = context.subtract(a[i * n + j], context.multiply(factor, a[k * n + j]));
+				}
+			}
+		}
+		return determinant;
+	}
+
+	/**
+	 * fork join task that finds the determinant modulo a range of the primes
+	 * of a basis, splitting the range in half until it is a single prime.
+	 *
+	 * @author Gavin
+	 *
+	 */
+	private static final class ModularTask extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+
+		private final MultiModular basis;
+		private final long[][] residues;
+		private final int n;
+		private final long[] determinants;
+		private final int from;
+		private final int to;
+
+		private ModularTask(MultiModular basis, long[][] residues, int n, long[] determinants, int from, int to) {
+			this.basis = basis;
+			this.residues = residues;
+			this.n = n;
+			this.determinants = determinants;
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		protected void compute() {
+			if (to - from == 1) {
+				determinants[from] = modularDeterminant(residues[from], n, basis.getContext(from));
+				return;
+			}
+
+			int middle = from + (to - from) / 2;
+			invokeAll(new ModularTask(basis, residues, n, determinants, from, middle),
+					new ModularTask(basis, residues, n, determinants, middle, to));
+		}
+	}
+
+	/**
+	 * computes the determinant with the Berkowitz algorithm, this never
+	 * divides so it works over any commutative ring. It builds the
+	 * characteristic polynomial of each leading principal sub matrix from the
+	 * previous one and runs in O(n^4) ring operations.
+	 *
+	 * @param entries
+	 *            n x n array of entries, not modified
+	 * @param n
+	 *            dimension of the array
+	 * @return determinant of the entries
+	 */
+	static <R extends Ring<R>> R berkowitz(R[][] entries, int n) {
+		R zero = entries[0][0].ZERO();
+		R one = entries[0][0].IDENTITY();
+
+		// coefficients of the characteristic polynomial of the leading k x k
+		// sub matrix starting with the highest power.
+		R[] polynomial = Arrays.copyOf(entries[0], 1);
+		polynomial[0] = one;
+
+		// holds A^m c for the current sub matrix A and column c
+		R[] vector = Arrays.copyOf(entries[0], n);
+		R[] next = Arrays.copyOf(entries[0], n);
+
+		for (int k = 0; k < n; k++) {
+			// the toeplitz column is 1, -a, -r c, -r A c, ..., -r A^(k-1) c
+			// where the new sub matrix is [[A, c], [r, a]].
+			R[] toeplitz = Arrays.copyOf(entries[0], k + 2);
+			toeplitz[0] = one;
+			toeplitz[1] = entries[k][k].negate();
+
+			// start the vector off as the column c
+			for (int i = 0; i < k; i++) {
+				vector[i] = entries[i][k];
+			}
+
+			for (int m = 0; m < k; m++) {
+				// take the dot product of the row r with A^m c
+				R dot = zero;
+				for (int i = 0; i < k; i++) {
+					dot = dot.add(entries[k][i].multiply(vector[i]));
+				}
+				toeplitz[m + 2] = dot.negate();
+
+				// multiply the vector by A for the next term
+				if (m + 1 < k) {
+					for (int i = 0; i < k; i++) {
+						R sum = zero;
+						for (int j = 0; j < k; j++) {
+							sum = sum.add(entries[i][j].multiply(vector[j]));
+						}
+						next[i] = sum;
+					}
+					R[] swap = vector;
+					vector = next;
+					next = swap;
+				}
+			}
+
+			// multiply the lower triangular toeplitz matrix by the previous
+			// polynomial to get the next one.
+			R[] product = Arrays.copyOf(polynomial, k + 2);
+			for (int i = 0; i < k + 2; i++) {
+				R sum = zero;
+				for (int j = 0; j <= Math.min(i, k); j++) {
+					sum = sum.add(toeplitz[i - j].multiply(polynomial[j]));
+				}
+				product[i] = sum;
+			}
+			polynomial = product;
+		}
+
+		// the constant term of the characteristic polynomial is (-1)^n det
+		R constant = polynomial[n];
+		return n % 2 == 0 ? constant : constant.negate();
+	}
+
+	/**
+	 * finds the row at or below start to pivot on in the given column, if the
+	 * ring is ordered the entry with the largest absolute value is picked
+	 * otherwise the first non zero entry is.
+	 *
+	 * @return index of the pivot row or -1 if the column is all zero
+	 */
+	static <R extends Ring<R>> int findPivot(R[][] entries, int start, int n, int column, R zero) {
+		// if the field isn't ordered just take the first non zero entry
+		if (!(zero instanceof Ordering)) {
+			for (int i = start; i < n; i++) {
+				if (!entries[i][column].equals(zero))
+					return i;
+			}
+			return -1;
+		}
+
+		// otherwise take the entry with the largest absolute value
+		int pivot = -1;
+		R best = zero;
+		for (int i = start; i < n; i++) {
+			R value = entries[i][column];
+			if (lessThan(value, zero))
+				value = value.negate();
+			if (lessThan(best, value)) {
+				best = value;
+				pivot = i;
+			}
+		}
+		return pivot;
+	}
+
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	private static <R extends Ring<R>> boolean lessThan(R a, R b) {
+		return ((Ordering) a).lessThan((Ordering) b);
+	}
+
+	static <R> void swapRows(R[][] entries, int a, int b) {
+		R[] temp = entries[a];
+		entries[a] = entries[b];
+		entries[b] = temp;
+	}
+
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	static <R extends Ring<R>> R invert(R value) {
+		return (R) ((Field) value).invert();
+	}
+
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	private static <R extends Ring<R>> R divideExact(R value, R divisor) {
+		if (value instanceof Field)
+			return (R) ((Field) value).divide((Field) divisor);
+		return (R) ((ExactDivision) value).divideExact((ExactDivision) divisor);
+	}
+}
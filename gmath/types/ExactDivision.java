@@ -0,0 +1,23 @@
+package gmath.types;
+
+/**
+ * interface for rings that can divide one element by another when the
+ * divisor is known to divide it exactly, like the integers. This is what
+ * allows fraction free algorithms such as Bareiss elimination to run on rings
+ * that aren't fields.
+ * 
+ * @author Gavin
+ *
+ */
+public interface ExactDivision<R extends ExactDivision<R>> {
+
+	/**
+	 * divides the current element by the divisor, the divisor must divide the
+	 * current element exactly otherwise the result is undefined.
+	 * 
+	 * @param divisor
+	 *            element that divides the current element
+	 * @return quotient of the exact division
+	 */
+	public R divideExact(R divisor);
+}
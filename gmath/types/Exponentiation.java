@@ -0,0 +1,188 @@
+package gmath.types;
+
+import java.util.function.UnaryOperator;
+
+/**
+ * exponentiation by squaring shared by {@link gmath.types.Ring Ring},
+ * {@link gmath.types.BigInteger BigInteger} and the modular arithmetic
+ * classes. The exponent is read one bit at a time through {@link Exponent} so
+ * no binary string is ever built, and the sliding window method is used for
+ * long exponents to cut down on the number of multiplications.
+ *
+ * @author Gavin
+ *
+ */
+public final class Exponentiation {
+
+	// make class non-instantiable
+	private Exponentiation() {}
+
+	/**
+	 * bits of a non negative exponent.
+	 */
+	@FunctionalInterface
+	public static interface Exponent {
+		/**
+		 * returns true if the given bit of the exponent is set, bit 0 is the
+		 * least significant.
+		 */
+		public boolean testBit(int bit);
+	}
+
+	/**
+	 * returns the window size that minimizes the number of multiplications for
+	 * an exponent with the given number of bits, 1 means plain binary
+	 * exponentiation.
+	 *
+	 * @param bitLength
+	 *            number of bits in the exponent
+	 * @return best window size
+	 */
+	public static int windowSize(int bitLength) {
+		// thresholds where the precomputed odd powers start to pay for
+		// themselves
+		if (bitLength <= 24)
+			return 1;
+		if (bitLength <= 80)
+			return 3;
+		if (bitLength <= 240)
+			return 4;
+		if (bitLength <= 672)
+			return 5;
+		if (bitLength <= 1792)
+			return 6;
+		return 7;
+	}
+
+	/**
+	 * raises the base to a non negative long power with left to right binary
+	 * exponentiation.
+	 *
+	 * @param base
+	 *            number to raise
+	 * @param power
+	 *            power to raise it to, must not be negative
+	 * @return base ^ power
+	 */
+	public static <R extends Ring<R>> R pow(R base, long power) {
+		if (power < 0)
+			throw new IllegalArgumentException("power must not be negative!");
+		if (power == 0)
+			return base.IDENTITY();
+
+		// start at the highest bit, it is always a 1
+		R results = base;
+		for (int bit = 62 - Long.numberOfLeadingZeros(power); bit >= 0; bit--) {
+			results = results.square();
+			if ((power >>> bit & 1) != 0)
+				results = results.multiply(base);
+		}
+		return results;
+	}
+
+	/**
+	 * multiplies the base by a non negative long scalar with left to right
+	 * double and add.
+	 *
+	 * @param base
+	 *            number to scale
+	 * @param scalar
+	 *            times to add the base to itself, must not be negative
+	 * @return base added to itself scalar times
+	 */
+	public static <R extends Ring<R>> R scale(R base, long scalar) {
+		if (scalar < 0)
+			throw new IllegalArgumentException("scalar must not be negative!");
+		if (scalar == 0)
+			return base.ZERO();
+
+		// start at the highest bit, it is always a 1
+		R results = base;
+		for (int bit = 62 - Long.numberOfLeadingZeros(scalar); bit >= 0; bit--) {
+			results = results.add(results);
+			if ((scalar >>> bit & 1) != 0)
+				results = results.add(base);
+		}
+		return results;
+	}
+
+	/**
+	 * raises the base to a power using a sliding window of the given size. The
+	 * odd powers base^1, base^3 up to base^(2^window - 1) are precomputed,
+	 * after that each run of up to window bits that ends in a 1 only costs one
+	 * multiplication.
+	 *
+	 * @param base
+	 *            number to raise
+	 * @param power
+	 *            bits of the power
+	 * @param bitLength
+	 *            number of bits in the power, 0 if the power is 0
+	 * @param window
+	 *            size of the window, 1 is plain binary exponentiation
+	 * @param reduce
+	 *            applied after every multiplication, used to reduce modulo
+	 *            something. Can be null.
+	 * @return base ^ power
+	 */
+	public static <R extends Ring<R>> R slidingWindow(R base, Exponent power, int bitLength, int window,
+			UnaryOperator<R> reduce) {
+		if (window < 1 || window > 16)
+			throw new IllegalArgumentException("window size must be between 1 and 16!");
+		if (bitLength == 0)
+			return reduce(base.IDENTITY(), reduce);
+
+		base = reduce(base, reduce);
+
+		// precompute the odd powers that a window can end up being
+		@SuppressWarnings("unchecked")
+		R[] odd = (R[]) new Ring<?>[1 << (window - 1)];
+		odd[0] = base;
+		if (window > 1) {
+			R square = reduce(base.square(), reduce);
+			for (int i = 1; i < odd.length; i++) {
+				odd[i] = reduce(odd[i - 1].multiply(square), reduce);
+			}
+		}
+
+		R results = null;
+		int bit = bitLength - 1;
+		while (bit >= 0) {
+			// zeros are just a square
+			if (!power.testBit(bit)) {
+				results = reduce(results.square(), reduce);
+				bit--;
+				continue;
+			}
+
+			// find the longest window starting here that ends in a 1
+			int low = Math.max(bit - window + 1, 0);
+			while (!power.testBit(low)) {
+				low++;
+			}
+
+			// read the window as a number, it is odd
+			int value = 0;
+			for (int i = bit; i >= low; i--) {
+				value = value << 1 | (power.testBit(i) ? 1 : 0);
+			}
+
+			// square once per bit of the window then multiply by its value, the
+			// first window just starts at its value
+			if (results == null) {
+				results = odd[value >>> 1];
+			} else {
+				for (int i = bit; i >= low; i--) {
+					results = reduce(results.square(), reduce);
+				}
+				results = reduce(results.multiply(odd[value >>> 1]), reduce);
+			}
+			bit = low - 1;
+		}
+		return results;
+	}
+
+	private static <R> R reduce(R value, UnaryOperator<R> reduce) {
+		return reduce == null ? value : reduce.apply(value);
+	}
+}
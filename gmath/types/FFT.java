@@ -0,0 +1,233 @@
+package gmath.types;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * util class for the fast fourier transform on split arrays of doubles, the
+ * real and imaginary parts of a complex vector are held in two separate
+ * arrays so nothing is allocated per entry. The transform is an iterative
+ * radix 2 Cooley-Tukey transform, lengths have to be powers of 2. The cosines
+ * and sines for each length are computed once with
+ * {@link java.lang.Math#cos(double) Math.cos} and cached, they aren't built
+ * up by repeated multiplication so they are accurate to the last bit.
+ *
+ * The forward transform uses the e^(-2 pi i jk / n) convention and the
+ * inverse divides by n so the two undo each other. Convolutions are only
+ * accurate to rounding, each coefficient of a product of length n is off by
+ * at most around 2^-53 log2(n) ||a|| ||b|| where ||a|| and ||b|| are the
+ * euclidean norms of the coefficients. Products of integers stay exact after
+ * rounding as long as that is well below 1/2.
+ *
+ * @author Gavin
+ *
+ */
+public final class FFT {
+	// make class non-instantiable
+	private FFT() {}
+
+	// cos(2 pi k / n) and sin(2 pi k / n) for k < n / 2 keyed by n
+	private static final ConcurrentHashMap<java.lang.Integer, double[][]> TWIDDLES = new ConcurrentHashMap<>();
+
+	/**
+	 * replaces the vector with its discrete fourier transform.
+	 *
+	 * @param real
+	 *            real parts of the vector, length must be a power of 2
+	 * @param imaginary
+	 *            imaginary parts of the vector, same length as real
+	 */
+	public static void transform(double[] real, double[] imaginary) {
+		transform(real, imaginary, false);
+	}
+
+	/**
+	 * replaces the vector with its inverse discrete fourier transform,
+	 * including the division by the length.
+	 *
+	 * @param real
+	 *            real parts of the vector, length must be a power of 2
+	 * @param imaginary
+	 *            imaginary parts of the vector, same length as real
+	 */
+	public static void inverse(double[] real, double[] imaginary) {
+		transform(real, imaginary, true);
+		double scale = 1D / real.length;
+		for (int i = 0; i < real.length; i++) {
+			real[i] *= scale;
+			imaginary[i] *= scale;
+		}
+	}
+
+	/**
+	 * convolves two real vectors, that is multiplies the polynomials with the
+	 * given coefficients. Both vectors are packed into a single complex
+	 * transform so it only takes two transforms instead of three.
+	 *
+	 * @param a
+	 *            first vector
+	 * @param b
+	 *            second vector
+	 * @return a.length + b.length - 1 entries of the convolution
+	 */
+	public static double[] convolve(double[] a, double[] b) {
+		int length = a.length + b.length - 1;
+		int n = size(length);
+
+		// a in the real part and b in the imaginary part
+		double[] real = new double[n];
+		double[] imaginary = new double[n];
+		System.arraycopy(a, 0, real, 0, a.length);
+		System.arraycopy(b, 0, imaginary, 0, b.length);
+		transform(real, imaginary, false);
+
+		// with z = a + ib, A_k B_k = (Z_k^2 - conj(Z_(n - k))^2) / 4i, both
+		// halves of each pair are worked out together so it can be in place
+		for (int k = 0; k <= n / 2; k++) {
+			int j = (n - k) & (n - 1);
+			double zr = real[k];
+			double zi = imaginary[k];
+			double wr = real[j];
+			double wi = imaginary[j];
+
+			// Z_k^2 - conj(Z_j)^2 and Z_j^2 - conj(Z_k)^2
+			double kr = zr * zr - zi * zi - (wr * wr - wi * wi);
+			double ki = 2 * zr * zi + 2 * wr * wi;
+			double jr = wr * wr - wi * wi - (zr * zr - zi * zi);
+			double ji = 2 * wr * wi + 2 * zr * zi;
+
+			// dividing by 4i takes (x + iy) to (y - ix) / 4
+			real[k] = ki / 4;
+			imaginary[k] = -kr / 4;
+			real[j] = ji / 4;
+			imaginary[j] = -jr / 4;
+		}
+
+		inverse(real, imaginary);
+		double[] results = new double[length];
+		System.arraycopy(real, 0, results, 0, length);
+		return results;
+	}
+
+	/**
+	 * convolves two complex vectors given as split real and imaginary parts.
+	 *
+	 * @param aReal
+	 *            real parts of the first vector
+	 * @param aImaginary
+	 *            imaginary parts of the first vector
+	 * @param bReal
+	 *            real parts of the second vector
+	 * @param bImaginary
+	 *            imaginary parts of the second vector
+	 * @return real parts at [0] and imaginary parts at [1] of the
+	 *         aReal.length + bReal.length - 1 entries of the convolution
+	 */
+	public static double[][] convolve(double[] aReal, double[] aImaginary, double[] bReal, double[] bImaginary) {
+		if (aReal.length != aImaginary.length || bReal.length != bImaginary.length)
+			throw new IllegalArgumentException("real and imaginary parts must have the same length!");
+
+		int length = aReal.length + bReal.length - 1;
+		int n = size(length);
+
+		double[] xr = new double[n];
+		double[] xi = new double[n];
+		System.arraycopy(aReal, 0, xr, 0, aReal.length);
+		System.arraycopy(aImaginary, 0, xi, 0, aImaginary.length);
+		transform(xr, xi, false);
+
+		double[] yr = new double[n];
+		double[] yi = new double[n];
+		System.arraycopy(bReal, 0, yr, 0, bReal.length);
+		System.arraycopy(bImaginary, 0, yi, 0, bImaginary.length);
+		transform(yr, yi, false);
+
+		for (int k = 0; k < n; k++) {
+			double r = xr[k] * yr[k] - xi[k] * yi[k];
+			xi[k] = xr[k] * yi[k] + xi[k] * yr[k];
+			xr[k] = r;
+		}
+
+		inverse(xr, xi);
+		double[][] results = new double[2][length];
+		System.arraycopy(xr, 0, results[0], 0, length);
+		System.arraycopy(xi, 0, results[1], 0, length);
+		return results;
+	}
+
+	/**
+	 * smallest power of 2 that is at least the given length.
+	 */
+	private static int size(int length) {
+		if (length > 1 << 30)
+			throw new IllegalArgumentException("vectors are too long to transform!");
+		return length <= 1 ? 1 : java.lang.Integer.highestOneBit(length - 1) << 1;
+	}
+
+	/**
+	 * bit reverses the vector and then runs the butterflies from the
+	 * shortest length up, the inverse just flips the sign of the sines.
+	 */
+	private static void transform(double[] real, double[] imaginary, boolean inverse) {
+		int n = real.length;
+		if (imaginary.length != n)
+			throw new IllegalArgumentException("real and imaginary parts must have the same length!");
+		if (java.lang.Integer.bitCount(n) != 1)
+			throw new IllegalArgumentException("length must be a power of 2!");
+		if (n == 1)
+			return;
+
+		// bit reversal permutation
+		int shift = 32 - java.lang.Integer.numberOfTrailingZeros(n);
+		for (int i = 0; i < n; i++) {
+			int j = java.lang.Integer.reverse(i) >>> shift;
+			if (j > i) {
+				double temp = real[i];
+				real[i] = real[j];
+				real[j] = temp;
+				temp = imaginary[i];
+				imaginary[i] = imaginary[j];
+				imaginary[j] = temp;
+			}
+		}
+
+		double[][] twiddles = twiddles(n);
+		double[] cos = twiddles[0];
+		double[] sin = twiddles[1];
+		double sign = inverse ? 1 : -1;
+
+		for (int length = 2; length <= n; length <<= 1) {
+			int half = length >> 1;
+			int step = n / length;
+			for (int start = 0; start < n; start += length) {
+				for (int j = 0, w = 0; j < half; j++, w += step) {
+					int top = start + j;
+					int bottom = top + half;
+					double wr = cos[w];
+					double wi = sign * sin[w];
+					double vr = real[bottom] * wr - imaginary[bottom] * wi;
+					double vi = real[bottom] * wi + imaginary[bottom] * wr;
+					real[bottom] = real[top] - vr;
+					imaginary[bottom] = imaginary[top] - vi;
+					real[top] += vr;
+					imaginary[top] += vi;
+				}
+			}
+		}
+	}
+
+	/**
+	 * cosines and sines of 2 pi k / n for k < n / 2, cached per length.
+	 */
+	private static double[][] twiddles(int n) {
+		return TWIDDLES.computeIfAbsent(n, size -> {
+			int half = size / 2;
+			double[][] results = new double[2][half];
+			for (int k = 0; k < half; k++) {
+				double angle = 2 * Math.PI * k / size;
+				results[0][k] = Math.cos(angle);
+				results[1][k] = Math.sin(angle);
+			}
+			return results;
+		});
+	}
+}
@@ -1,11 +1,23 @@
 package gmath.types;
 
+import java.util.Arrays;
+
 import gcore.tuples.Pair;
 
 public class FieldPolynomial<F extends Field<F>> extends Ring<FieldPolynomial<F>> {
 
+	/**
+	 * number of coefficients both the quotient and the divisor need before a
+	 * division uses Newton iteration instead of long division.
+	 */
+	public static final int DEFAULT_NEWTON_THRESHOLD = 64;
+
 	Polynomial<F> polynomial;
 
+	// inverse of the reversed polynomial as a power series, saved the first
+	// time this is used as a divisor and extended when more terms are needed
+	private volatile F[] inverse = null;
+
 	@SafeVarargs
 	public FieldPolynomial(F... coefficients) {
 		super();
@@ -17,51 +29,172 @@ public class FieldPolynomial<F extends Field<F>> extends Ring<FieldPolynomial<F>
 		polynomial = poly;
 	}
 
+	/**
+	 * returns the remainder of dividing the current polynomial by the
+	 * modulus.
+	 * 
+	 * @param modulus
+	 *            polynomial to divide by
+	 * @return remainder with degree less than the modulus
+	 */
 	public FieldPolynomial<F> mod(FieldPolynomial<F> modulus) {
-		FieldPolynomial<F> results = this;
-		F modLeading = modulus.getCoefficient(modulus.degree());
-
-		// keep going until the degree of results is less than the modulus's
-		// degree
-		while (results.degree() >= modulus.degree()) {
-			F resultsLeading = results.getCoefficient(results.degree());
-			F scale = resultsLeading.divide(modLeading);
-			FieldPolynomial<F> subtract = modulus.scale(scale).multiplyByPower(results.degree() - modulus.degree());
-			results = results.subtract(subtract);
-		}
-		return results;
+		return divMod(modulus).getSecond();
 	}
 
+	/**
+	 * returns the quotient of dividing the current polynomial by the modulus,
+	 * dropping the remainder.
+	 * 
+	 * @param modulus
+	 *            polynomial to divide by
+	 * @return quotient of the division
+	 */
 	public FieldPolynomial<F> truncate(FieldPolynomial<F> modulus) {
-		FieldPolynomial<F> tally = this;
-		FieldPolynomial<F> results = this.ZERO();
-		F modLeading = modulus.getCoefficient(modulus.degree());
-
-		// used to store the value of x
-		FieldPolynomial<F> x = new FieldPolynomial<F>(modLeading.IDENTITY(), modLeading.ZERO());
-
-		// keep going until the degree of the tally is less than the modulus's
-		// degree
-		while (tally.degree() >= modulus.degree()) {
-			F tallyLeading = tally.getCoefficient(tally.degree());
-			F scale = tallyLeading.divide(modLeading);
-			
-			FieldPolynomial<F> subtract = modulus.scale(scale).multiplyByPower(tally.degree() - modulus.degree());
-			
-			
-			// add the scaled subtraction to the results polynomial then
-			// subtract subtract from tally.
-			results = results.add(x.scale(scale).multiplyByPower(tally.degree() - modulus.degree() - 1));
-			tally = tally.subtract(subtract);
+		return divMod(modulus).getFirst();
+	}
+
+	/**
+	 * divides the current polynomial by the divisor returning the quotient and
+	 * remainder together. Small divisions are done by long division directly
+	 * on the coefficient arrays. Once both the quotient and the divisor have
+	 * at least {@link #DEFAULT_NEWTON_THRESHOLD} coefficients the quotient is
+	 * found with the inverse of the reversed divisor as a power series, built
+	 * by Newton iteration, so the division costs about as much as a few
+	 * multiplications. That inverse is kept by the divisor and extended when
+	 * needed, so reducing many polynomials by the same modulus only builds it
+	 * once.
+	 * 
+	 * @param divisor
+	 *            polynomial to divide by, can't be zero
+	 * @return pair of the quotient and the remainder
+	 */
+	public Pair<FieldPolynomial<F>, FieldPolynomial<F>> divMod(FieldPolynomial<F> divisor) {
+		if (divisor.isZero())
+			throw new ArithmeticException("you can't divide by 0!");
+
+		// if the divisor is bigger there is nothing to divide
+		if (this.degree() < divisor.degree())
+			return new Pair<>(this.ZERO(), this);
+
+		F[] a = polynomial.coefficients();
+		F[] b = divisor.polynomial.coefficients();
+		int k = a.length - b.length + 1;
+		if (Math.min(k, b.length) >= DEFAULT_NEWTON_THRESHOLD)
+			return newtonDivMod(a, divisor, k);
+		return longDivMod(a, b, k);
+	}
+
+	/**
+	 * long division on the coefficient arrays, each step cancels the leading
+	 * term of the remainder in place.
+	 */
+	private Pair<FieldPolynomial<F>, FieldPolynomial<F>> longDivMod(F[] a, F[] b, int k) {
+		RingContext<F> context = polynomial.coefficientContext();
+		F[] remainder = Arrays.copyOf(a, a.length);
+		F[] quotient = Arrays.copyOf(a, k);
+		F inverse = b[0].invert();
+
+		for (int i = 0; i < k; i++) {
+			F scale = remainder[i].multiply(inverse);
+			quotient[i] = scale;
+			if (context.isZero(scale))
+				continue;
+			for (int j = 1; j < b.length; j++) {
+				remainder[i + j] = remainder[i + j].subtract(scale.multiply(b[j]));
+			}
 		}
 
+		return new Pair<>(wrap(quotient), wrap(Arrays.copyOfRange(remainder, k, a.length)));
+	}
+
+	/**
+	 * division with the inverse of the reversed divisor. Read with the leading
+	 * coefficient first the arrays are the reversed polynomials, so the first
+	 * k coefficients of a times the inverse are the quotient and the remainder
+	 * is what is left of a below the degree of the divisor.
+	 */
+	private Pair<FieldPolynomial<F>, FieldPolynomial<F>> newtonDivMod(F[] a, FieldPolynomial<F> divisor, int k) {
+		RingContext<F> context = polynomial.coefficientContext();
+		F[] b = divisor.polynomial.coefficients();
+		F[] inverse = divisor.reversedInverse(k);
+
+		F[] quotient = Arrays.copyOf(PolynomialMultiplication.convolve(Arrays.copyOf(a, k),
+				inverse.length == k ? inverse : Arrays.copyOf(inverse, k), context), k);
+
+		// only the bottom of the product is needed, the top cancels exactly
+		F[] product = PolynomialMultiplication.convolve(quotient, b, context);
+		F[] remainder = Arrays.copyOfRange(a, k, a.length);
+		for (int i = 0; i < remainder.length; i++) {
+			remainder[i] = remainder[i].subtract(product[k + i]);
+		}
+
+		return new Pair<>(wrap(quotient), wrap(remainder));
+	}
+
+	/**
+	 * returns at least length terms of the inverse of the reversed polynomial
+	 * as a power series, extending the saved inverse with Newton iteration g =
+	 * g (2 - b g) which doubles the correct terms each step.
+	 */
+	private F[] reversedInverse(int length) {
+		// read once, another thread may swap in a longer inverse at any time
+		F[] saved = inverse;
+		if (saved != null && saved.length >= length)
+			return saved;
+
+		RingContext<F> context = polynomial.coefficientContext();
+		F[] b = polynomial.coefficients();
+		F two = context.identity().add(context.identity());
+
+		F[] g = saved;
+		if (g == null) {
+			g = Arrays.copyOf(b, 1);
+			g[0] = b[0].invert();
+		}
+
+		while (g.length < length) {
+			int size = Math.min(2 * g.length, length);
+
+			// 2 - b g modulo x^size
+			F[] error = pad(PolynomialMultiplication.convolve(Arrays.copyOf(b, Math.min(b.length, size)), g,
+					context), size, context);
+			for (int i = 0; i < size; i++) {
+				error[i] = error[i].negate();
+			}
+			error[0] = error[0].add(two);
+
+			g = pad(PolynomialMultiplication.convolve(g, error, context), size, context);
+		}
+
+		// the cache is only ever extended, g is fully built before it is published
+		saved = inverse;
+		if (saved == null || saved.length < g.length)
+			inverse = g;
+		return g;
+	}
+
+	/**
+	 * copies the first length entries of x padding with zeros past its end.
+	 */
+	private static <F extends Field<F>> F[] pad(F[] x, int length, RingContext<F> context) {
+		F[] results = Arrays.copyOf(x, length);
+		if (x.length < length)
+			Arrays.fill(results, x.length, length, context.zero());
 		return results;
 	}
 
+	/**
+	 * wraps coefficients that might have leading zeros in a polynomial of
+	 * the same type as this one.
+	 */
+	private FieldPolynomial<F> wrap(F[] coefficients) {
+		return new FieldPolynomial<F>(polynomial.trim(coefficients));
+	}
+
 	public FieldPolynomial<F> gcd(FieldPolynomial<F> n) {
-		if (n.equals(n.ZERO()))
+		if (n.isZero())
 			return this.monicize();
-		if (this.equals(this.ZERO()))
+		if (this.isZero())
 			return n.monicize();
 		if (this.degree() <= n.degree())
 			return n.mod(this).gcd(this);
@@ -113,15 +246,14 @@ public class FieldPolynomial<F extends Field<F>> extends Ring<FieldPolynomial<F>
 			FieldPolynomial<F> m) {
 		// check if gcd was never found to be 1 if so throw an illegal argument
 		// exception
-		if (m.equals(m.ZERO())) {
+		if (m.isZero()) {
 			throw new IllegalArgumentException("gcd of two numbers needs to be 1 for there to be an inverse.");
 		}
 
-		// gets how many m go into x
-		FieldPolynomial<F> d = x.truncate(m);
-
-		// save the modulus result
-		FieldPolynomial<F> mod = x.mod(m);
+		// gets how many m go into x and what is left over in one division
+		Pair<FieldPolynomial<F>, FieldPolynomial<F>> division = x.divMod(m);
+		FieldPolynomial<F> d = division.getFirst();
+		FieldPolynomial<F> mod = division.getSecond();
 		// check if at the end of the algorithm
 		if (mod.degree() == 0) {
 
@@ -171,6 +303,10 @@ public class FieldPolynomial<F extends Field<F>> extends Ring<FieldPolynomial<F>
 		return scale(getCoefficient(degree()).invert());
 	}
 
+	public boolean isZero() {
+		return this.polynomial.isZero();
+	}
+
 	public int degree() {
 		return this.polynomial.degree();
 	}
@@ -1,6 +1,7 @@
 package gmath.types;
 
-public class Integer extends OrderedRing<Integer>{
+public class Integer extends OrderedRing<Integer> implements ExactDivision<Integer>{
+	private static final RingContext<Integer> CONTEXT = new RingContext<>(new Integer(0), new Integer(1));
 	private final int value;
 	public Integer(int value) {
 		super(Integer.class);
@@ -19,6 +20,11 @@ public class Integer extends OrderedRing<Integer>{
 		return new Integer(getValue() * mult.getValue());
 	}
 
+	@Override
+	public Integer divideExact(Integer divisor) {
+		return new Integer(getValue() / divisor.getValue());
+	}
+
 	@Override
 	public Integer negate() {
 		return this.multiply(new Integer(-1));
@@ -41,11 +47,15 @@ public class Integer extends OrderedRing<Integer>{
 	}
 	@Override
 	public Integer ZERO() {
-		return new Integer(0);
+		return CONTEXT.zero();
 	}
 	@Override
 	public Integer IDENTITY() {
-		return new Integer(1);
+		return CONTEXT.identity();
+	}
+	@Override
+	public RingContext<Integer> context() {
+		return CONTEXT;
 	}
 	@Override
 	public int hashCode() {
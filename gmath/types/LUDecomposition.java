@@ -0,0 +1,214 @@
+package gmath.types;
+
+import java.util.Arrays;
+
+/**
+ * PLU factorization of a matrix over a field, P A = L U where P is a row
+ * permutation, L is unit lower triangular and U is in row echelon form. The
+ * factorization is computed once by the {@link gmath.types.Matrix Matrix} it
+ * belongs to and then reused for every solve, inverse, rank and determinant,
+ * each solve only costs O(n^2) field operations.
+ *
+ * @author Gavin
+ *
+ */
+final class LUDecomposition<R extends Ring<R>> {
+
+	// L below the diagonal and U on and above it
+	private final R[][] lu;
+
+	// row of the original matrix that ended up in each row of lu
+	private final int[] permutation;
+
+	// inverse of the pivot in each of the first rank rows of U
+	private final R[] pivotInverses;
+
+	private final int rank;
+	private final int rows;
+	private final int columns;
+	private final R zero;
+	private final R determinant;
+
+	/**
+	 * factors the given matrix entries, the entries are copied first.
+	 *
+	 * @param entries
+	 *            entries of the matrix, must be in a field
+	 * @param rows
+	 *            rows of the matrix
+	 * @param columns
+	 *            columns of the matrix
+	 */
+	LUDecomposition(R[][] entries, int rows, int columns) {
+		if (!(entries[0][0] instanceof Field))
+			throw new IllegalArgumentException("LU decomposition requires the entries to be in a field!");
+
+		this.rows = rows;
+		this.columns = columns;
+		this.zero = entries[0][0].ZERO();
+		this.lu = MatrixMultiplication.emptyArray(entries, rows, columns);
+		for (int i = 0; i < rows; i++) {
+			System.arraycopy(entries[i], 0, lu[i], 0, columns);
+		}
+
+		this.permutation = new int[rows];
+		for (int i = 0; i < rows; i++) {
+			permutation[i] = i;
+		}
+
+		R[] inverses = Arrays.copyOf(entries[0], Math.min(rows, columns));
+		boolean negate = false;
+		int row = 0;
+
+		// eliminate column by column, columns without a pivot are skipped
+		// which leaves U in row echelon form for singular matrices
+		for (int column = 0; column < columns && row < rows; column++) {
+			int pivot = Determinants.findPivot(lu, row, rows, column, zero);
+			if (pivot < 0)
+				continue;
+
+			// move the pivot row up and remember where it came from
+			if (pivot != row) {
+				Determinants.swapRows(lu, pivot, row);
+				int temp = permutation[pivot];
+				permutation[pivot] = permutation[row];
+				permutation[row] = temp;
+				negate = !negate;
+			}
+
+			R inverse = Determinants.invert(lu[row][column]);
+			inverses[row] = inverse;
+
+			// eliminate below the pivot keeping the multipliers as L
+			for (int i = row + 1; i < rows; i++) {
+				if (lu[i][column].equals(zero))
+					continue;
+
+				R factor = lu[i][column].multiply(inverse);
+				lu[i][column] = factor;
+				for (int j = column + 1; j < columns; j++) {
+					lu[i][j] = lu[i][j].subtract(factor.multiply(lu[row][j]));
+				}
+			}
+
+			row++;
+		}
+
+		this.rank = row;
+		this.pivotInverses = Arrays.copyOf(inverses, rank);
+
+		// the determinant is the product of the pivots if the matrix is square
+		// and has full rank
+		if (rows != columns) {
+			this.determinant = null;
+		} else if (rank < rows) {
+			this.determinant = zero;
+		} else {
+			R product = zero.IDENTITY();
+			for (int i = 0; i < rows; i++) {
+				product = product.multiply(lu[i][i]);
+			}
+			this.determinant = negate ? product.negate() : product;
+		}
+	}
+
+	/**
+	 * returns the rank of the factored matrix.
+	 */
+	int rank() {
+		return rank;
+	}
+
+	/**
+	 * returns the determinant of the factored matrix, it must be square.
+	 */
+	R determinant() {
+		if (determinant == null)
+			throw new IllegalArgumentException("Matrix must be square to find the determinant!");
+		return determinant;
+	}
+
+	/**
+	 * solves A X = B for X where B is given as an array with the same number
+	 * of rows as A. A must be square and invertible.
+	 *
+	 * @param b
+	 *            right hand sides, one per column
+	 * @param bColumns
+	 *            number of right hand sides
+	 * @return solution with one column per right hand side
+	 */
+	R[][] solve(R[][] b, int bColumns) {
+		// only a square invertible matrix has a unique solution
+		if (rows != columns)
+			throw new IllegalArgumentException("Matrix must be square to solve a linear system!");
+		if (rank < rows)
+			throw new ArithmeticException("Matrix is singular so the system has no unique solution!");
+
+		int n = rows;
+
+		// apply the permutation to the right hand sides
+		R[][] x = MatrixMultiplication.emptyArray(b, n, bColumns);
+		for (int i = 0; i < n; i++) {
+			System.arraycopy(b[permutation[i]], 0, x[i], 0, bColumns);
+		}
+
+		// forward substitution with the unit lower triangular L
+		for (int i = 1; i < n; i++) {
+			R[] row = x[i];
+			for (int k = 0; k < i; k++) {
+				R factor = lu[i][k];
+				if (factor.equals(zero))
+					continue;
+				R[] previous = x[k];
+				for (int j = 0; j < bColumns; j++) {
+					row[j] = row[j].subtract(factor.multiply(previous[j]));
+				}
+			}
+		}
+
+		// back substitution with U
+		for (int i = n - 1; i >= 0; i--) {
+			R[] row = x[i];
+			for (int k = i + 1; k < n; k++) {
+				R factor = lu[i][k];
+				if (factor.equals(zero))
+					continue;
+				R[] next = x[k];
+				for (int j = 0; j < bColumns; j++) {
+					row[j] = row[j].subtract(factor.multiply(next[j]));
+				}
+			}
+
+			// divide through by the pivot
+			R inverse = pivotInverses[i];
+			for (int j = 0; j < bColumns; j++) {
+				row[j] = row[j].multiply(inverse);
+			}
+		}
+
+		return x;
+	}
+
+	/**
+	 * solves A x = b for a single right hand side.
+	 *
+	 * @param b
+	 *            right hand side
+	 * @return solution vector
+	 */
+	R[] solve(R[] b) {
+		// treat the vector as a single column
+		R[][] column = MatrixMultiplication.emptyArray(lu, b.length, 1);
+		for (int i = 0; i < b.length; i++) {
+			column[i][0] = b[i];
+		}
+
+		R[][] x = solve(column, 1);
+		R[] results = Arrays.copyOf(b, b.length);
+		for (int i = 0; i < b.length; i++) {
+			results[i] = x[i][0];
+		}
+		return results;
+	}
+}
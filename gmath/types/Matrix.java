@@ -1,11 +1,24 @@
 package gmath.types;
 
 import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
 
 import gcore.util.ArrayUtils;
 
 public class Matrix<R extends Ring<R>> extends Ring<Matrix<R>> {
 
+	/**
+	 * default number of entry multiplications below which a parallel multiply
+	 * won't split the work any further.
+	 */
+	public static final int DEFAULT_PARALLEL_CUTOFF = 1 << 15;
+
+	/**
+	 * default dimension at or below which a Strassen multiply falls back to
+	 * the classical algorithm.
+	 */
+	public static final int DEFAULT_STRASSEN_LEAF_SIZE = 32;
+
 	private final R[][] entries;
 
 	private final Class<?> clazz;
@@ -15,6 +28,14 @@ public class Matrix<R extends Ring<R>> extends Ring<Matrix<R>> {
 
 	private R determinant = null;
 
+	// lazily computed factorization used for solving, only for fields
+	private LUDecomposition<R> decomposition = null;
+
+	// lazily built right zero and identity, matrices are immutable so they
+	// can be handed out more than once
+	private Matrix<R> zero = null;
+	private Matrix<R> identity = null;
+
 	@SafeVarargs
 	public Matrix(R[]... rows) {
 
@@ -47,8 +68,8 @@ public class Matrix<R extends Ring<R>> extends Ring<Matrix<R>> {
 
 	/**
 	 * added constructor for passing the whole array copy process, this
-	 * constructor should only be used by inside methods to the class that know
-	 * the data is valid so it doesn't need to be checked.
+	 * constructor should only be used by inside methods to the package that
+	 * know the data is valid so it doesn't need to be checked.
 	 * 
 	 * @param entries
 	 *            entries for the matrix
@@ -57,7 +78,7 @@ public class Matrix<R extends Ring<R>> extends Ring<Matrix<R>> {
 	 * @param columns
 	 *            columns of the matrix
 	 */
-	private Matrix(R[][] entries, int rows, int columns) {
+	Matrix(R[][] entries, int rows, int columns) {
 		this.rows = rows;
 		this.columns = columns;
 		this.entries = entries;
@@ -93,21 +114,130 @@ public class Matrix<R extends Ring<R>> extends Ring<Matrix<R>> {
 		if (this.columns != mult.rows)
 			throw new IllegalArgumentException("You can only multiply an n x r matrix by an r x m matrix!");
 
-		// get an empty matrix to put the values of the multiplication
-		R[][] results = copyAndFill2DArray(mult.ZERO().entries, this.rows, mult.columns);
-
-		// get the dot products of each of the rows and columns and store it in
-		// the respective places in the matrix
-		for (int i = 0; i < rows; i++) {
-			for (int j = 0; j < mult.columns; j++) {
-				results[i][j] = this.getRow(i).dotProduct(mult.getColumn(j));
-			}
-		}
+		// multiply the entry arrays directly instead of building a vector for
+		// every row and column
+		R[][] results = MatrixMultiplication.classical(this.entries, mult.entries, this.rows, this.columns,
+				mult.columns);
 
 		// return the resulting matrix
 		return new Matrix<>(results, this.rows, mult.columns);
 	}
 
+	/**
+	 * multiplies the current matrix by mult splitting the work across the
+	 * common fork join pool, products smaller than
+	 * {@link #DEFAULT_PARALLEL_CUTOFF} are computed on the calling thread.
+	 * 
+	 * @param mult
+	 *            matrix to multiply by
+	 * @return product of the two matrices
+	 */
+	public Matrix<R> multiplyParallel(Matrix<R> mult) {
+		return multiplyParallel(mult, ForkJoinPool.commonPool(), DEFAULT_PARALLEL_CUTOFF);
+	}
+
+	/**
+	 * multiplies the current matrix by mult splitting the product into tiles
+	 * that are computed on the given pool. Tiles are split until they need at
+	 * most cutoff entry multiplications, and if the whole product needs less
+	 * than that it is computed on the calling thread. Each entry is summed in
+	 * the same order as {@link #multiply(Matrix)} so the results are
+	 * identical.
+	 * 
+	 * @param mult
+	 *            matrix to multiply by
+	 * @param pool
+	 *            pool to run the tiles on
+	 * @param cutoff
+	 *            number of entry multiplications below which a tile isn't
+	 *            split any further
+	 * @return product of the two matrices
+	 */
+	public Matrix<R> multiplyParallel(Matrix<R> mult, ForkJoinPool pool, int cutoff) {
+		// make sure the dimensions of the matrices are compatible for
+		// multiplication.
+		if (this.columns != mult.rows)
+			throw new IllegalArgumentException("You can only multiply an n x r matrix by an r x m matrix!");
+
+		// make sure the cutoff is positive
+		if (cutoff <= 0)
+			throw new IllegalArgumentException("The parallel cutoff must be positive!");
+
+		R[][] results = MatrixMultiplication.parallel(this.entries, mult.entries, this.rows, this.columns,
+				mult.columns, pool, cutoff);
+
+		return new Matrix<>(results, this.rows, mult.columns);
+	}
+
+	/**
+	 * multiplies the current matrix by mult with the Winograd variant of
+	 * Strassen's algorithm using {@link #DEFAULT_STRASSEN_LEAF_SIZE}.
+	 * 
+	 * @param mult
+	 *            matrix to multiply by
+	 * @return product of the two matrices
+	 */
+	public Matrix<R> multiplyStrassen(Matrix<R> mult) {
+		return multiplyStrassen(mult, DEFAULT_STRASSEN_LEAF_SIZE);
+	}
+
+	/**
+	 * multiplies the current matrix by mult with the Winograd variant of
+	 * Strassen's algorithm. Each level of recursion splits the matrices into
+	 * quadrants, padding odd dimensions with zeros, and needs 7 quadrant
+	 * products instead of 8. Once a dimension is at most leafSize the classical
+	 * algorithm is used. This pays off for rings like
+	 * {@link gmath.types.BigInteger BigInteger} or
+	 * {@link gmath.types.finitefields.PrimeFieldElement PrimeFieldElement}
+	 * where multiplying entries costs far more than adding them. Use
+	 * {@link #strassenMultiplicationsSaved(int, int, int, int)} to see how many
+	 * entry multiplications are avoided.
+	 * 
+	 * @param mult
+	 *            matrix to multiply by
+	 * @param leafSize
+	 *            dimension at or below which the classical algorithm is used
+	 * @return product of the two matrices
+	 */
+	public Matrix<R> multiplyStrassen(Matrix<R> mult, int leafSize) {
+		// make sure the dimensions of the matrices are compatible for
+		// multiplication.
+		if (this.columns != mult.rows)
+			throw new IllegalArgumentException("You can only multiply an n x r matrix by an r x m matrix!");
+
+		// the recursion needs to be able to halve the matrices
+		if (leafSize < 1)
+			throw new IllegalArgumentException("The Strassen leaf size must be at least 1!");
+
+		R[][] results = MatrixMultiplication.strassen(this.entries, mult.entries, this.rows, this.columns,
+				mult.columns, leafSize);
+
+		return new Matrix<>(results, this.rows, mult.columns);
+	}
+
+	/**
+	 * returns how many fewer entry multiplications
+	 * {@link #multiplyStrassen(Matrix, int)} does than the classical algorithm
+	 * for a product of the given dimensions. This can be negative if padding
+	 * odd dimensions costs more than the levels save.
+	 * 
+	 * @param rows
+	 *            rows of the left matrix
+	 * @param inner
+	 *            columns of the left matrix and rows of the right matrix
+	 * @param columns
+	 *            columns of the right matrix
+	 * @param leafSize
+	 *            dimension at or below which the classical algorithm is used
+	 * @return classical multiplications minus Strassen multiplications
+	 */
+	public static long strassenMultiplicationsSaved(int rows, int inner, int columns, int leafSize) {
+		if (leafSize < 1)
+			throw new IllegalArgumentException("The Strassen leaf size must be at least 1!");
+
+		return (long) rows * inner * columns - MatrixMultiplication.strassenMultiplications(rows, inner, columns, leafSize);
+	}
+
 	/**
 	 * scales each term of the matrix by the given scalar
 	 * 
@@ -165,9 +295,44 @@ public class Matrix<R extends Ring<R>> extends Ring<Matrix<R>> {
 		return new Matrix<>(entries, rows, columns);
 	}
 
+	/**
+	 * algorithms that can be used to compute the determinant of a matrix.
+	 * 
+	 * @author Gavin
+	 *
+	 */
+	public enum DeterminantMethod {
+		/**
+		 * picks LU for fields, multi-modular for larger big integer matrices,
+		 * Bareiss for rings with exact division and Berkowitz for everything
+		 * else.
+		 */
+		AUTO,
+		/**
+		 * gaussian elimination with pivoting, entries must be in a field.
+		 */
+		LU,
+		/**
+		 * fraction free elimination, entries must be in a field or have
+		 * {@link gmath.types.ExactDivision ExactDivision}.
+		 */
+		BAREISS,
+		/**
+		 * division free O(n^4) algorithm that works over any commutative ring.
+		 */
+		BERKOWITZ,
+		/**
+		 * eliminates modulo word sized primes in parallel and recovers the
+		 * determinant with the chinese remainder theorem, entries must be
+		 * {@link gmath.types.BigInteger BigInteger}.
+		 */
+		MULTI_MODULAR
+	}
+
 	/**
 	 * calculates and returns the determinant, if the determinant of a matrix
-	 * has already been computed it is saved for future retreival.
+	 * has already been computed it is saved for future retreival. The
+	 * algorithm is chosen automatically from the ring of the entries.
 	 * 
 	 * @return determinant of the current matrix if it is n x n otherwise
 	 *         illegal argument exception is thrown
@@ -177,39 +342,122 @@ public class Matrix<R extends Ring<R>> extends Ring<Matrix<R>> {
 		if (determinant != null)
 			return determinant;
 
+		// for fields the factorization gives the determinant and can be
+		// reused for solving later
+		if (rows == columns && entries[0][0] instanceof Field)
+			determinant = decomposition().determinant();
+		else
+			determinant = determinant(DeterminantMethod.AUTO);
+
+		// return the determinant
+		return determinant;
+	}
+
+	/**
+	 * calculates the determinant with the given algorithm.
+	 * 
+	 * @param method
+	 *            algorithm to use for the determinant
+	 * @return determinant of the current matrix if it is n x n otherwise
+	 *         illegal argument exception is thrown
+	 */
+	public R determinant(DeterminantMethod method) {
 		// check that the matrix is square
 		if (rows != columns)
 			throw new IllegalArgumentException("Matrix must be square to find the determinant!");
 
-		// check if the matrix is 2 x 2
-		if (rows == 2) {
-			// if so return a * d - b * c and save the determinant value
-			determinant = entries[0][0].multiply(entries[1][1]).subtract(entries[0][1].multiply(entries[1][0]));
-			return determinant;
+		// the algorithms work in place so give them a copy of the entries
+		R[][] copy = ArrayUtils.copy2DArray(entries, rows, columns);
+
+		switch (method) {
+		case LU:
+			return Determinants.lu(copy, rows);
+		case BAREISS:
+			return Determinants.bareiss(copy, rows);
+		case BERKOWITZ:
+			return Determinants.berkowitz(copy, rows);
+		case MULTI_MODULAR:
+			return Determinants.multiModular(copy, rows);
+		default:
+			return Determinants.determinant(copy, rows);
 		}
+	}
 
-		// if the matrix isn't 2x2 take the top row and multiply by the smaller
-		// matrices determinants below
-		determinant = entries[0][0].ZERO();
-		for (int i = 0; i < columns; i++) {
-			// add the determinants of each of the individual matricies times
-			// the element on the top.
-			
-			R multiply = entries[0][i];
-			
-			// if it is an odd column negate the multiplier, this is since the first column is zero
-			if (i % 2 == 1)
-				multiply = multiply.negate();
-			
-			// get the exclusion matrix for the next derivative
-			Matrix<R> smaller = getExclusionMatrix(0, i);
-			
-			// add to determinant the multiplier times the determinant of the smaller matrix
-			determinant = determinant.add(multiply.multiply(smaller.determinant()));
-		}
+	/**
+	 * returns the PLU factorization of the matrix computing it the first time
+	 * it is needed. Since the matrix is immutable the factorization never
+	 * needs to be recomputed.
+	 * 
+	 * @return factorization of the matrix
+	 */
+	private LUDecomposition<R> decomposition() {
+		if (decomposition == null)
+			decomposition = new LUDecomposition<>(entries, rows, columns);
+		return decomposition;
+	}
 
-		// return the determinant
-		return determinant;
+	/**
+	 * solves the linear system A x = b where A is the current matrix, the
+	 * entries must be in a field and A must be square and invertible. The
+	 * factorization of A is computed on the first solve and saved so every
+	 * solve after that only takes O(n^2) operations.
+	 * 
+	 * @param b
+	 *            right hand side of the system
+	 * @return vector x so that A x = b
+	 * @throws ArithmeticException
+	 *             if the matrix is singular
+	 */
+	public NVector<R> solve(NVector<R> b) {
+		// make sure the dimensions line up
+		if (b.getLength() != rows)
+			throw new IllegalArgumentException("Vector must have the same length as the matrix has rows!");
+
+		return new NVector<>(decomposition().solve(b.entries()), columns);
+	}
+
+	/**
+	 * solves the linear system A X = B where A is the current matrix for every
+	 * column of B at once, the entries must be in a field and A must be square
+	 * and invertible.
+	 * 
+	 * @param b
+	 *            right hand sides of the system, one per column
+	 * @return matrix X so that A X = B
+	 * @throws ArithmeticException
+	 *             if the matrix is singular
+	 */
+	public Matrix<R> solve(Matrix<R> b) {
+		// make sure the dimensions line up
+		if (b.rows != rows)
+			throw new IllegalArgumentException("Right hand side must have the same number of rows as the matrix!");
+
+		return new Matrix<>(decomposition().solve(b.entries, b.columns), columns, b.columns);
+	}
+
+	/**
+	 * returns the inverse of the matrix, the entries must be in a field and
+	 * the matrix must be square and invertible.
+	 * 
+	 * @return inverse of the matrix
+	 * @throws ArithmeticException
+	 *             if the matrix is singular
+	 */
+	public Matrix<R> inverse() {
+		// check that the matrix is square
+		if (rows != columns)
+			throw new IllegalArgumentException("Matrix must be square to find the inverse!");
+
+		return solve(IDENTITY());
+	}
+
+	/**
+	 * returns the rank of the matrix, the entries must be in a field.
+	 * 
+	 * @return number of linearly independent rows of the matrix
+	 */
+	public int rank() {
+		return decomposition().rank();
 	}
 
 	/**
@@ -227,17 +475,7 @@ public class Matrix<R extends Ring<R>> extends Ring<Matrix<R>> {
 	 * @return left zero matrix
 	 */
 	public Matrix<R> LEFTZERO() {
-		// fill a matrix with the zero element
-		R[] row = Arrays.copyOf(this.entries[0], this.rows);
-		Arrays.fill(row, row[0].ZERO());
-		R[][] entries = Arrays.copyOf(this.entries, this.rows);
-
-		// fill the array with a new copy for each row
-		for (int i = 0; i < entries.length; i++) {
-			entries[i] = Arrays.copyOf(row, row.length);
-		}
-
-		return new Matrix<>(entries, rows, rows);
+		return new Matrix<>(squareEntries(rows, entries[0][0].context(), false), rows, rows);
 	}
 
 	/**
@@ -247,17 +485,10 @@ public class Matrix<R extends Ring<R>> extends Ring<Matrix<R>> {
 	 * @return right zero matrix
 	 */
 	public Matrix<R> RIGHTZERO() {
-		// fill a matrix with the zero element
-		R[] row = Arrays.copyOf(this.entries[0], this.columns);
-		Arrays.fill(row, row[0].ZERO());
-		R[][] entries = Arrays.copyOf(this.entries, this.columns);
-
-		// fill the array with a new copy for each row
-		for (int i = 0; i < entries.length; i++) {
-			entries[i] = Arrays.copyOf(row, row.length);
-		}
-
-		return new Matrix<>(entries, columns, columns);
+		// only build it the first time
+		if (zero == null)
+			zero = new Matrix<>(squareEntries(columns, entries[0][0].context(), false), columns, columns);
+		return zero;
 	}
 
 	/**
@@ -275,12 +506,7 @@ public class Matrix<R extends Ring<R>> extends Ring<Matrix<R>> {
 	 * @return left identity matrix
 	 */
 	public Matrix<R> LEFTIDENTITY() {
-		// get the zero matrix and change it so it has 1's on the diagonal.
-		Matrix<R> zero = LEFTZERO();
-		for (int i = 0; i < rows; i++) {
-			zero.entries[i][i] = zero.entries[0][0].IDENTITY();
-		}
-		return zero;
+		return new Matrix<>(squareEntries(rows, entries[0][0].context(), true), rows, rows);
 	}
 
 	/**
@@ -290,16 +516,75 @@ public class Matrix<R extends Ring<R>> extends Ring<Matrix<R>> {
 	 * @return right identity matrix
 	 */
 	public Matrix<R> RIGHTIDENTITY() {
-		// get the zero matrix and change it so it has 1's on the diagonal.
-		Matrix<R> zero = RIGHTZERO();
-		for (int i = 0; i < columns; i++) {
-			zero.entries[i][i] = zero.entries[0][0].IDENTITY();
+		// only build it the first time
+		if (identity == null)
+			identity = new Matrix<>(squareEntries(columns, entries[0][0].context(), true), columns, columns);
+		return identity;
+	}
+
+	/**
+	 * fills an n x n array with the shared zero of the context and
+	 * optionally the shared identity along the diagonal.
+	 */
+	private R[][] squareEntries(int n, RingContext<R> context, boolean diagonal) {
+		R[][] results = MatrixMultiplication.emptyArray(entries, n, n);
+		for (int i = 0; i < n; i++) {
+			Arrays.fill(results[i], context.zero());
+			if (diagonal)
+				results[i][i] = context.identity();
 		}
-		return zero;
+		return results;
+	}
+
+	/**
+	 * gives other classes in the package direct access to the entries so they
+	 * can run their own kernels on them, the array must not be modified.
+	 * 
+	 * @return entry array of the matrix
+	 */
+	R[][] entries() {
+		return entries;
+	}
+
+	/**
+	 * returns the number of rows in the matrix
+	 * 
+	 * @return number of rows
+	 */
+	public int getRowCount() {
+		return rows;
+	}
+
+	/**
+	 * returns the number of columns in the matrix
+	 * 
+	 * @return number of columns
+	 */
+	public int getColumnCount() {
+		return columns;
+	}
+
+	/**
+	 * returns the entry in the given row and column of the matrix, the first
+	 * coordinate of the matrix is 0.
+	 * 
+	 * @param row
+	 *            row of the entry
+	 * @param column
+	 *            column of the entry
+	 * @return entry at the given position
+	 */
+	public R getEntry(int row, int column) {
+		// check for out of bounds
+		if (row < 0 || column < 0 || row >= rows || column >= columns)
+			throw new IllegalArgumentException("invalid row/column for matrix entry!");
+
+		return entries[row][column];
 	}
 
 	/**
-	 * returns the ith row of the matrix in the form of an nvector
+	 * returns the ith row of the matrix in the form of an nvector, the vector
+	 * shares the row of the matrix so no entries are copied.
 	 * 
 	 * @param i
 	 *            row to return
@@ -310,7 +595,21 @@ public class Matrix<R extends Ring<R>> extends Ring<Matrix<R>> {
 		if (i < 0 || i >= rows)
 			return null;
 
-		return new NVector<>(entries[i]);
+		// both are immutable so the row can be shared
+		return new NVector<>(entries[i], columns);
+	}
+
+	/**
+	 * returns a read only view of the matrix that shares its entries.
+	 * Transposes, sub matrices, exclusion matrices, rows and columns of the
+	 * view take constant time to create, use
+	 * {@link gmath.types.MatrixView#materialize() materialize} to turn them
+	 * back into a matrix.
+	 * 
+	 * @return view of the whole matrix
+	 */
+	public MatrixView<R> view() {
+		return MatrixView.of(entries, rows, columns);
 	}
 
 	/**
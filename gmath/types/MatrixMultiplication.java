@@ -0,0 +1,312 @@
+package gmath.types;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * util class holding the multiplication kernels used by the
+ * {@link gmath.types.Matrix Matrix} class. The kernels work directly on the
+ * entry arrays so no vectors need to be built for each entry of the product.
+ *
+ * @author Gavin
+ *
+ */
+final class MatrixMultiplication {
+	// make class non-instantiable
+	private MatrixMultiplication() {}
+
+	// number of inner products processed per tile in the classical kernel, this
+	// keeps the rows of the right matrix being used in cache.
+	private static final int INNER_BLOCK = 64;
+
+	/**
+	 * creates an n x m array of the same type as the given array filled with
+	 * nulls.
+	 *
+	 * @param type
+	 *            array to take the type from
+	 * @param rows
+	 *            rows of the new array
+	 * @param columns
+	 *            columns of the new array
+	 * @return empty array of the given size
+	 */
+	static <T> T[][] emptyArray(T[][] type, int rows, int columns) {
+		T[] empty = Arrays.copyOf(type[0], 0);
+		T[][] results = Arrays.copyOf(type, rows);
+		for (int i = 0; i < rows; i++) {
+			results[i] = Arrays.copyOf(empty, columns);
+		}
+		return results;
+	}
+
+	/**
+	 * multiplies the n x k array a by the k x m array b using the classical
+	 * algorithm and returns the product.
+	 */
+	static <R extends Ring<R>> R[][] classical(R[][] a, R[][] b, int n, int k, int m) {
+		R[][] results = emptyArray(a, n, m);
+		classicalBlock(a, b, results, 0, n, 0, m, k, a[0][0].ZERO());
+		return results;
+	}
+
+	/**
+	 * computes the entries of the product of a and b that lie in the given
+	 * rows and columns and stores them in results. The inner products are
+	 * walked along the rows of b a tile at a time, each entry is still summed
+	 * from zero in increasing order so the result is exactly the same as taking
+	 * the dot product of the row and column.
+	 *
+	 * @param a
+	 *            left matrix
+	 * @param b
+	 *            right matrix
+	 * @param results
+	 *            array to store the product in
+	 * @param rowStart
+	 *            first row of the tile
+	 * @param rowEnd
+	 *            row after the last row of the tile
+	 * @param columnStart
+	 *            first column of the tile
+	 * @param columnEnd
+	 *            column after the last column of the tile
+	 * @param inner
+	 *            number of columns of a and rows of b
+	 * @param zero
+	 *            zero element of the ring
+	 */
+	static <R extends Ring<R>> void classicalBlock(R[][] a, R[][] b, R[][] results, int rowStart, int rowEnd,
+			int columnStart, int columnEnd, int inner, R zero) {
+		// start each entry of the tile at zero
+		for (int i = rowStart; i < rowEnd; i++) {
+			Arrays.fill(results[i], columnStart, columnEnd, zero);
+		}
+
+		for (int pStart = 0; pStart < inner; pStart += INNER_BLOCK) {
+			int pEnd = Math.min(pStart + INNER_BLOCK, inner);
+
+			for (int i = rowStart; i < rowEnd; i++) {
+				R[] row = results[i];
+				for (int p = pStart; p < pEnd; p++) {
+					R value = a[i][p];
+					R[] bRow = b[p];
+					for (int j = columnStart; j < columnEnd; j++) {
+						row[j] = row[j].add(value.multiply(bRow[j]));
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * multiplies the n x k array a by the k x m array b by splitting the
+	 * product into tiles and computing them on the given pool. Tiles are split
+	 * until they take at most cutoff multiplications, and if the whole product
+	 * takes less than that it is computed on the calling thread. Each entry is
+	 * computed exactly as in the classical kernel so the results are identical.
+	 */
+	static <R extends Ring<R>> R[][] parallel(R[][] a, R[][] b, int n, int k, int m, ForkJoinPool pool,
+			int cutoff) {
+		R[][] results = emptyArray(a, n, m);
+		R zero = a[0][0].ZERO();
+
+		// if the product is small don't bother with the pool
+		if ((long) n * m * k <= cutoff) {
+			classicalBlock(a, b, results, 0, n, 0, m, k, zero);
+		} else {
+			pool.invoke(new MultiplyTask<>(a, b, results, 0, n, 0, m, k, zero, cutoff));
+		}
+
+		return results;
+	}
+
+	/**
+	 * multiplies the n x k array a by the k x m array b with the Winograd
+	 * variant of Strassen's algorithm. Each level splits both matrices into
+	 * quadrants, padding odd dimensions with zeros, and does 7 quadrant
+	 * products instead of 8. Once any dimension is at most leafSize the
+	 * classical kernel is used.
+	 */
+	static <R extends Ring<R>> R[][] strassen(R[][] a, R[][] b, int n, int k, int m, int leafSize) {
+		// small products are faster with the classical kernel
+		if (n <= leafSize || k <= leafSize || m <= leafSize)
+			return classical(a, b, n, k, m);
+
+		R zero = a[0][0].ZERO();
+
+		// half sizes rounded up, odd dimensions get padded with a zero row or
+		// column
+		int n2 = (n + 1) / 2;
+		int k2 = (k + 1) / 2;
+		int m2 = (m + 1) / 2;
+
+		// split both matrices into quadrants
+		R[][] a11 = quadrant(a, n, k, 0, 0, n2, k2, zero);
+		R[][] a12 = quadrant(a, n, k, 0, k2, n2, k2, zero);
+		R[][] a21 = quadrant(a, n, k, n2, 0, n2, k2, zero);
+		R[][] a22 = quadrant(a, n, k, n2, k2, n2, k2, zero);
+		R[][] b11 = quadrant(b, k, m, 0, 0, k2, m2, zero);
+		R[][] b12 = quadrant(b, k, m, 0, m2, k2, m2, zero);
+		R[][] b21 = quadrant(b, k, m, k2, 0, k2, m2, zero);
+		R[][] b22 = quadrant(b, k, m, k2, m2, k2, m2, zero);
+
+		// winograd's sums of the left quadrants
+		R[][] s1 = add(a21, a22);
+		R[][] s2 = subtract(s1, a11);
+		R[][] s3 = subtract(a11, a21);
+		R[][] s4 = subtract(a12, s2);
+
+		// and of the right quadrants
+		R[][] t1 = subtract(b12, b11);
+		R[][] t2 = subtract(b22, t1);
+		R[][] t3 = subtract(b22, b12);
+		R[][] t4 = subtract(t2, b21);
+
+		// the seven recursive products
+		R[][] p1 = strassen(a11, b11, n2, k2, m2, leafSize);
+		R[][] p2 = strassen(a12, b21, n2, k2, m2, leafSize);
+		R[][] p3 = strassen(s4, b22, n2, k2, m2, leafSize);
+		R[][] p4 = strassen(a22, t4, n2, k2, m2, leafSize);
+		R[][] p5 = strassen(s1, t1, n2, k2, m2, leafSize);
+		R[][] p6 = strassen(s2, t2, n2, k2, m2, leafSize);
+		R[][] p7 = strassen(s3, t3, n2, k2, m2, leafSize);
+
+		// combine the products into the quadrants of the result
+		R[][] u2 = add(p1, p6);
+		R[][] u3 = add(u2, p7);
+		R[][] c11 = add(p1, p2);
+		R[][] c12 = add(add(u2, p5), p3);
+		R[][] c21 = subtract(u3, p4);
+		R[][] c22 = add(u3, p5);
+
+		// copy the quadrants into the result dropping any padding
+		R[][] results = emptyArray(a, n, m);
+		for (int i = 0; i < n; i++) {
+			R[] left = i < n2 ? c11[i] : c21[i - n2];
+			R[] right = i < n2 ? c12[i] : c22[i - n2];
+			System.arraycopy(left, 0, results[i], 0, m2);
+			System.arraycopy(right, 0, results[i], m2, m - m2);
+		}
+
+		return results;
+	}
+
+	/**
+	 * counts the entry multiplications {@link #strassen} does for an n x k by
+	 * k x m product, this only depends on the dimensions and leaf size.
+	 */
+	static long strassenMultiplications(int n, int k, int m, int leafSize) {
+		if (n <= leafSize || k <= leafSize || m <= leafSize)
+			return (long) n * k * m;
+		return 7 * strassenMultiplications((n + 1) / 2, (k + 1) / 2, (m + 1) / 2, leafSize);
+	}
+
+	/**
+	 * copies the given quadrant of x into a new array of the given size, any
+	 * positions past the edge of x are filled with zero.
+	 */
+	private static <R extends Ring<R>> R[][] quadrant(R[][] x, int rows, int columns, int rowOffset,
+			int columnOffset, int quadrantRows, int quadrantColumns, R zero) {
+		R[][] results = emptyArray(x, quadrantRows, quadrantColumns);
+		for (int i = 0; i < quadrantRows; i++) {
+			R[] row = results[i];
+			if (i + rowOffset >= rows) {
+				Arrays.fill(row, zero);
+				continue;
+			}
+
+			// copy what is there and pad the rest
+			int available = Math.max(0, Math.min(quadrantColumns, columns - columnOffset));
+			System.arraycopy(x[i + rowOffset], columnOffset, row, 0, available);
+			Arrays.fill(row, available, quadrantColumns, zero);
+		}
+		return results;
+	}
+
+	/**
+	 * adds two arrays of the same size entry by entry.
+	 */
+	private static <R extends Ring<R>> R[][] add(R[][] x, R[][] y) {
+		R[][] results = emptyArray(x, x.length, x[0].length);
+		for (int i = 0; i < results.length; i++) {
+			for (int j = 0; j < results[i].length; j++) {
+				results[i][j] = x[i][j].add(y[i][j]);
+			}
+		}
+		return results;
+	}
+
+	/**
+	 * subtracts two arrays of the same size entry by entry.
+	 */
+	private static <R extends Ring<R>> R[][] subtract(R[][] x, R[][] y) {
+		R[][] results = emptyArray(x, x.length, x[0].length);
+		for (int i = 0; i < results.length; i++) {
+			for (int j = 0; j < results[i].length; j++) {
+				results[i][j] = x[i][j].subtract(y[i][j]);
+			}
+		}
+		return results;
+	}
+
+	/**
+	 * fork join task that computes a tile of the product, splitting it in half
+	 * along its longer side while it is too large.
+	 *
+	 * @author Gavin
+	 *
+	 */
+	private static final class MultiplyTask<R extends Ring<R>> extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+
+		private final R[][] a;
+		private final R[][] b;
+		private final R[][] results;
+		private final int rowStart;
+		private final int rowEnd;
+		private final int columnStart;
+		private final int columnEnd;
+		private final int inner;
+		private final R zero;
+		private final int cutoff;
+
+		private MultiplyTask(R[][] a, R[][] b, R[][] results, int rowStart, int rowEnd, int columnStart,
+				int columnEnd, int inner, R zero, int cutoff) {
+			this.a = a;
+			this.b = b;
+			this.results = results;
+			this.rowStart = rowStart;
+			this.rowEnd = rowEnd;
+			this.columnStart = columnStart;
+			this.columnEnd = columnEnd;
+			this.inner = inner;
+			this.zero = zero;
+			this.cutoff = cutoff;
+		}
+
+		@Override
+		protected void compute() {
+			int rows = rowEnd - rowStart;
+			int columns = columnEnd - columnStart;
+
+			// if the tile is small enough or can't be split compute it directly
+			if ((long) rows * columns * inner <= cutoff || (rows == 1 && columns == 1)) {
+				classicalBlock(a, b, results, rowStart, rowEnd, columnStart, columnEnd, inner, zero);
+				return;
+			}
+
+			// otherwise split the longer side in half
+			if (rows >= columns) {
+				int middle = rowStart + rows / 2;
+				invokeAll(new MultiplyTask<>(a, b, results, rowStart, middle, columnStart, columnEnd, inner, zero, cutoff),
+						new MultiplyTask<>(a, b, results, middle, rowEnd, columnStart, columnEnd, inner, zero, cutoff));
+			} else {
+				int middle = columnStart + columns / 2;
+				invokeAll(new MultiplyTask<>(a, b, results, rowStart, rowEnd, columnStart, middle, inner, zero, cutoff),
+						new MultiplyTask<>(a, b, results, rowStart, rowEnd, middle, columnEnd, inner, zero, cutoff));
+			}
+		}
+	}
+}
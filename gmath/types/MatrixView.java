@@ -0,0 +1,303 @@
+package gmath.types;
+
+/**
+ * read only window onto the entries of a {@link gmath.types.Matrix Matrix}.
+ * A view shares the storage of the matrix it came from so creating one takes
+ * constant time no matter how big the matrix is, transposes, sub matrices,
+ * exclusion matrices, rows and columns of views are views again. Since
+ * matrices are immutable a view will never change, use {@link #materialize()}
+ * to copy it into a matrix of its own when it is needed for arithmetic.
+ *
+ * @author Gavin
+ *
+ */
+public abstract class MatrixView<R extends Ring<R>> {
+
+	// storage of the matrix the view was created from, also used as the type
+	// of the array when materializing.
+	final R[][] data;
+
+	final int rows;
+	final int columns;
+
+	private MatrixView(R[][] data, int rows, int columns) {
+		this.data = data;
+		this.rows = rows;
+		this.columns = columns;
+	}
+
+	/**
+	 * creates a view of the whole entry array.
+	 */
+	static <R extends Ring<R>> MatrixView<R> of(R[][] data, int rows, int columns) {
+		return new Window<>(data, rows, columns, 0, 0);
+	}
+
+	/**
+	 * returns the entry in the given row and column of the view, the first
+	 * coordinate is 0.
+	 *
+	 * @param row
+	 *            row of the entry
+	 * @param column
+	 *            column of the entry
+	 * @return entry at the given position
+	 */
+	public final R getEntry(int row, int column) {
+		// check for out of bounds
+		if (row < 0 || column < 0 || row >= rows || column >= columns)
+			throw new IllegalArgumentException("invalid row/column for matrix entry!");
+
+		return get(row, column);
+	}
+
+	/**
+	 * unchecked version of get entry used by the views themselves.
+	 */
+	abstract R get(int row, int column);
+
+	/**
+	 * returns the number of rows in the view
+	 *
+	 * @return number of rows
+	 */
+	public final int getRowCount() {
+		return rows;
+	}
+
+	/**
+	 * returns the number of columns in the view
+	 *
+	 * @return number of columns
+	 */
+	public final int getColumnCount() {
+		return columns;
+	}
+
+	/**
+	 * transposes the view, transposing twice gives back the original view.
+	 *
+	 * @return transposed view
+	 */
+	public MatrixView<R> transpose() {
+		return new Transposed<>(this);
+	}
+
+	/**
+	 * gets the view within the current view that starts at the start
+	 * coordinates and ends just before the end coordinates, the first
+	 * coordinate of the view is 0
+	 *
+	 * @param rowStart
+	 *            row to start from
+	 * @param columnStart
+	 *            column to start from
+	 * @param rowEnd
+	 *            row to end at, exclusive
+	 * @param columnEnd
+	 *            column to end at, exclusive
+	 * @return view of the sub area.
+	 */
+	public MatrixView<R> getSubMatrix(int rowStart, int columnStart, int rowEnd, int columnEnd) {
+		// check for out of bounds and throw illegal argument exception if they
+		// are.
+		if (rowStart < 0 || columnStart < 0 || rowStart >= rowEnd || columnStart >= columnEnd || rowEnd > rows
+				|| columnEnd > columns)
+			throw new IllegalArgumentException("Invalid coordinates for sub matrix operation!");
+
+		return new Sub<>(this, rowStart, columnStart, rowEnd - rowStart, columnEnd - columnStart);
+	}
+
+	/**
+	 * gets the view with the given row and column removed.
+	 *
+	 * @param rowExclude
+	 *            row to remove
+	 * @param columnExclude
+	 *            column to remove
+	 * @return view without the row and column
+	 */
+	public MatrixView<R> getExclusionMatrix(int rowExclude, int columnExclude) {
+		// check for out of bounds
+		if (rowExclude < 0 || columnExclude < 0 || rowExclude >= rows || columnExclude >= columns)
+			throw new IllegalArgumentException("invalid row/column for exclusion matrix!");
+
+		// a 1 x n or n x 1 matrix has nothing left once a row and column are
+		// removed
+		if (rows == 1 || columns == 1)
+			throw new IllegalArgumentException("Cannot have a 0xn or nx0 matrix!");
+
+		return new Exclusion<>(this, rowExclude, columnExclude);
+	}
+
+	/**
+	 * returns the ith row of the view
+	 *
+	 * @param i
+	 *            row to return
+	 * @return ith row of the view null if out of bounds.
+	 */
+	public VectorView<R> getRow(int i) {
+		// check for out of bounds
+		if (i < 0 || i >= rows)
+			return null;
+
+		return new VectorView<R>(data[0], columns) {
+			@Override
+			R get(int index) {
+				return MatrixView.this.get(i, index);
+			}
+		};
+	}
+
+	/**
+	 * returns the ith column of the view
+	 *
+	 * @param i
+	 *            column to return
+	 * @return ith column of the view null if out of bounds.
+	 */
+	public VectorView<R> getColumn(int i) {
+		// check for out of bounds
+		if (i < 0 || i >= columns)
+			return null;
+
+		return new VectorView<R>(data[0], rows) {
+			@Override
+			R get(int index) {
+				return MatrixView.this.get(index, i);
+			}
+		};
+	}
+
+	/**
+	 * copies the entries of the view into a new matrix.
+	 *
+	 * @return matrix with the same entries as the view
+	 */
+	public Matrix<R> materialize() {
+		R[][] results = MatrixMultiplication.emptyArray(data, rows, columns);
+		for (int i = 0; i < rows; i++) {
+			R[] row = results[i];
+			for (int j = 0; j < columns; j++) {
+				row[j] = get(i, j);
+			}
+		}
+		return new Matrix<>(results, rows, columns);
+	}
+
+	@Override
+	public String toString() {
+		return materialize().toString();
+	}
+
+	/**
+	 * rectangular window directly onto the storage of a matrix, this is also
+	 * what sub matrices of windows collapse into so they never nest.
+	 */
+	private static final class Window<R extends Ring<R>> extends MatrixView<R> {
+		private final int rowOffset;
+		private final int columnOffset;
+
+		private Window(R[][] data, int rows, int columns, int rowOffset, int columnOffset) {
+			super(data, rows, columns);
+			this.rowOffset = rowOffset;
+			this.columnOffset = columnOffset;
+		}
+
+		@Override
+		R get(int row, int column) {
+			return data[row + rowOffset][column + columnOffset];
+		}
+
+		@Override
+		public MatrixView<R> getSubMatrix(int rowStart, int columnStart, int rowEnd, int columnEnd) {
+			// check the bounds the same way as any other view
+			super.getSubMatrix(rowStart, columnStart, rowEnd, columnEnd);
+
+			// then shift the window instead of wrapping it
+			return new Window<>(data, rowEnd - rowStart, columnEnd - columnStart, rowOffset + rowStart,
+					columnOffset + columnStart);
+		}
+
+		@Override
+		public VectorView<R> getRow(int i) {
+			// check for out of bounds
+			if (i < 0 || i >= rows)
+				return null;
+
+			// rows of a window are just part of a row of the storage
+			R[] row = data[i + rowOffset];
+			return new VectorView<R>(data[0], columns) {
+				@Override
+				R get(int index) {
+					return row[index + columnOffset];
+				}
+			};
+		}
+	}
+
+	/**
+	 * view with the rows and columns of another view swapped.
+	 */
+	private static final class Transposed<R extends Ring<R>> extends MatrixView<R> {
+		private final MatrixView<R> parent;
+
+		private Transposed(MatrixView<R> parent) {
+			super(parent.data, parent.columns, parent.rows);
+			this.parent = parent;
+		}
+
+		@Override
+		R get(int row, int column) {
+			return parent.get(column, row);
+		}
+
+		@Override
+		public MatrixView<R> transpose() {
+			return parent;
+		}
+	}
+
+	/**
+	 * rectangular area of another view.
+	 */
+	private static final class Sub<R extends Ring<R>> extends MatrixView<R> {
+		private final MatrixView<R> parent;
+		private final int rowOffset;
+		private final int columnOffset;
+
+		private Sub(MatrixView<R> parent, int rowOffset, int columnOffset, int rows, int columns) {
+			super(parent.data, rows, columns);
+			this.parent = parent;
+			this.rowOffset = rowOffset;
+			this.columnOffset = columnOffset;
+		}
+
+		@Override
+		R get(int row, int column) {
+			return parent.get(row + rowOffset, column + columnOffset);
+		}
+	}
+
+	/**
+	 * another view with one row and one column skipped.
+	 */
+	private static final class Exclusion<R extends Ring<R>> extends MatrixView<R> {
+		private final MatrixView<R> parent;
+		private final int rowExclude;
+		private final int columnExclude;
+
+		private Exclusion(MatrixView<R> parent, int rowExclude, int columnExclude) {
+			super(parent.data, parent.rows - 1, parent.columns - 1);
+			this.parent = parent;
+			this.rowExclude = rowExclude;
+			this.columnExclude = columnExclude;
+		}
+
+		@Override
+		R get(int row, int column) {
+			return parent.get(row >= rowExclude ? row + 1 : row, column >= columnExclude ? column + 1 : column);
+		}
+	}
+}
@@ -10,6 +10,11 @@ public class NVector<R extends Ring<R>> extends Ring<NVector<R>> {
 
 	private final Class<?> clazz;
 
+	// lazily built zero and identity vectors, vectors are immutable so they
+	// can be handed out more than once
+	private NVector<R> zero = null;
+	private NVector<R> identity = null;
+
 	@SafeVarargs
 	public NVector(R... entries) {
 		// make sure the array isn't empty
@@ -27,17 +32,52 @@ public class NVector<R extends Ring<R>> extends Ring<NVector<R>> {
 	}
 
 	/**
-	 * private constructor so the arguments don't need to be checked.
+	 * package constructor so the arguments don't need to be checked, the
+	 * array is used directly and not copied.
 	 * 
 	 * @param entries
 	 * @param length
 	 */
-	private NVector(R[] entries, int length) {
+	NVector(R[] entries, int length) {
 		this.entries = entries;
 		this.length = length;
 		this.clazz = entries.getClass().getComponentType();
 	}
 
+	/**
+	 * returns the entry at the given index of the vector.
+	 * 
+	 * @param index
+	 *            index of the entry
+	 * @return entry at the index
+	 */
+	public R getEntry(int index) {
+		// check for out of bounds
+		if (index < 0 || index >= length)
+			throw new IllegalArgumentException("invalid index for vector entry!");
+
+		return entries[index];
+	}
+
+	/**
+	 * returns the length of the vector
+	 * 
+	 * @return length of the vector
+	 */
+	public int getLength() {
+		return length;
+	}
+
+	/**
+	 * gives other classes in the package direct access to the entries, the
+	 * array must not be modified.
+	 * 
+	 * @return entry array of the vector
+	 */
+	R[] entries() {
+		return entries;
+	}
+
 	@Override
 	public NVector<R> add(NVector<R> add) {
 
@@ -104,18 +144,26 @@ public class NVector<R extends Ring<R>> extends Ring<NVector<R>> {
 
 	@Override
 	public NVector<R> ZERO() {
-		// returns vector of the same length filled with the zero element
-		R[] copy = Arrays.copyOf(entries, length);
-		Arrays.fill(copy, copy[0].ZERO());
-		return new NVector<>(copy, length);
+		// returns vector of the same length filled with the shared zero
+		// element, only built the first time
+		if (zero == null) {
+			R[] copy = Arrays.copyOf(entries, length);
+			Arrays.fill(copy, copy[0].context().zero());
+			zero = new NVector<>(copy, length);
+		}
+		return zero;
 	}
 
 	@Override
 	public NVector<R> IDENTITY() {
-		// returns vector of the same length filled with the identity element
-		R[] copy = Arrays.copyOf(entries, length);
-		Arrays.fill(copy, copy[0].IDENTITY());
-		return new NVector<>(copy, length);
+		// returns vector of the same length filled with the shared identity
+		// element, only built the first time
+		if (identity == null) {
+			R[] copy = Arrays.copyOf(entries, length);
+			Arrays.fill(copy, copy[0].context().identity());
+			identity = new NVector<>(copy, length);
+		}
+		return identity;
 	}
 
 	@Override
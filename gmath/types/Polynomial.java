@@ -4,10 +4,44 @@ import java.util.Arrays;
 
 public class Polynomial<R extends Ring<R>> extends Ring<Polynomial<R>> {
 
+	/**
+	 * default number of coefficients at or below which a multiply uses the
+	 * classical algorithm instead of Karatsuba.
+	 */
+	public static final int DEFAULT_KARATSUBA_THRESHOLD = 32;
+
+	/**
+	 * default number of coefficients at or above which a multiply uses Toom-3
+	 * instead of Karatsuba.
+	 */
+	public static final int DEFAULT_TOOM_THRESHOLD = 256;
+
+	/**
+	 * default number of coefficients at or above which a multiply of
+	 * polynomials over a prime field uses the number theoretic transform.
+	 */
+	public static final int DEFAULT_NTT_THRESHOLD = 64;
+
+	/**
+	 * default number of coefficients at or above which a multiply of
+	 * polynomials over the real or complex numbers uses the fast fourier
+	 * transform.
+	 */
+	public static final int DEFAULT_FFT_THRESHOLD = 64;
+
 	private final R[] coefficients;
 
 	private final Class<?> clazz;
 
+	// zero and identity of the coefficients, looked up once and passed on to
+	// every polynomial built from this one
+	private final RingContext<R> context;
+
+	// lazily built zero and identity polynomials, polynomials are immutable
+	// so they can be handed out more than once
+	private Polynomial<R> zero = null;
+	private Polynomial<R> identity = null;
+
 	@SafeVarargs
 	public Polynomial(R... coefficients) {
 		super();
@@ -16,26 +50,36 @@ public class Polynomial<R extends Ring<R>> extends Ring<Polynomial<R>> {
 		} else {
 			this.coefficients = coefficients;
 			clazz = coefficients.getClass().getComponentType();
+			context = coefficients[0].context();
 		}
 	}
 
 	public Polynomial(Polynomial<R> polynomial) {
 		this.coefficients = polynomial.coefficients;
 		this.clazz = polynomial.clazz;
+		this.context = polynomial.context;
 	}
 
-	@SafeVarargs
-	private Polynomial(Class<?> clazz, R... coefficients) {
+	private Polynomial(Class<?> clazz, RingContext<R> context, R[] coefficients) {
 		this.coefficients = coefficients;
 		this.clazz = clazz;
+		this.context = context;
+	}
+
+	/**
+	 * builds a polynomial of the same type as this one from the given
+	 * coefficients, the context is shared instead of looked up again.
+	 */
+	private Polynomial<R> create(R[] coefficients) {
+		return new Polynomial<>(clazz, context, coefficients);
 	}
 
 	@Override
 	public Polynomial<R> add(Polynomial<R> add) {
 		// check for zero
-		if (this.coefficients.equals(this.ZERO()))
+		if (this.isZero())
 			return add;
-		if (add.coefficients.equals(this.ZERO()))
+		if (add.isZero())
 			return this;
 		// add each term and then remove any leading zeros
 		R[] results;
@@ -69,65 +113,124 @@ public class Polynomial<R extends Ring<R>> extends Ring<Polynomial<R>> {
 			}
 		}
 
-		// remove zeros in the front of the polynomial
-		while (results.length > 0 && results[0].equals(results[0].ZERO())) {
-			results = Arrays.copyOfRange(results, 1, results.length);
+		// count the zeros in the front of the polynomial
+		int leading = 0;
+		while (leading < results.length && context.isZero(results[leading])) {
+			leading++;
 		}
 
 		// if no length return the zero polynomial
-		if (results.length == 0) {
+		if (leading == results.length) {
 			return this.ZERO();
 		}
 
-		return new Polynomial<>(results);
+		// remove them with a single copy
+		if (leading > 0) {
+			results = Arrays.copyOfRange(results, leading, results.length);
+		}
+
+		return create(results);
 	}
 
+	/**
+	 * multiplies the current polynomial by mult. The kernel is picked by
+	 * {@link gmath.types.Ring#convolve(Ring[], Ring[]) convolve} on the zero
+	 * of the coefficients, which goes through
+	 * {@link #multiply(Polynomial, int, int)} with the default thresholds
+	 * unless the ring overrides it. Polynomials over a
+	 * {@link gmath.types.finitefields.PrimeField PrimeField} where both have at
+	 * least {@link #DEFAULT_NTT_THRESHOLD} coefficients are multiplied with the
+	 * {@link gmath.numbertheory.NumberTheoreticTransform number theoretic
+	 * transform}. Polynomials over {@link gmath.types.RealNumber RealNumber}
+	 * or {@link gmath.types.ComplexNumber ComplexNumber} where both have at
+	 * least {@link #DEFAULT_FFT_THRESHOLD} coefficients use the
+	 * {@link gmath.types.FFT fast fourier transform}, which is only accurate to
+	 * rounding.
+	 * 
+	 * @param mult
+	 *            polynomial to multiply by
+	 * @return product of the two polynomials
+	 */
 	@Override
 	public Polynomial<R> multiply(Polynomial<R> mult) {
+		if (this.isZero() || mult.isZero())
+			return this.ZERO();
+
+		return trim(PolynomialMultiplication.convolve(this.coefficients, mult.coefficients, context));
+	}
+
+	/**
+	 * multiplies the current polynomial by mult working directly on the
+	 * coefficient arrays. Products where the smaller polynomial has at most
+	 * karatsubaThreshold coefficients are done the classical way, larger ones
+	 * use Karatsuba's algorithm and once the halves reach toomThreshold
+	 * coefficients Toom-3 takes over. Toom-3 divides by 2 and 3 so it is only
+	 * used for fields and rings with {@link gmath.types.ExactDivision exact
+	 * division} where those aren't zero, other rings stay with Karatsuba.
+	 * 
+	 * @param mult
+	 *            polynomial to multiply by
+	 * @param karatsubaThreshold
+	 *            number of coefficients at or below which the classical
+	 *            algorithm is used
+	 * @param toomThreshold
+	 *            number of coefficients at or above which Toom-3 is used
+	 * @return product of the two polynomials
+	 */
+	public Polynomial<R> multiply(Polynomial<R> mult, int karatsubaThreshold, int toomThreshold) {
+		// the recursion needs to be able to split the coefficients
+		if (karatsubaThreshold < 1)
+			throw new IllegalArgumentException("The Karatsuba threshold must be at least 1!");
+		if (toomThreshold < 3)
+			throw new IllegalArgumentException("The Toom-3 threshold must be at least 3!");
+
 		// if either are zero return zero
-		if (this.equals(this.ZERO()) || mult.equals(mult.ZERO()))
+		if (this.isZero() || mult.isZero())
 			return this.ZERO();
 
-		// loop through each term in mult and multiply individually then add to
-		// a results polynomial
-		Polynomial<R> results = mult.ZERO();
+		return trim(PolynomialMultiplication.multiply(this.coefficients, mult.coefficients, context,
+				karatsubaThreshold, toomThreshold));
+	}
 
-		for (int i = 0; i < mult.coefficients.length; i++) {
+	/**
+	 * builds a polynomial of the same type from coefficients starting with
+	 * the leading one, any leading zeros are dropped and an empty array is
+	 * zero. The array is used directly and not copied.
+	 */
+	Polynomial<R> trim(R[] results) {
+		if (results.length == 0)
+			return this.ZERO();
 
-			// if the current coefficient isn't zero multiply this by term and
-			// add to the results
-			if (!mult.coefficients[i].equals(mult.coefficients[i].ZERO())) {
-				results = results
-						.add(this.scale(mult.coefficients[i]).multiplyByPower(mult.coefficients.length - i - 1));
-			}
+		int leading = 0;
+		while (leading < results.length - 1 && context.isZero(results[leading])) {
+			leading++;
 		}
+		if (leading > 0)
+			results = Arrays.copyOfRange(results, leading, results.length);
 
-		// return the added results
-		return results;
+		return create(results);
 	}
 
 	public Polynomial<R> multiplyByPower(int power) {
 		// check for zero
-		if (this.equals(this.ZERO()))
-			return this.ZERO();
+		if (this.isZero())
+			return this;
 
 		// move the coefficients over by power
 		R[] results = Arrays.copyOf(this.coefficients, power + coefficients.length);
 
-		// get rid of all of the nulls
-		for (int i = 1; i < results.length; i++) {
-			if (results[i] == null) {
-				results[i] = results[0].ZERO();
-			}
-		}
+		// get rid of all of the nulls, a negative power drops the lowest terms
+		// instead so there are none
+		if (power > 0)
+			Arrays.fill(results, coefficients.length, results.length, context.zero());
 
-		return new Polynomial<R>(results);
+		return create(results);
 	}
 
 	@Override
 	public Polynomial<R> negate() {
 		// if zero return itself
-		if (this.equals(this.ZERO()))
+		if (this.isZero())
 			return this;
 
 		// negate each term.
@@ -135,12 +238,12 @@ public class Polynomial<R extends Ring<R>> extends Ring<Polynomial<R>> {
 		for (int i = 0; i < results.length; i++) {
 			results[i] = results[i].negate();
 		}
-		return new Polynomial<>(results);
+		return create(results);
 	}
 
 	public Polynomial<R> scale(R scalar) {
 		// if scalar is zero or this is zero return zero
-		if (scalar.equals(scalar.ZERO()) || this.equals(this.ZERO()))
+		if (context.isZero(scalar) || this.isZero())
 			return this.ZERO();
 
 		// multiply each term by the scalar
@@ -149,22 +252,59 @@ public class Polynomial<R extends Ring<R>> extends Ring<Polynomial<R>> {
 			results[i] = results[i].multiply(scalar);
 		}
 
-		return new Polynomial<>(results);
+		return create(results);
 	}
 
 	@Override
 	public Polynomial<R> ZERO() {
-		return new Polynomial<>(clazz, coefficients[0].ZERO());
+		// only build it the first time
+		if (zero == null) {
+			R[] results = Arrays.copyOf(coefficients, 1);
+			results[0] = context.zero();
+			zero = create(results);
+		}
+		return zero;
 	}
 
 	@Override
 	public Polynomial<R> IDENTITY() {
-		return new Polynomial<>(clazz, coefficients[0].IDENTITY());
+		// only build it the first time
+		if (identity == null) {
+			R[] results = Arrays.copyOf(coefficients, 1);
+			results[0] = context.identity();
+			identity = create(results);
+		}
+		return identity;
+	}
+
+	/**
+	 * returns the coefficients starting with the leading one, the array is
+	 * shared and must not be modified.
+	 */
+	R[] coefficients() {
+		return coefficients;
+	}
+
+	/**
+	 * returns the zero and identity of the coefficients.
+	 */
+	RingContext<R> coefficientContext() {
+		return context;
+	}
+
+	/**
+	 * checks if this is the zero polynomial without building a zero to
+	 * compare against.
+	 * 
+	 * @return true if the polynomial is zero
+	 */
+	public boolean isZero() {
+		return coefficients.length == 1 && context.isZero(coefficients[0]);
 	}
 
 	public int degree() {
 		// check for zero
-		if (this.equals(this.ZERO()))
+		if (this.isZero())
 			return -1;
 
 		return coefficients.length - 1;
@@ -191,7 +331,7 @@ public class Polynomial<R extends Ring<R>> extends Ring<Polynomial<R>> {
 
 		// use streams to reduce the coefficients using x value as the
 		// multiplier, this works since x ^ 2 + x + 1 = (1 * x + 1) * x + 1
-		R results = coefficients[0].ZERO();
+		R results = context.zero();
 
 		// loop through all of the elements and perform the appropriate
 		// operation
@@ -0,0 +1,337 @@
+package gmath.types;
+
+import java.lang.reflect.Array;
+import java.util.Arrays;
+
+/**
+ * util class holding the multiplication kernels used by the
+ * {@link gmath.types.Polynomial Polynomial} class. The kernels work directly
+ * on the coefficient arrays and only compute the convolution of the two
+ * arrays, so it doesn't matter which end holds the leading coefficient as long
+ * as both arrays agree.
+ *
+ * @author Gavin
+ *
+ */
+final class PolynomialMultiplication {
+	// make class non-instantiable
+	private PolynomialMultiplication() {}
+
+	/**
+	 * multiplies the coefficient arrays a and b with the fastest kernel for
+	 * the ring, the dispatch behind {@link Polynomial#multiply(Polynomial)}.
+	 * The choice is left to {@link Ring#convolve(Ring[], Ring[])} on the zero
+	 * of the coefficients, which is Karatsuba and Toom-3 unless the ring
+	 * overrides it with a transform.
+	 *
+	 * @param a
+	 *            coefficients of the left polynomial
+	 * @param b
+	 *            coefficients of the right polynomial
+	 * @param context
+	 *            zero and identity of the coefficients
+	 * @return a.length + b.length - 1 coefficients of the product
+	 */
+	static <R extends Ring<R>> R[] convolve(R[] a, R[] b, RingContext<R> context) {
+		R zero = context.zero();
+		R[] left = typed(a, zero.getClass());
+		R[] right = a == b ? left : typed(b, zero.getClass());
+		return zero.convolve(left, right);
+	}
+
+	/**
+	 * the arrays might be typed as a super class of the elements, overrides
+	 * of convolve take arrays of their own class so copy into one when every
+	 * element fits.
+	 */
+	@SuppressWarnings("unchecked")
+	private static <R extends Ring<R>> R[] typed(R[] x, Class<?> type) {
+		if (x.getClass().getComponentType() == type)
+			return x;
+		for (R value : x) {
+			if (!type.isInstance(value))
+				return x;
+		}
+		return (R[]) Arrays.copyOf(x, x.length, (Class<? extends Object[]>) Array.newInstance(type, 0).getClass());
+	}
+
+	/**
+	 * multiplies the coefficient arrays a and b. Products where the shorter
+	 * array has at most karatsubaThreshold coefficients use the schoolbook
+	 * kernel, longer ones use Karatsuba and once they reach toomThreshold
+	 * coefficients Toom-3 if the ring can divide by 2 and 3. Arrays of very
+	 * different lengths are cut into pieces the length of the shorter one.
+	 *
+	 * @param a
+	 *            coefficients of the left polynomial
+	 * @param b
+	 *            coefficients of the right polynomial
+	 * @param context
+	 *            zero and identity of the coefficients
+	 * @param karatsubaThreshold
+	 *            length at or below which the schoolbook kernel is used
+	 * @param toomThreshold
+	 *            length at or above which Toom-3 is used
+	 * @return a.length + b.length - 1 coefficients of the product
+	 */
+	static <R extends Ring<R>> R[] multiply(R[] a, R[] b, RingContext<R> context, int karatsubaThreshold,
+			int toomThreshold) {
+		// make a the longer of the two
+		if (a.length < b.length) {
+			R[] temp = a;
+			a = b;
+			b = temp;
+		}
+
+		int length = a.length + b.length - 1;
+		if (b.length <= karatsubaThreshold)
+			return schoolbook(a, b, context);
+
+		Toom<R> toom = Toom.of(context);
+		if (toom == null)
+			toomThreshold = java.lang.Integer.MAX_VALUE;
+
+		// balanced products can go straight to the recursion
+		if (2 * b.length > a.length)
+			return Arrays.copyOf(balanced(a, pad(b, a.length, context), a.length, context, toom, karatsubaThreshold,
+					toomThreshold), length);
+
+		// otherwise multiply b by each piece of a and add them up
+		R[] results = zeros(a, length, context);
+		int n = b.length;
+		R[] piece = Arrays.copyOf(a, n);
+		for (int start = 0; start < a.length; start += n) {
+			int size = Math.min(n, a.length - start);
+			System.arraycopy(a, start, piece, 0, size);
+			Arrays.fill(piece, size, n, context.zero());
+			R[] product = balanced(piece, b, n, context, toom, karatsubaThreshold, toomThreshold);
+			addInto(results, product, start);
+		}
+		return results;
+	}
+
+	/**
+	 * multiplies the coefficient arrays a and b the classical way, summing
+	 * each product straight into the result so nothing is allocated besides
+	 * the coefficients themselves.
+	 */
+	static <R extends Ring<R>> R[] schoolbook(R[] a, R[] b, RingContext<R> context) {
+		R[] results = zeros(a, a.length + b.length - 1, context);
+		for (int i = 0; i < a.length; i++) {
+			R value = a[i];
+			if (context.isZero(value))
+				continue;
+			for (int j = 0; j < b.length; j++) {
+				results[i + j] = results[i + j].add(value.multiply(b[j]));
+			}
+		}
+		return results;
+	}
+
+	/**
+	 * multiplies two arrays of length n, returns 2n - 1 coefficients.
+	 */
+	private static <R extends Ring<R>> R[] balanced(R[] a, R[] b, int n, RingContext<R> context, Toom<R> toom,
+			int karatsubaThreshold, int toomThreshold) {
+		if (n <= karatsubaThreshold)
+			return schoolbook(a, b, context);
+		if (n >= toomThreshold)
+			return toom3(a, b, n, context, toom, karatsubaThreshold, toomThreshold);
+		return karatsuba(a, b, n, context, toom, karatsubaThreshold, toomThreshold);
+	}
+
+	/**
+	 * Karatsuba's algorithm, splits both arrays in half and gets the product
+	 * from the 3 half sized products a0 b0, a1 b1 and (a0 + a1)(b0 + b1). The
+	 * upper halves are padded with zeros when n is odd.
+	 */
+	private static <R extends Ring<R>> R[] karatsuba(R[] a, R[] b, int n, RingContext<R> context, Toom<R> toom,
+			int karatsubaThreshold, int toomThreshold) {
+		int h = (n + 1) / 2;
+		R[] a0 = Arrays.copyOf(a, h);
+		R[] b0 = Arrays.copyOf(b, h);
+		R[] a1 = slice(a, h, h, context);
+		R[] b1 = slice(b, h, h, context);
+
+		R[] z0 = balanced(a0, b0, h, context, toom, karatsubaThreshold, toomThreshold);
+		R[] z2 = balanced(a1, b1, h, context, toom, karatsubaThreshold, toomThreshold);
+
+		// the sums can be built in place of the halves, they aren't needed
+		// anymore
+		for (int i = 0; i < h; i++) {
+			a0[i] = a0[i].add(a1[i]);
+			b0[i] = b0[i].add(b1[i]);
+		}
+		R[] z1 = balanced(a0, b0, h, context, toom, karatsubaThreshold, toomThreshold);
+		for (int i = 0; i < z1.length; i++) {
+			z1[i] = z1[i].subtract(z0[i]).subtract(z2[i]);
+		}
+
+		R[] results = zeros(a, 2 * n - 1, context);
+		addInto(results, z0, 0);
+		addInto(results, z1, h);
+		addInto(results, z2, 2 * h);
+		return results;
+	}
+
+	/**
+	 * Toom-3, splits both arrays in thirds, evaluates them at 0, 1, -1, -2
+	 * and infinity and interpolates the 5 products with Bodrato's sequence.
+	 * The interpolation divides exactly by 2 and 3.
+	 */
+	private static <R extends Ring<R>> R[] toom3(R[] a, R[] b, int n, RingContext<R> context, Toom<R> toom,
+			int karatsubaThreshold, int toomThreshold) {
+		int k = (n + 2) / 3;
+
+		R[][] left = evaluate(a, k, context);
+		R[][] right = evaluate(b, k, context);
+		R[] r0 = balanced(left[0], right[0], k, context, toom, karatsubaThreshold, toomThreshold);
+		R[] r1 = balanced(left[1], right[1], k, context, toom, karatsubaThreshold, toomThreshold);
+		R[] rm1 = balanced(left[2], right[2], k, context, toom, karatsubaThreshold, toomThreshold);
+		R[] rm2 = balanced(left[3], right[3], k, context, toom, karatsubaThreshold, toomThreshold);
+		R[] rinf = balanced(left[4], right[4], k, context, toom, karatsubaThreshold, toomThreshold);
+
+		// bodrato's interpolation, r1 and rm2 are overwritten with the
+		// coefficients of x^1 and x^3 and rm1 with x^2
+		for (int i = 0; i < r0.length; i++) {
+			R r3 = toom.third(rm2[i].subtract(r1[i]));
+			R c1 = toom.half(r1[i].subtract(rm1[i]));
+			R c2 = rm1[i].subtract(r0[i]);
+			r3 = toom.half(c2.subtract(r3)).add(rinf[i].add(rinf[i]));
+			rm1[i] = c2.add(c1).subtract(rinf[i]);
+			r1[i] = c1.subtract(r3);
+			rm2[i] = r3;
+		}
+
+		R[] results = zeros(a, 2 * n - 1, context);
+		addInto(results, r0, 0);
+		addInto(results, r1, k);
+		addInto(results, rm1, 2 * k);
+		addInto(results, rm2, 3 * k);
+		addInto(results, rinf, 4 * k);
+		return results;
+	}
+
+	/**
+	 * splits x into thirds of length k and returns the values of x0 + x1 t +
+	 * x2 t^2 at t = 0, 1, -1, -2 and infinity.
+	 */
+	private static <R extends Ring<R>> R[][] evaluate(R[] x, int k, RingContext<R> context) {
+		R[] x0 = Arrays.copyOf(x, k);
+		R[] x1 = slice(x, k, k, context);
+		R[] x2 = slice(x, 2 * k, k, context);
+
+		R[] one = Arrays.copyOf(x0, k);
+		R[] minusOne = Arrays.copyOf(x0, k);
+		R[] minusTwo = Arrays.copyOf(x0, k);
+		for (int i = 0; i < k; i++) {
+			R p = x0[i].add(x2[i]);
+			one[i] = p.add(x1[i]);
+			minusOne[i] = p.subtract(x1[i]);
+			R twice = minusOne[i].add(x2[i]);
+			minusTwo[i] = twice.add(twice).subtract(x0[i]);
+		}
+
+		@SuppressWarnings("unchecked")
+		R[][] results = (R[][]) Array.newInstance(x.getClass(), 5);
+		results[0] = x0;
+		results[1] = one;
+		results[2] = minusOne;
+		results[3] = minusTwo;
+		results[4] = x2;
+		return results;
+	}
+
+	/**
+	 * copies length coefficients of x starting at from, padding with zeros
+	 * past the end of x.
+	 */
+	private static <R extends Ring<R>> R[] slice(R[] x, int from, int length, RingContext<R> context) {
+		R[] results = Arrays.copyOfRange(x, Math.min(from, x.length), Math.min(from, x.length) + length);
+		int available = Math.max(0, Math.min(length, x.length - from));
+		Arrays.fill(results, available, length, context.zero());
+		return results;
+	}
+
+	/**
+	 * copies x into an array of the given length padded with zeros.
+	 */
+	private static <R extends Ring<R>> R[] pad(R[] x, int length, RingContext<R> context) {
+		R[] results = Arrays.copyOf(x, length);
+		Arrays.fill(results, x.length, length, context.zero());
+		return results;
+	}
+
+	/**
+	 * array of the same type as the given one filled with zero.
+	 */
+	private static <R extends Ring<R>> R[] zeros(R[] type, int length, RingContext<R> context) {
+		R[] results = Arrays.copyOf(type, length);
+		Arrays.fill(results, context.zero());
+		return results;
+	}
+
+	/**
+	 * adds x into results starting at offset, anything past the end of
+	 * results is padding and has to be zero.
+	 */
+	private static <R extends Ring<R>> void addInto(R[] results, R[] x, int offset) {
+		int end = Math.min(x.length, results.length - offset);
+		for (int i = 0; i < end; i++) {
+			results[offset + i] = results[offset + i].add(x[i]);
+		}
+	}
+
+	/**
+	 * exact division by 2 and 3 for the Toom-3 interpolation, fields multiply
+	 * by the inverses and rings with exact division divide directly.
+	 *
+	 * @author Gavin
+	 *
+	 */
+	private static final class Toom<R extends Ring<R>> {
+		private final R two;
+		private final R three;
+		private final boolean field;
+
+		private Toom(R two, R three, boolean field) {
+			this.two = two;
+			this.three = three;
+			this.field = field;
+		}
+
+		/**
+		 * returns the division for the ring or null if it can't divide by 2
+		 * and 3.
+		 */
+		private static <R extends Ring<R>> Toom<R> of(RingContext<R> context) {
+			R one = context.identity();
+			R two = one.add(one);
+			R three = two.add(one);
+
+			// characteristic 2 or 3 can't divide by both
+			if (context.isZero(two) || context.isZero(three))
+				return null;
+			if (one instanceof Field)
+				return new Toom<>(Determinants.invert(two), Determinants.invert(three), true);
+			if (one instanceof ExactDivision)
+				return new Toom<>(two, three, false);
+			return null;
+		}
+
+		private R half(R value) {
+			return divide(value, two);
+		}
+
+		private R third(R value) {
+			return divide(value, three);
+		}
+
+		@SuppressWarnings({ "unchecked", "rawtypes" })
+		private R divide(R value, R divisor) {
+			if (field)
+				return value.multiply(divisor);
+			return (R) ((ExactDivision) value).divideExact((ExactDivision) divisor);
+		}
+	}
+}
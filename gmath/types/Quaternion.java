@@ -1,6 +1,8 @@
 package gmath.types;
 
 public class Quaternion extends Field<Quaternion> {
+	private static final RingContext<Quaternion> CONTEXT = new RingContext<>(new Quaternion(0, 0, 0, 0),
+			new Quaternion(1, 0, 0, 0));
 	private final double real;
 	private final double i;
 	private final double j;
@@ -37,7 +39,12 @@ public class Quaternion extends Field<Quaternion> {
 
 	@Override
 	public Quaternion IDENTITY() {
-		return new Quaternion(1, 0, 0, 0);
+		return CONTEXT.identity();
+	}
+
+	@Override
+	public RingContext<Quaternion> context() {
+		return CONTEXT;
 	}
 
 	@Override
@@ -76,7 +83,7 @@ public class Quaternion extends Field<Quaternion> {
 
 	@Override
 	public Quaternion ZERO() {
-		return new Quaternion(0, 0, 0, 0);
+		return CONTEXT.zero();
 	}
 
 	@Override
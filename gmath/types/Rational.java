@@ -1,6 +1,7 @@
 package gmath.types;
 
 public class Rational extends OrderedField<Rational>{
+	private static final RingContext<Rational> CONTEXT = new RingContext<>(new Rational(0, 1), new Rational(1, 1));
 	private final int numerator;
 	private final int denominator;
 	public Rational(int numerator, int denomenator) {
@@ -36,11 +37,15 @@ public class Rational extends OrderedField<Rational>{
 	}
 	@Override
 	public Rational IDENTITY() {
-		return new Rational(1, 1);
+		return CONTEXT.identity();
+	}
+	@Override
+	public RingContext<Rational> context() {
+		return CONTEXT;
 	}
 	@Override
 	public Rational ZERO() {
-		return new Rational(0, 1);
+		return CONTEXT.zero();
 	}
 	@Override
 	public boolean equals(Rational compare) {
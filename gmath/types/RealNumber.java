@@ -1,6 +1,7 @@
 package gmath.types;
 
 public class RealNumber extends OrderedField<RealNumber>{
+	private static final RingContext<RealNumber> CONTEXT = new RingContext<>(new RealNumber(0), new RealNumber(1));
 	private final double value;
 	public RealNumber(double value) {
 		super(RealNumber.class);
@@ -23,7 +24,42 @@ public class RealNumber extends OrderedField<RealNumber>{
 
 	@Override
 	public RealNumber IDENTITY() {
-		return new RealNumber(1);
+		return CONTEXT.identity();
+	}
+
+	@Override
+	public RingContext<RealNumber> context() {
+		return CONTEXT;
+	}
+
+	/**
+	 * multiplies the polynomials with the {@link gmath.types.FFT fast fourier
+	 * transform} once both have at least
+	 * {@link gmath.types.Polynomial#DEFAULT_FFT_THRESHOLD} coefficients, the
+	 * product is only accurate to rounding.
+	 */
+	@Override
+	public RealNumber[] convolve(RealNumber[] a, RealNumber[] b) {
+		if (Math.min(a.length, b.length) < Polynomial.DEFAULT_FFT_THRESHOLD)
+			return super.convolve(a, b);
+
+		double[] product = FFT.convolve(values(a), a == b ? values(a) : values(b));
+		RealNumber[] results = new RealNumber[product.length];
+		for (int i = 0; i < product.length; i++) {
+			results[i] = new RealNumber(product[i]);
+		}
+		return results;
+	}
+
+	/**
+	 * values of an array of real numbers.
+	 */
+	private static double[] values(RealNumber[] x) {
+		double[] results = new double[x.length];
+		for (int i = 0; i < x.length; i++) {
+			results[i] = x[i].getValue();
+		}
+		return results;
 	}
 
 	@Override
@@ -43,7 +79,7 @@ public class RealNumber extends OrderedField<RealNumber>{
 
 	@Override
 	public RealNumber ZERO() {
-		return new RealNumber(0);
+		return CONTEXT.zero();
 	}
 	public double getValue() {
 		return this.value;
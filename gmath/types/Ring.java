@@ -28,8 +28,9 @@ public abstract class Ring<R extends Ring<R>> {
 
 	/**
 	 * scales the current ring number by the given number by repeated addition
-	 * with fast multiplication method. This method can be overriden to add
-	 * faster operations
+	 * with fast multiplication method, the bits of the scalar are read directly
+	 * so nothing is allocated besides the sums. A negative scalar scales the
+	 * negation. This method can be overriden to add faster operations
 	 * 
 	 * @param scalar
 	 *            number to scale by
@@ -37,66 +38,83 @@ public abstract class Ring<R extends Ring<R>> {
 	 */
 	@SuppressWarnings("unchecked")
 	public R scale(int scalar) {
-		// make two copies of the original.
-		R num = (R) this;
-		R original = num;
-
-		// get the binary representation of the power to know when to add and
-		// when to multiply.
-		String binaryTimes = java.lang.Integer.toBinaryString(scalar);
-		binaryTimes = binaryTimes.substring(1, binaryTimes.length());
-
-		// each time multiply the previous number by 2, if there is a 1 also add
-		// the original to it.
-		for (char c : binaryTimes.toCharArray()) {
-			num = num.add(num);
-			switch (c) {
-			case '1':
-				num = num.add(original);
-			}
-		}
+		// scale the negation for negative numbers, widened so the minimum
+		// integer can be negated
+		if (scalar < 0)
+			return Exponentiation.scale(this.negate(), -(long) scalar);
 
-		// return the resulting computation
-		return num;
+		return Exponentiation.scale((R) this, scalar);
+	}
+
+	/**
+	 * multiplies two polynomials over this ring given by their coefficient
+	 * arrays, this is what {@link gmath.types.Polynomial#multiply(Polynomial)}
+	 * calls on the zero of the coefficients. Only the convolution of the
+	 * arrays is computed so it doesn't matter which end holds the leading
+	 * coefficient. By default it uses Karatsuba and Toom-3 with the default
+	 * thresholds, rings with a faster transform can override this.
+	 *
+	 * @param a
+	 *            coefficients of the first polynomial, at least one
+	 * @param b
+	 *            coefficients of the second polynomial, at least one
+	 * @return a.length + b.length - 1 coefficients of the product
+	 */
+	public R[] convolve(R[] a, R[] b) {
+		return PolynomialMultiplication.multiply(a, b, context(), Polynomial.DEFAULT_KARATSUBA_THRESHOLD,
+				Polynomial.DEFAULT_TOOM_THRESHOLD);
 	}
 
 	/**
 	 * raises the current ring number to the given scalar power by repeated
-	 * multiplication using fast exponentiation.
+	 * multiplication using fast exponentiation. Any number to the power 0 is
+	 * the identity.
 	 * 
-	 * @param bigInteger
-	 *            power to raise current number to
+	 * @param power
+	 *            power to raise current number to, must not be negative
 	 * @return
 	 */
 	@SuppressWarnings("unchecked")
-	public final R pow(int bigInteger) {
-		// make two copies of the current number, one for storing the results
-		// and the other for multiplying each time.
-		R copy = (R) this;
-		R original = copy;
-
-		// get the binary representation of the power to know when to multiply
-		// and when to square.
-		String binaryPower = java.lang.Integer.toBinaryString(bigInteger);
-		binaryPower = binaryPower.substring(1, binaryPower.length());
-
-		// each time square the previous number, if there is a 1 also
-		// re-multiply by the original
-		for (char c : binaryPower.toCharArray()) {
-			copy = copy.square();
-			switch (c) {
-			case '1':
-				copy = copy.multiply(original);
-			}
-		}
+	public final R pow(int power) {
+		return Exponentiation.pow((R) this, power);
+	}
+
+	/**
+	 * raises the current ring number to the given power using sliding window
+	 * exponentiation. For large powers this saves multiplications over
+	 * {@link #pow(int)} at the cost of precomputing 2^(window - 1) odd powers.
+	 * 
+	 * @param power
+	 *            power to raise current number to, must not be negative
+	 * @param window
+	 *            number of bits of the power to handle at once, between 1 and
+	 *            16
+	 * @return
+	 */
+	@SuppressWarnings("unchecked")
+	public final R pow(long power, int window) {
+		if (power < 0)
+			throw new IllegalArgumentException("power must not be negative!");
 
-		// return the results of the computation.
-		return copy;
+		return Exponentiation.slidingWindow((R) this, bit -> (power >>> bit & 1) != 0,
+				64 - Long.numberOfLeadingZeros(power), window, null);
 	}
 
 	public abstract R ZERO();
 	public abstract R IDENTITY();
 
+	/**
+	 * returns a context holding the zero and identity of this ring. Rings
+	 * whose zero and identity never change override this to return a shared
+	 * context, otherwise a new one is made so callers should look it up once
+	 * and hold on to it.
+	 * 
+	 * @return context of the ring this number belongs to
+	 */
+	public RingContext<R> context() {
+		return new RingContext<>(ZERO(), IDENTITY());
+	}
+
 	public abstract boolean equals(R compare);
 
 	@SuppressWarnings("unchecked")
@@ -0,0 +1,72 @@
+package gmath.types;
+
+/**
+ * holds the zero and identity of a ring so they can be shared instead of
+ * being allocated by every call to {@link gmath.types.Ring#ZERO() ZERO()} and
+ * {@link gmath.types.Ring#IDENTITY() IDENTITY()}. Ring elements are immutable
+ * so the same instances can be handed out to everyone. Get one from
+ * {@link gmath.types.Ring#context()}, containers like polynomials and matrices
+ * look it up once and reuse it for every element they hold.
+ *
+ * @author Gavin
+ *
+ */
+public final class RingContext<R extends Ring<R>> {
+
+	private final R zero;
+	private final R identity;
+
+	/**
+	 * creates a context from the zero and identity of a ring.
+	 *
+	 * @param zero
+	 *            additive identity
+	 * @param identity
+	 *            multiplicative identity
+	 */
+	public RingContext(R zero, R identity) {
+		this.zero = zero;
+		this.identity = identity;
+	}
+
+	/**
+	 * returns the shared zero of the ring.
+	 *
+	 * @return zero
+	 */
+	public R zero() {
+		return zero;
+	}
+
+	/**
+	 * returns the shared identity of the ring.
+	 *
+	 * @return identity
+	 */
+	public R identity() {
+		return identity;
+	}
+
+	/**
+	 * checks if the given element is the zero of the ring without allocating.
+	 *
+	 * @param element
+	 *            element to check
+	 * @return true if the element is zero
+	 */
+	public boolean isZero(R element) {
+		return element == zero || zero.equals(element);
+	}
+
+	/**
+	 * checks if the given element is the identity of the ring without
+	 * allocating.
+	 *
+	 * @param element
+	 *            element to check
+	 * @return true if the element is the identity
+	 */
+	public boolean isOne(R element) {
+		return element == identity || identity.equals(element);
+	}
+}
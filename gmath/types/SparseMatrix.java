@@ -0,0 +1,754 @@
+package gmath.types;
+
+import java.lang.reflect.Array;
+import java.util.Arrays;
+
+/**
+ * matrix over any ring that only stores its non zero entries. The entries
+ * are kept in compressed form either by rows (CSR) or by columns (CSC), each
+ * row (or column) has its stored entries sorted by column (or row) so both
+ * memory and the time for every operation are proportional to the number of
+ * non zero entries instead of the size of the matrix. Create one with a
+ * {@link gmath.types.SparseMatrix.Builder Builder} from coordinate triples or
+ * from a dense {@link gmath.types.Matrix Matrix}.
+ *
+ * @author Gavin
+ *
+ */
+public class SparseMatrix<R extends Ring<R>> extends Ring<SparseMatrix<R>> {
+
+	/**
+	 * the two ways the entries can be compressed.
+	 *
+	 * @author Gavin
+	 *
+	 */
+	public enum Layout {
+		/**
+		 * compressed sparse rows, fast access to a row and for multiplying on
+		 * the left.
+		 */
+		ROWS,
+		/**
+		 * compressed sparse columns, fast access to a column and for
+		 * multiplying on the right.
+		 */
+		COLUMNS
+	}
+
+	private final Layout layout;
+
+	private final int rows;
+	private final int columns;
+
+	// entries of the ith row (or column) are stored from pointers[i] up to
+	// pointers[i + 1], indices holds the column (or row) of each entry.
+	private final int[] pointers;
+	private final int[] indices;
+	private final R[] values;
+
+	// zero element of the ring, needed since a matrix might not store any
+	// entries.
+	private final R zero;
+
+	/**
+	 * creates a sparse matrix holding the non zero entries of the given dense
+	 * matrix.
+	 *
+	 * @param matrix
+	 *            matrix to copy
+	 * @param layout
+	 *            layout to store the entries in
+	 */
+	public SparseMatrix(Matrix<R> matrix, Layout layout) {
+		this(fromDense(matrix).toLayout(layout));
+	}
+
+	/**
+	 * private copy constructor used to let the dense constructor delegate.
+	 */
+	private SparseMatrix(SparseMatrix<R> copy) {
+		this(copy.layout, copy.rows, copy.columns, copy.pointers, copy.indices, copy.values, copy.zero);
+	}
+
+	/**
+	 * private constructor so the arguments don't need to be checked, none of
+	 * the arrays are copied.
+	 */
+	private SparseMatrix(Layout layout, int rows, int columns, int[] pointers, int[] indices, R[] values, R zero) {
+		this.layout = layout;
+		this.rows = rows;
+		this.columns = columns;
+		this.pointers = pointers;
+		this.indices = indices;
+		this.values = values;
+		this.zero = zero;
+	}
+
+	/**
+	 * creates a builder for a sparse matrix of the given dimension.
+	 *
+	 * @param rows
+	 *            rows of the matrix
+	 * @param columns
+	 *            columns of the matrix
+	 * @param zero
+	 *            zero element of the ring the entries are in
+	 * @return empty builder
+	 */
+	public static <R extends Ring<R>> Builder<R> builder(int rows, int columns, R zero) {
+		return new Builder<>(rows, columns, zero);
+	}
+
+	/**
+	 * builds the row compressed form of a dense matrix.
+	 */
+	private static <R extends Ring<R>> SparseMatrix<R> fromDense(Matrix<R> matrix) {
+		R[][] entries = matrix.entries();
+		int rows = matrix.getRowCount();
+		int columns = matrix.getColumnCount();
+		R zero = entries[0][0].ZERO();
+
+		// count the non zero entries so the arrays can be sized exactly
+		int count = 0;
+		for (R[] row : entries) {
+			for (R entry : row) {
+				if (!entry.equals(zero))
+					count++;
+			}
+		}
+
+		int[] pointers = new int[rows + 1];
+		int[] indices = new int[count];
+		R[] values = newArray(zero, count);
+
+		// copy the non zero entries row by row
+		int position = 0;
+		for (int i = 0; i < rows; i++) {
+			for (int j = 0; j < columns; j++) {
+				if (!entries[i][j].equals(zero)) {
+					indices[position] = j;
+					values[position] = entries[i][j];
+					position++;
+				}
+			}
+			pointers[i + 1] = position;
+		}
+
+		return new SparseMatrix<>(Layout.ROWS, rows, columns, pointers, indices, values, zero);
+	}
+
+	/**
+	 * returns the matrix stored in the given layout, if it is already stored
+	 * that way the same matrix is returned. Converting takes time proportional
+	 * to the number of non zero entries plus the dimension.
+	 *
+	 * @param layout
+	 *            layout to convert to
+	 * @return matrix stored in the layout
+	 */
+	public SparseMatrix<R> toLayout(Layout layout) {
+		if (this.layout == layout)
+			return this;
+
+		// converting between layouts is the same as transposing the
+		// compressed arrays.
+		int major = layout == Layout.ROWS ? rows : columns;
+		int minor = layout == Layout.ROWS ? columns : rows;
+		int count = values.length;
+
+		// count how many entries land in each new major index
+		int[] newPointers = new int[major + 1];
+		for (int p = 0; p < count; p++) {
+			newPointers[indices[p] + 1]++;
+		}
+		for (int i = 0; i < major; i++) {
+			newPointers[i + 1] += newPointers[i];
+		}
+
+		// walking the old major indices in order keeps the new minor indices
+		// sorted
+		int[] next = Arrays.copyOf(newPointers, major);
+		int[] newIndices = new int[count];
+		R[] newValues = newArray(zero, count);
+		for (int i = 0; i < minor; i++) {
+			for (int p = pointers[i]; p < pointers[i + 1]; p++) {
+				int position = next[indices[p]]++;
+				newIndices[position] = i;
+				newValues[position] = values[p];
+			}
+		}
+
+		return new SparseMatrix<>(layout, rows, columns, newPointers, newIndices, newValues, zero);
+	}
+
+	/**
+	 * transposes the matrix, this takes constant time since a row compressed
+	 * matrix read by columns is its transpose.
+	 *
+	 * @return transposed matrix
+	 */
+	public SparseMatrix<R> transpose() {
+		Layout swapped = layout == Layout.ROWS ? Layout.COLUMNS : Layout.ROWS;
+		return new SparseMatrix<>(swapped, columns, rows, pointers, indices, values, zero);
+	}
+
+	@Override
+	public SparseMatrix<R> add(SparseMatrix<R> add) {
+		// make sure the number of rows and columns match up
+		if (!(this.columns == add.columns && this.rows == add.rows))
+			throw new IllegalArgumentException("You can only add two matricies if they have the same dimension!");
+
+		SparseMatrix<R> left = this.toLayout(Layout.ROWS);
+		SparseMatrix<R> right = add.toLayout(Layout.ROWS);
+
+		int[] pointers = new int[rows + 1];
+		int[] indices = new int[left.values.length + right.values.length];
+		R[] values = newArray(zero, indices.length);
+		int position = 0;
+
+		// merge the sorted rows of both matrices
+		for (int i = 0; i < rows; i++) {
+			int p = left.pointers[i];
+			int q = right.pointers[i];
+			int pEnd = left.pointers[i + 1];
+			int qEnd = right.pointers[i + 1];
+
+			while (p < pEnd || q < qEnd) {
+				int column;
+				R value;
+				if (q >= qEnd || (p < pEnd && left.indices[p] < right.indices[q])) {
+					column = left.indices[p];
+					value = left.values[p++];
+				} else if (p >= pEnd || right.indices[q] < left.indices[p]) {
+					column = right.indices[q];
+					value = right.values[q++];
+				} else {
+					column = left.indices[p];
+					value = left.values[p++].add(right.values[q++]);
+				}
+
+				// entries that cancel out aren't stored
+				if (!value.equals(zero)) {
+					indices[position] = column;
+					values[position] = value;
+					position++;
+				}
+			}
+			pointers[i + 1] = position;
+		}
+
+		return new SparseMatrix<>(Layout.ROWS, rows, columns, pointers, Arrays.copyOf(indices, position),
+				Arrays.copyOf(values, position), zero);
+	}
+
+	/**
+	 * multiplies two sparse matrices with Gustavson's algorithm, each row of
+	 * the product is accumulated from the rows of mult picked out by the non
+	 * zero entries of the row of this matrix. Takes time proportional to the
+	 * number of entry multiplications that aren't trivially zero.
+	 */
+	@Override
+	public SparseMatrix<R> multiply(SparseMatrix<R> mult) {
+		// make sure the dimensions of the matrices are compatible for
+		// multiplication.
+		if (this.columns != mult.rows)
+			throw new IllegalArgumentException("You can only multiply an n x r matrix by an r x m matrix!");
+
+		SparseMatrix<R> left = this.toLayout(Layout.ROWS);
+		SparseMatrix<R> right = mult.toLayout(Layout.ROWS);
+		int resultColumns = mult.columns;
+
+		// dense accumulator for the current row and a marker recording which
+		// row last touched each column.
+		R[] accumulator = newArray(zero, resultColumns);
+		int[] marker = new int[resultColumns];
+		Arrays.fill(marker, -1);
+		int[] pattern = new int[resultColumns];
+
+		int[] pointers = new int[rows + 1];
+		int[] indices = new int[Math.max(16, left.values.length + right.values.length)];
+		R[] values = newArray(zero, indices.length);
+		int position = 0;
+
+		for (int i = 0; i < rows; i++) {
+			int count = 0;
+
+			// add each non zero entry times its row of mult into the
+			// accumulator
+			for (int p = left.pointers[i]; p < left.pointers[i + 1]; p++) {
+				int k = left.indices[p];
+				R value = left.values[p];
+				for (int q = right.pointers[k]; q < right.pointers[k + 1]; q++) {
+					int j = right.indices[q];
+					R product = value.multiply(right.values[q]);
+					if (marker[j] != i) {
+						marker[j] = i;
+						accumulator[j] = product;
+						pattern[count++] = j;
+					} else {
+						accumulator[j] = accumulator[j].add(product);
+					}
+				}
+			}
+
+			// make sure there is room for the row
+			if (position + count > indices.length) {
+				int size = Math.max(indices.length * 2, position + count);
+				indices = Arrays.copyOf(indices, size);
+				values = Arrays.copyOf(values, size);
+			}
+
+			// store the row sorted by column without any cancelled entries
+			Arrays.sort(pattern, 0, count);
+			for (int c = 0; c < count; c++) {
+				int j = pattern[c];
+				if (!accumulator[j].equals(zero)) {
+					indices[position] = j;
+					values[position] = accumulator[j];
+					position++;
+				}
+			}
+			pointers[i + 1] = position;
+		}
+
+		return new SparseMatrix<>(Layout.ROWS, rows, resultColumns, pointers, Arrays.copyOf(indices, position),
+				Arrays.copyOf(values, position), zero);
+	}
+
+	/**
+	 * multiplies the current sparse matrix on the left of a dense matrix,
+	 * each row of the product is the sum of the rows of mult picked out by
+	 * the non zero entries of the row of this matrix.
+	 *
+	 * @param mult
+	 *            dense matrix to multiply by
+	 * @return dense product of the two matrices
+	 */
+	public Matrix<R> multiply(Matrix<R> mult) {
+		// make sure the dimensions of the matrices are compatible for
+		// multiplication.
+		if (this.columns != mult.getRowCount())
+			throw new IllegalArgumentException("You can only multiply an n x r matrix by an r x m matrix!");
+
+		SparseMatrix<R> left = this.toLayout(Layout.ROWS);
+		R[][] entries = mult.entries();
+		int resultColumns = mult.getColumnCount();
+		R[][] results = MatrixMultiplication.emptyArray(entries, rows, resultColumns);
+
+		for (int i = 0; i < rows; i++) {
+			R[] row = results[i];
+			Arrays.fill(row, zero);
+
+			// add in the scaled row of mult for each stored entry
+			for (int p = left.pointers[i]; p < left.pointers[i + 1]; p++) {
+				R value = left.values[p];
+				R[] multRow = entries[left.indices[p]];
+				for (int j = 0; j < resultColumns; j++) {
+					row[j] = row[j].add(value.multiply(multRow[j]));
+				}
+			}
+		}
+
+		return new Matrix<>(results, rows, resultColumns);
+	}
+
+	/**
+	 * multiplies a dense matrix on the left of the current sparse matrix,
+	 * each column of the product only looks at the rows of the dense matrix
+	 * picked out by the non zero entries in the column of this matrix.
+	 *
+	 * @param left
+	 *            dense matrix to multiply on the left
+	 * @return dense product left * this
+	 */
+	public Matrix<R> leftMultiply(Matrix<R> left) {
+		// make sure the dimensions of the matrices are compatible for
+		// multiplication.
+		if (left.getColumnCount() != this.rows)
+			throw new IllegalArgumentException("You can only multiply an n x r matrix by an r x m matrix!");
+
+		SparseMatrix<R> right = this.toLayout(Layout.COLUMNS);
+		R[][] entries = left.entries();
+		int resultRows = left.getRowCount();
+		R[][] results = MatrixMultiplication.emptyArray(entries, resultRows, columns);
+
+		for (int i = 0; i < resultRows; i++) {
+			R[] leftRow = entries[i];
+			for (int j = 0; j < columns; j++) {
+				// take the dot product with only the stored entries of the
+				// column
+				R sum = zero;
+				for (int p = right.pointers[j]; p < right.pointers[j + 1]; p++) {
+					sum = sum.add(leftRow[right.indices[p]].multiply(right.values[p]));
+				}
+				results[i][j] = sum;
+			}
+		}
+
+		return new Matrix<>(results, resultRows, columns);
+	}
+
+	/**
+	 * multiplies the current matrix by the column vector given.
+	 *
+	 * @param vector
+	 *            vector to multiply by
+	 * @return product of the matrix and the vector
+	 */
+	public NVector<R> multiply(NVector<R> vector) {
+		// make sure the dimensions are compatible
+		if (this.columns != vector.getLength())
+			throw new IllegalArgumentException("You can only multiply an n x r matrix by a vector of length r!");
+
+		R[] entries = vector.entries();
+		R[] results = Arrays.copyOf(entries, rows);
+		Arrays.fill(results, zero);
+
+		if (layout == Layout.ROWS) {
+			// each entry is the dot product of a row with the vector
+			for (int i = 0; i < rows; i++) {
+				R sum = zero;
+				for (int p = pointers[i]; p < pointers[i + 1]; p++) {
+					sum = sum.add(values[p].multiply(entries[indices[p]]));
+				}
+				results[i] = sum;
+			}
+		} else {
+			// scatter each column scaled by its vector entry
+			for (int j = 0; j < columns; j++) {
+				R scalar = entries[j];
+				if (scalar.equals(zero))
+					continue;
+				for (int p = pointers[j]; p < pointers[j + 1]; p++) {
+					results[indices[p]] = results[indices[p]].add(values[p].multiply(scalar));
+				}
+			}
+		}
+
+		return new NVector<>(results, rows);
+	}
+
+	@Override
+	public SparseMatrix<R> negate() {
+		R[] negated = newArray(zero, values.length);
+		for (int p = 0; p < values.length; p++) {
+			negated[p] = values[p].negate();
+		}
+		return new SparseMatrix<>(layout, rows, columns, pointers, indices, negated, zero);
+	}
+
+	/**
+	 * scales each stored entry of the matrix by the given scalar
+	 *
+	 * @param scalar
+	 *            number to multiply by
+	 * @return scaled matrix
+	 */
+	public SparseMatrix<R> scale(R scalar) {
+		// scaling by zero leaves nothing to store
+		if (scalar.equals(zero))
+			return new SparseMatrix<>(layout, rows, columns, new int[pointers.length], new int[0],
+					newArray(zero, 0), zero);
+
+		R[] scaled = newArray(zero, values.length);
+		for (int p = 0; p < values.length; p++) {
+			scaled[p] = values[p].multiply(scalar);
+		}
+		return new SparseMatrix<>(layout, rows, columns, pointers, indices, scaled, zero);
+	}
+
+	/**
+	 * returns the entry in the given row and column, this searches the stored
+	 * entries of the row (or column) so it takes logarithmic time.
+	 *
+	 * @param row
+	 *            row of the entry
+	 * @param column
+	 *            column of the entry
+	 * @return entry at the given position
+	 */
+	public R getEntry(int row, int column) {
+		// check for out of bounds
+		if (row < 0 || column < 0 || row >= rows || column >= columns)
+			throw new IllegalArgumentException("invalid row/column for matrix entry!");
+
+		int major = layout == Layout.ROWS ? row : column;
+		int minor = layout == Layout.ROWS ? column : row;
+
+		int position = Arrays.binarySearch(indices, pointers[major], pointers[major + 1], minor);
+		return position >= 0 ? values[position] : zero;
+	}
+
+	/**
+	 * converts the matrix into a dense matrix.
+	 *
+	 * @return dense matrix with the same entries
+	 */
+	@SuppressWarnings("unchecked")
+	public Matrix<R> toMatrix() {
+		R[][] results = (R[][]) Array.newInstance(zero.getClass(), rows, columns);
+		for (R[] row : results) {
+			Arrays.fill(row, zero);
+		}
+
+		int major = layout == Layout.ROWS ? rows : columns;
+		for (int i = 0; i < major; i++) {
+			for (int p = pointers[i]; p < pointers[i + 1]; p++) {
+				if (layout == Layout.ROWS)
+					results[i][indices[p]] = values[p];
+				else
+					results[indices[p]][i] = values[p];
+			}
+		}
+
+		return new Matrix<>(results, rows, columns);
+	}
+
+	/**
+	 * returns the number of rows in the matrix
+	 *
+	 * @return number of rows
+	 */
+	public int getRowCount() {
+		return rows;
+	}
+
+	/**
+	 * returns the number of columns in the matrix
+	 *
+	 * @return number of columns
+	 */
+	public int getColumnCount() {
+		return columns;
+	}
+
+	/**
+	 * returns the number of entries stored by the matrix.
+	 *
+	 * @return number of non zero entries
+	 */
+	public int getNonZeroCount() {
+		return values.length;
+	}
+
+	/**
+	 * returns the layout the entries are stored in.
+	 *
+	 * @return layout of the matrix
+	 */
+	public Layout getLayout() {
+		return layout;
+	}
+
+	/**
+	 * defaults to a square zero matrix with dimension the number of columns,
+	 * the same as {@link gmath.types.Matrix#ZERO() Matrix}.
+	 */
+	@Override
+	public SparseMatrix<R> ZERO() {
+		return new SparseMatrix<>(Layout.ROWS, columns, columns, new int[columns + 1], new int[0], newArray(zero, 0),
+				zero);
+	}
+
+	/**
+	 * defaults to a square identity matrix with dimension the number of
+	 * columns, the same as {@link gmath.types.Matrix#IDENTITY() Matrix}.
+	 */
+	@Override
+	public SparseMatrix<R> IDENTITY() {
+		int[] pointers = new int[columns + 1];
+		int[] indices = new int[columns];
+		R[] values = newArray(zero, columns);
+		R one = zero.IDENTITY();
+
+		// one entry on the diagonal of each row
+		for (int i = 0; i < columns; i++) {
+			pointers[i + 1] = i + 1;
+			indices[i] = i;
+			values[i] = one;
+		}
+
+		return new SparseMatrix<>(Layout.ROWS, columns, columns, pointers, indices, values, zero);
+	}
+
+	@Override
+	public boolean equals(SparseMatrix<R> compare) {
+		// check for dimension mismatch
+		if (!(compare.rows == this.rows && compare.columns == this.columns))
+			return false;
+
+		// both are stored sorted without zeros so the same layout means the
+		// same arrays
+		SparseMatrix<R> other = compare.toLayout(layout);
+		return Arrays.equals(pointers, other.pointers) && Arrays.equals(indices, other.indices)
+				&& Arrays.equals(values, other.values);
+	}
+
+	@Override
+	public int hashCode() {
+		// hash the row layout so the hash doesn't depend on the layout
+		SparseMatrix<R> byRows = toLayout(Layout.ROWS);
+		return 31 * (31 * Arrays.hashCode(byRows.pointers) + Arrays.hashCode(byRows.indices))
+				+ Arrays.hashCode(byRows.values);
+	}
+
+	@Override
+	public String toString() {
+		return toMatrix().toString();
+	}
+
+	@SuppressWarnings("unchecked")
+	private static <R extends Ring<R>> R[] newArray(R zero, int length) {
+		return (R[]) Array.newInstance(zero.getClass(), length);
+	}
+
+	/**
+	 * builder for sparse matrices from coordinate triples. Entries can be
+	 * added in any order, entries added to the same position more than once
+	 * are summed together and zeros are dropped when the matrix is built.
+	 * Building doesn't change the builder so more entries can be added and
+	 * another matrix built.
+	 *
+	 * @author Gavin
+	 *
+	 */
+	public static final class Builder<R extends Ring<R>> {
+		private final int rows;
+		private final int columns;
+		private final R zero;
+
+		// coordinate triples added so far
+		private int[] rowIndices = new int[16];
+		private int[] columnIndices = new int[16];
+		private R[] values;
+		private int size = 0;
+
+		private Builder(int rows, int columns, R zero) {
+			// if no rows or columns throw an illegal argument exception as you
+			// cannot have a 0xn or nx0 matrix
+			if (rows <= 0 || columns <= 0)
+				throw new IllegalArgumentException("Cannot have a 0xn or nx0 matrix!");
+
+			this.rows = rows;
+			this.columns = columns;
+			this.zero = zero;
+			this.values = newArray(zero, 16);
+		}
+
+		/**
+		 * adds the value to the entry at the given row and column.
+		 *
+		 * @param row
+		 *            row of the entry
+		 * @param column
+		 *            column of the entry
+		 * @param value
+		 *            value to add to the entry
+		 * @return this builder
+		 */
+		public Builder<R> add(int row, int column, R value) {
+			// check for out of bounds
+			if (row < 0 || column < 0 || row >= rows || column >= columns)
+				throw new IllegalArgumentException("invalid row/column for matrix entry!");
+
+			// make room for the triple if needed
+			if (size == values.length) {
+				rowIndices = Arrays.copyOf(rowIndices, size * 2);
+				columnIndices = Arrays.copyOf(columnIndices, size * 2);
+				values = Arrays.copyOf(values, size * 2);
+			}
+
+			rowIndices[size] = row;
+			columnIndices[size] = column;
+			values[size] = value;
+			size++;
+			return this;
+		}
+
+		/**
+		 * builds the matrix in the row layout.
+		 *
+		 * @return sparse matrix with the added entries
+		 */
+		public SparseMatrix<R> build() {
+			return build(Layout.ROWS);
+		}
+
+		/**
+		 * builds the matrix in the given layout.
+		 *
+		 * @param layout
+		 *            layout to store the entries in
+		 * @return sparse matrix with the added entries
+		 */
+		public SparseMatrix<R> build(Layout layout) {
+			int[] major = layout == Layout.ROWS ? rowIndices : columnIndices;
+			int[] minor = layout == Layout.ROWS ? columnIndices : rowIndices;
+			int majorSize = layout == Layout.ROWS ? rows : columns;
+			int minorSize = layout == Layout.ROWS ? columns : rows;
+
+			// radix sort the triples, first by minor index then stably by
+			// major index so they end up sorted by both.
+			int[] byMinor = countingSort(minor, minorSize, identity(size));
+			int[] order = countingSort(major, majorSize, byMinor);
+
+			int[] pointers = new int[majorSize + 1];
+			int[] indices = new int[size];
+			R[] sorted = newArray(zero, size);
+			int position = 0;
+
+			// walk the sorted triples summing duplicates and dropping zeros
+			int t = 0;
+			for (int i = 0; i < majorSize; i++) {
+				while (t < size && major[order[t]] == i) {
+					int index = minor[order[t]];
+					R value = values[order[t]];
+					t++;
+					while (t < size && major[order[t]] == i && minor[order[t]] == index) {
+						value = value.add(values[order[t]]);
+						t++;
+					}
+
+					if (!value.equals(zero)) {
+						indices[position] = index;
+						sorted[position] = value;
+						position++;
+					}
+				}
+				pointers[i + 1] = position;
+			}
+
+			return new SparseMatrix<>(layout, rows, columns, pointers, Arrays.copyOf(indices, position),
+					Arrays.copyOf(sorted, position), zero);
+		}
+
+		/**
+		 * stably reorders the given permutation of the triples by the key.
+		 */
+		private int[] countingSort(int[] keys, int range, int[] permutation) {
+			int[] counts = new int[range + 1];
+			for (int i = 0; i < size; i++) {
+				counts[keys[i] + 1]++;
+			}
+			for (int i = 0; i < range; i++) {
+				counts[i + 1] += counts[i];
+			}
+
+			int[] results = new int[size];
+			for (int i = 0; i < size; i++) {
+				int triple = permutation[i];
+				results[counts[keys[triple]]++] = triple;
+			}
+			return results;
+		}
+
+		private static int[] identity(int size) {
+			int[] results = new int[size];
+			for (int i = 0; i < size; i++) {
+				results[i] = i;
+			}
+			return results;
+		}
+	}
+}
@@ -0,0 +1,96 @@
+package gmath.types;
+
+import java.util.Arrays;
+
+/**
+ * read only window onto a row or column of a {@link gmath.types.MatrixView
+ * MatrixView}. Like the matrix view it shares the storage of the matrix so it
+ * takes constant time to create, use {@link #materialize()} to copy it into a
+ * {@link gmath.types.NVector NVector}.
+ *
+ * @author Gavin
+ *
+ */
+public abstract class VectorView<R extends Ring<R>> {
+
+	// row of the matrix storage used as the type of the array when
+	// materializing
+	private final R[] type;
+
+	private final int length;
+
+	VectorView(R[] type, int length) {
+		this.type = type;
+		this.length = length;
+	}
+
+	/**
+	 * returns the entry at the given index of the vector.
+	 *
+	 * @param index
+	 *            index of the entry
+	 * @return entry at the index
+	 */
+	public final R getEntry(int index) {
+		// check for out of bounds
+		if (index < 0 || index >= length)
+			throw new IllegalArgumentException("invalid index for vector entry!");
+
+		return get(index);
+	}
+
+	/**
+	 * unchecked version of get entry used by the views themselves.
+	 */
+	abstract R get(int index);
+
+	/**
+	 * returns the length of the vector
+	 *
+	 * @return length of the vector
+	 */
+	public final int getLength() {
+		return length;
+	}
+
+	/**
+	 * takes the dot product of two vectors that are the same size.
+	 *
+	 * @param mult
+	 *            vector to take the dot product with
+	 * @return dot product of the two vectors.
+	 */
+	public R dotProduct(VectorView<R> mult) {
+		// make sure they both have the same size
+		if (length != mult.length)
+			throw new IllegalArgumentException("Vectors need to have the same length to take their dot product!");
+
+		// store the results in a single variable
+		R results = get(0).ZERO();
+
+		// add together each of the multiplications of the products
+		for (int i = 0; i < length; i++) {
+			results = results.add(get(i).multiply(mult.get(i)));
+		}
+
+		return results;
+	}
+
+	/**
+	 * copies the entries of the view into a new vector.
+	 *
+	 * @return vector with the same entries as the view
+	 */
+	public NVector<R> materialize() {
+		R[] results = Arrays.copyOf(type, length);
+		for (int i = 0; i < length; i++) {
+			results[i] = get(i);
+		}
+		return new NVector<>(results, length);
+	}
+
+	@Override
+	public String toString() {
+		return materialize().toString();
+	}
+}
@@ -1,11 +1,11 @@
 package gmath.types.finitefields;
 
-import java.util.Arrays;
 import java.util.Random;
 
 import gmath.numbertheory.Primes;
 import gmath.types.FieldPolynomial;
 import gmath.types.Integer;
+import gmath.types.RingContext;
 
 /**
  * this class is like the {@link gmath.types.finitefields.PrimeField PrimeField}
@@ -29,6 +29,13 @@ public class FiniteField {
 	// characteristic polynomial for the field
 	private final FieldPolynomial<PrimeFieldElement> characteristic;
 
+	// characteristic polynomial as primitive coefficients, this is what the
+	// elements reduce by
+	private final GFpPolynomial reduction;
+
+	// zero and identity of the field handed out by all of the elements
+	private final RingContext<FiniteFieldElement> ring;
+
 	/**
 	 * creates a finite field with the given size, note that the size must be a
 	 * prime power for a field to exist so if this isn't the case an
@@ -91,7 +98,8 @@ public class FiniteField {
 			characteristic = new FieldPolynomial<PrimeFieldElement>(primeField.element(1), primeField.element(0));
 		else
 			characteristic = generateIrreduciblePolynomial(dimension, primeField);
-
+		reduction = new GFpPolynomial(primeField, characteristic);
+		ring = createContext();
 	}
 
 	/**
@@ -125,6 +133,8 @@ public class FiniteField {
 			characteristic = new FieldPolynomial<PrimeFieldElement>(primeField.element(1), primeField.element(0));
 		else
 			characteristic = generateIrreduciblePolynomial(dimension, primeField);
+		reduction = new GFpPolynomial(primeField, characteristic);
+		ring = createContext();
 	}
 
 	/**
@@ -163,12 +173,24 @@ public class FiniteField {
 
 		// make sure the characteristic isn't reducible before setting to the
 		// characteristic of the field.
-		if (!isIrreduciblePolynomial(characteristic, primeField))
+		GFpPolynomial reduction = new GFpPolynomial(primeField, characteristic);
+		if (!isIrreduciblePolynomial(reduction))
 			throw new IllegalArgumentException("characteristic of a field must be irreducible in the primitive field!");
 
 		// if everything passed set the characteristic as the characteristic of
 		// the field
 		this.characteristic = characteristic;
+		this.reduction = reduction;
+		this.ring = createContext();
+	}
+
+	/**
+	 * builds the zero and identity of the field once the reduction polynomial
+	 * is set.
+	 */
+	private RingContext<FiniteFieldElement> createContext() {
+		return new RingContext<>(new FiniteFieldElement(this, reduction.ZERO()),
+				new FiniteFieldElement(this, reduction.IDENTITY()));
 	}
 
 	/**
@@ -185,14 +207,14 @@ public class FiniteField {
 		// amount that need to be tested to find one.
 
 		boolean irreducible = false;
-		FieldPolynomial<PrimeFieldElement> results = null;
+		GFpPolynomial results = null;
 		while (!irreducible) {
 			results = generateRandomPolynomial(dimension, primeField);
-			irreducible = isIrreduciblePolynomial(results, primeField);
+			irreducible = isIrreduciblePolynomial(results);
 		}
 
 		// once one is found return it
-		return results;
+		return results.toFieldPolynomial();
 	}
 
 	/**
@@ -203,18 +225,23 @@ public class FiniteField {
 	 *            polynomial to check
 	 * @return if poly is irreducible
 	 */
-	private static boolean isIrreduciblePolynomial(FieldPolynomial<PrimeFieldElement> poly, PrimeField primeField) {
+	private static boolean isIrreduciblePolynomial(GFpPolynomial poly) {
+		PrimeField primeField = poly.getField();
+
 		// get the polynomial to subtract from the original polynomial i.e. x
-		FieldPolynomial<PrimeFieldElement> x = new FieldPolynomial<>(primeField.element(1), primeField.element(0));
+		GFpPolynomial x = new GFpPolynomial(primeField, 0, 1);
 
-		// get the original power polynomial, i.e. x ^ p
-		FieldPolynomial<PrimeFieldElement> xp = x.pow(primeField.size());
+		// x ^ p ^ i reduced modulo poly, starts at x for i = 0
+		GFpPolynomial xpi = x;
 
 		// loop through all of the possible k values for if the polynomial
-		for (int i = 0; i <= poly.degree() / 2; i++) {
+		for (int i = 1; i <= poly.degree() / 2; i++) {
+			// raise the previous power to p to get x ^ p ^ i
+			xpi = xpi.modPow(primeField.size(), poly);
+
 			// if the gcd of poly and x^p^i - x isn't 1 the polynomial is
 			// reducible this is the same as its degree being 0.
-			FieldPolynomial<PrimeFieldElement> xpix = xp.pow(i).subtract(x);
+			GFpPolynomial xpix = xpi.subtract(x);
 			if (xpix.gcd(poly).degree() != 0) {
 				return false;
 			}
@@ -232,26 +259,26 @@ public class FiniteField {
 	 *            degree for generated polynomial
 	 * @return random polynomial
 	 */
-	private static FieldPolynomial<PrimeFieldElement> generateRandomPolynomial(int degree, PrimeField primeField) {
+	private static GFpPolynomial generateRandomPolynomial(int degree, PrimeField primeField) {
 		// initialize a random number generator
 		Random r = new Random(System.currentTimeMillis());
 
-		// initialize an array for the values of the polynomial
-		PrimeFieldElement[] elements = new PrimeFieldElement[degree + 1];
+		// initialize an array for the values of the polynomial, starting with
+		// the constant term
+		long[] values = new long[degree + 1];
 
-		// set the first term to one as it is monic
-		elements[0] = primeField.element(1);
+		// set the leading term to one as it is monic
+		values[degree] = 1;
 
-		// loop through each of the remaining elements and put a random integer
-		// in it. It doesn't matter how big it is because the prime field will
+		// loop through each of the remaining values and put a random integer
+		// in it. It doesn't matter how big it is because the polynomial will
 		// modularize it anyways.
-		for (int i = 1; i < elements.length; i++) {
-			elements[i] = primeField.element(r.nextInt());
+		for (int i = 0; i < degree; i++) {
+			values[i] = r.nextInt();
 		}
 
-		// create a polynomial with the elements and return it.
-
-		return new FieldPolynomial<>(elements);
+		// create a polynomial with the values and return it.
+		return new GFpPolynomial(primeField, values);
 	}
 
 	/**
@@ -269,20 +296,15 @@ public class FiniteField {
 			throw new IllegalArgumentException(
 					"Value array for finite field must have the same size as the dimension of the Field!");
 
-		// generate an array of the values in the prime sub field
-		PrimeFieldElement[] fieldValues = new PrimeFieldElement[value.length];
+		// the values start with the leading coefficient, the polynomial
+		// starts with the constant term and drops any leading zeros itself
+		long[] coefficients = new long[value.length];
 		for (int i = 0; i < value.length; i++) {
-			fieldValues[i] = primeField.element(value[i]);
-		}
-
-		// check for leading zeros and remove until there aren't any more or the
-		// size is zero.
-		while (fieldValues.length > 1 && fieldValues[0].equals(primeField.element(0))) {
-			fieldValues = Arrays.copyOfRange(fieldValues, 1, fieldValues.length);
+			coefficients[i] = value[value.length - 1 - i];
 		}
 
 		// create a polynomial to return as the value of the element
-		FieldPolynomial<PrimeFieldElement> polynomial = new FieldPolynomial<>(fieldValues);
+		GFpPolynomial polynomial = new GFpPolynomial(primeField, coefficients);
 
 		// return a new finite field element with the appropriate values.
 		return new FiniteFieldElement(this, polynomial);
@@ -298,4 +320,31 @@ public class FiniteField {
 		return characteristic;
 	}
 
+	/**
+	 * returns the characteristic polynomial with primitive coefficients.
+	 * 
+	 * @return the characteristic polynomial for the finite field.
+	 */
+	GFpPolynomial getReductionPolynomial() {
+		return reduction;
+	}
+
+	/**
+	 * returns the zero and identity of the field shared by its elements.
+	 * 
+	 * @return ring context of the field
+	 */
+	RingContext<FiniteFieldElement> ringContext() {
+		return ring;
+	}
+
+	/**
+	 * returns the prime subfield of the finite field.
+	 * 
+	 * @return prime subfield
+	 */
+	PrimeField getPrimeField() {
+		return primeField;
+	}
+
 }
@@ -2,6 +2,7 @@ package gmath.types.finitefields;
 
 import gmath.types.Field;
 import gmath.types.FieldPolynomial;
+import gmath.types.RingContext;
 
 /**
  * element class for the finite field class. This class is what is created so
@@ -16,7 +17,9 @@ public class FiniteFieldElement extends Field<FiniteFieldElement> {
 
 	private final FiniteField field;
 
-	private final FieldPolynomial<PrimeFieldElement> value;
+	// value as a polynomial over the prime subfield with degree less than the
+	// dimension of the field
+	private final GFpPolynomial value;
 
 	/**
 	 * creates a new element from the field that it is enclosed within and the
@@ -28,6 +31,19 @@ public class FiniteFieldElement extends Field<FiniteFieldElement> {
 	 *            value of the element.
 	 */
 	protected FiniteFieldElement(FiniteField field, FieldPolynomial<PrimeFieldElement> value) {
+		this(field, new GFpPolynomial(field.getPrimeField(), value));
+	}
+
+	/**
+	 * creates a new element from a polynomial with primitive coefficients,
+	 * the polynomial is used directly.
+	 * 
+	 * @param field
+	 *            field the element is in
+	 * @param value
+	 *            value of the element.
+	 */
+	FiniteFieldElement(FiniteField field, GFpPolynomial value) {
 		super(FiniteFieldElement.class);
 		this.field = field;
 		this.value = value;
@@ -36,11 +52,10 @@ public class FiniteFieldElement extends Field<FiniteFieldElement> {
 	@Override
 	public FiniteFieldElement invert() {
 		// check for zero
-		if (this.value.equals(value.ZERO()))
+		if (this.value.isZero())
 			throw new ArithmeticException("you can't divide by 0!");
 		
-		return new FiniteFieldElement(field,
-				this.value.moduloInverse(field.getCharacteristicPolynomial()).mod(field.getCharacteristicPolynomial()));
+		return new FiniteFieldElement(field, this.value.moduloInverse(field.getReductionPolynomial()));
 	}
 
 	@Override
@@ -48,8 +63,9 @@ public class FiniteFieldElement extends Field<FiniteFieldElement> {
 		// make sure the two polynomials are in the same field
 		if (this.field != add.field)
 			throw new IllegalArgumentException("To add two field elements you need to be in the same field!");
-		// simply add the two polynomials modulo the characteristic polynomial.
-		FieldPolynomial<PrimeFieldElement> results = this.value.add(add.value).mod(field.getCharacteristicPolynomial());
+		// simply add the two polynomials, the degree can't go up so there is
+		// nothing to reduce.
+		GFpPolynomial results = this.value.add(add.value);
 		return new FiniteFieldElement(field, results);
 	}
 
@@ -61,8 +77,7 @@ public class FiniteFieldElement extends Field<FiniteFieldElement> {
 
 		// simply multiply the two polynomials modulo the charactersitic
 		// polynomial.
-		FieldPolynomial<PrimeFieldElement> results = this.value.multiply(mult.value)
-				.mod(field.getCharacteristicPolynomial());
+		GFpPolynomial results = this.value.multiply(mult.value).mod(field.getReductionPolynomial());
 
 		return new FiniteFieldElement(field, results);
 	}
@@ -71,22 +86,23 @@ public class FiniteFieldElement extends Field<FiniteFieldElement> {
 	public FiniteFieldElement negate() {
 
 		// just negate the value polynomial.
-		FieldPolynomial<PrimeFieldElement> results = this.value.negate();
+		GFpPolynomial results = this.value.negate();
 		return new FiniteFieldElement(field, results);
 	}
 
 	@Override
 	public FiniteFieldElement ZERO() {
-
-		// return a polynomial of all zeros
-		return new FiniteFieldElement(field, value.ZERO());
+		return field.ringContext().zero();
 	}
 
 	@Override
 	public FiniteFieldElement IDENTITY() {
+		return field.ringContext().identity();
+	}
 
-		// return a polynomial that is 1
-		return new FiniteFieldElement(field, value.IDENTITY());
+	@Override
+	public RingContext<FiniteFieldElement> context() {
+		return field.ringContext();
 	}
 
 	@Override
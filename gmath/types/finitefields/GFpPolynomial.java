@@ -0,0 +1,531 @@
+package gmath.types.finitefields;
+
+import java.util.Arrays;
+
+import gmath.numbertheory.ModularContext;
+import gmath.numbertheory.NumberTheoreticTransform;
+import gmath.types.FieldPolynomial;
+import gmath.types.Ring;
+
+/**
+ * polynomial over a {@link gmath.types.finitefields.PrimeField PrimeField}
+ * stored as a single array of primitive longs with the constant term first.
+ * Unlike a {@link gmath.types.FieldPolynomial FieldPolynomial} of
+ * {@link gmath.types.finitefields.PrimeFieldElement PrimeFieldElement} no
+ * object is created per coefficient and the modulus is only checked once per
+ * operation. Long division and the euclidean algorithm run in place on a
+ * single working copy of the coefficients using the
+ * {@link gmath.numbertheory.ModularContext ModularContext} of the field, and
+ * large products go through the
+ * {@link gmath.numbertheory.NumberTheoreticTransform number theoretic
+ * transform}. Use {@link #toFieldPolynomial()} and
+ * {@link #GFpPolynomial(PrimeField, FieldPolynomial)} to move between the
+ * two.
+ *
+ * @author Gavin
+ *
+ */
+public class GFpPolynomial extends Ring<GFpPolynomial> {
+
+	// number of coefficients both polynomials need before a product uses the
+	// number theoretic transform
+	private static final int NTT_THRESHOLD = 64;
+
+	private final PrimeField field;
+
+	// size of the field, all coefficients are in the range [0, modulus)
+	private final long modulus;
+
+	private final ModularContext context;
+
+	// coefficient of x^i at i with no trailing zeros, the zero polynomial has
+	// no coefficients
+	private final long[] coefficients;
+
+	/**
+	 * creates a polynomial from its coefficients starting with the constant
+	 * term, each value is reduced modulo the size of the field.
+	 *
+	 * @param field
+	 *            field the coefficients are in
+	 * @param coefficients
+	 *            coefficient of x^i at i
+	 */
+	public GFpPolynomial(PrimeField field, long... coefficients) {
+		super(GFpPolynomial.class);
+		this.field = field;
+		this.modulus = field.size();
+		this.context = field.context();
+
+		long[] results = new long[coefficients.length];
+		for (int i = 0; i < results.length; i++) {
+			results[i] = Math.floorMod(coefficients[i], modulus);
+		}
+		this.coefficients = trim(results, results.length);
+	}
+
+	/**
+	 * creates a polynomial with the same coefficients as the given polynomial
+	 * of prime field elements, every coefficient must be from the given field.
+	 *
+	 * @param field
+	 *            field the coefficients are in
+	 * @param polynomial
+	 *            polynomial to copy
+	 */
+	public GFpPolynomial(PrimeField field, FieldPolynomial<PrimeFieldElement> polynomial) {
+		super(GFpPolynomial.class);
+		this.field = field;
+		this.modulus = field.size();
+		this.context = field.context();
+
+		int degree = polynomial.degree();
+		long[] results = new long[degree + 1];
+		for (int i = 0; i <= degree; i++) {
+			PrimeFieldElement coefficient = polynomial.getCoefficient(i);
+
+			// make sure the coefficient is from the same field
+			if (coefficient.getModulus() != modulus)
+				throw new IllegalArgumentException("All coefficients must be elements of the given field!");
+
+			results[i] = coefficient.getValue();
+		}
+		this.coefficients = results;
+	}
+
+	/**
+	 * private constructor so the arguments don't need to be checked, the
+	 * coefficient array is used directly and must already be trimmed.
+	 */
+	private GFpPolynomial(PrimeField field, ModularContext context, long[] coefficients) {
+		super(GFpPolynomial.class);
+		this.field = field;
+		this.modulus = context.getModulus();
+		this.context = context;
+		this.coefficients = coefficients;
+	}
+
+	@Override
+	public GFpPolynomial add(GFpPolynomial add) {
+		checkField(add);
+
+		long[] longer = coefficients.length >= add.coefficients.length ? coefficients : add.coefficients;
+		long[] shorter = longer == coefficients ? add.coefficients : coefficients;
+		long[] results = Arrays.copyOf(longer, longer.length);
+		for (int i = 0; i < shorter.length; i++) {
+			results[i] = context.add(results[i], shorter[i]);
+		}
+		return new GFpPolynomial(field, context, trim(results, results.length));
+	}
+
+	@Override
+	public GFpPolynomial multiply(GFpPolynomial mult) {
+		checkField(mult);
+		if (this.isZero() || mult.isZero())
+			return ZERO();
+
+		long[] results;
+		if (Math.min(coefficients.length, mult.coefficients.length) >= NTT_THRESHOLD) {
+			results = NumberTheoreticTransform.multiply(coefficients, mult.coefficients, modulus);
+		} else {
+			results = schoolbook(coefficients, mult.coefficients);
+		}
+
+		// a field has no zero divisors so the leading term can't vanish
+		return new GFpPolynomial(field, context, results);
+	}
+
+	/**
+	 * multiplies two coefficient arrays accumulating in 64 bits and only
+	 * reducing once every block rows.
+	 */
+	private long[] schoolbook(long[] a, long[] b) {
+		long[] results = new long[a.length + b.length - 1];
+		int block = reductionBlock();
+		int count = 0;
+		for (int i = 0; i < a.length; i++) {
+			long value = a[i];
+			if (value == 0)
+				continue;
+			for (int j = 0; j < b.length; j++) {
+				results[i + j] += value * b[j];
+			}
+
+			// each entry gets at most one product per row, reduce before the
+			// next block can overflow
+			if (++count == block) {
+				count = 0;
+				for (int k = 0; k < results.length; k++) {
+					results[k] %= modulus;
+				}
+			}
+		}
+		for (int k = 0; k < results.length; k++) {
+			results[k] %= modulus;
+		}
+		return results;
+	}
+
+	@Override
+	public GFpPolynomial negate() {
+		long[] results = new long[coefficients.length];
+		for (int i = 0; i < results.length; i++) {
+			results[i] = context.negate(coefficients[i]);
+		}
+		return new GFpPolynomial(field, context, results);
+	}
+
+	/**
+	 * scales each coefficient of the polynomial by the given scalar.
+	 *
+	 * @param scalar
+	 *            number to multiply by
+	 * @return scaled polynomial
+	 */
+	public GFpPolynomial scale(long scalar) {
+		long reduced = Math.floorMod(scalar, modulus);
+		if (reduced == 0)
+			return ZERO();
+
+		long[] results = new long[coefficients.length];
+		for (int i = 0; i < results.length; i++) {
+			results[i] = context.multiply(coefficients[i], reduced);
+		}
+		return new GFpPolynomial(field, context, results);
+	}
+
+	/**
+	 * multiplies the polynomial by x^power.
+	 *
+	 * @param power
+	 *            power of x to multiply by, must not be negative
+	 * @return shifted polynomial
+	 */
+	public GFpPolynomial multiplyByPower(int power) {
+		if (power < 0)
+			throw new IllegalArgumentException("power must not be negative!");
+		if (isZero())
+			return this;
+
+		long[] results = new long[coefficients.length + power];
+		System.arraycopy(coefficients, 0, results, power, coefficients.length);
+		return new GFpPolynomial(field, context, results);
+	}
+
+	/**
+	 * divides the polynomial by the divisor with long division, returning
+	 * both the quotient and the remainder from a single pass.
+	 *
+	 * @param divisor
+	 *            polynomial to divide by, can't be zero
+	 * @return quotient at [0] and remainder at [1]
+	 */
+	public GFpPolynomial[] divMod(GFpPolynomial divisor) {
+		checkField(divisor);
+		if (divisor.isZero())
+			throw new ArithmeticException("you can't divide by 0!");
+
+		if (coefficients.length < divisor.coefficients.length)
+			return new GFpPolynomial[] { ZERO(), this };
+
+		long[] remainder = Arrays.copyOf(coefficients, coefficients.length);
+		long[] quotient = new long[coefficients.length - divisor.coefficients.length + 1];
+		int length = remainder(remainder, remainder.length, divisor.coefficients, divisor.coefficients.length,
+				quotient);
+
+		return new GFpPolynomial[] { new GFpPolynomial(field, context, trim(quotient, quotient.length)),
+				new GFpPolynomial(field, context, Arrays.copyOf(remainder, length)) };
+	}
+
+	/**
+	 * returns the remainder of dividing the polynomial by the modulus.
+	 *
+	 * @param modulus
+	 *            polynomial to divide by, can't be zero
+	 * @return remainder with degree less than the modulus
+	 */
+	public GFpPolynomial mod(GFpPolynomial modulus) {
+		checkField(modulus);
+		if (modulus.isZero())
+			throw new ArithmeticException("you can't divide by 0!");
+		if (coefficients.length < modulus.coefficients.length)
+			return this;
+
+		long[] remainder = Arrays.copyOf(coefficients, coefficients.length);
+		int length = remainder(remainder, remainder.length, modulus.coefficients, modulus.coefficients.length,
+				null);
+		return new GFpPolynomial(field, context, Arrays.copyOf(remainder, length));
+	}
+
+	/**
+	 * long division in place, the first length entries of a are replaced with
+	 * the remainder of dividing by the first divisorLength entries of b and
+	 * the quotient is written to quotient if it isn't null.
+	 *
+	 * @return trimmed length of the remainder
+	 */
+	private int remainder(long[] a, int length, long[] b, int divisorLength, long[] quotient) {
+		int shift = divisorLength - 1;
+		long inverse = context.inverse(b[shift]);
+		for (int i = length - 1; i >= shift; i--) {
+			long value = a[i];
+			if (value == 0)
+				continue;
+
+			// cancel the leading term of what's left
+			long scale = context.multiply(value, inverse);
+			if (quotient != null)
+				quotient[i - shift] = scale;
+			int offset = i - shift;
+			for (int j = 0; j < shift; j++) {
+				a[offset + j] = context.subtract(a[offset + j], context.multiply(scale, b[j]));
+			}
+			a[i] = 0;
+		}
+		return trimmedLength(a, Math.min(length, shift));
+	}
+
+	/**
+	 * returns the monic greatest common divisor of the two polynomials, zero
+	 * if both are zero. The euclidean algorithm runs in place on copies of the
+	 * two coefficient arrays.
+	 *
+	 * @param n
+	 *            polynomial to take the gcd with
+	 * @return monic gcd of the two polynomials
+	 */
+	public GFpPolynomial gcd(GFpPolynomial n) {
+		checkField(n);
+
+		long[] a = Arrays.copyOf(coefficients, coefficients.length);
+		long[] b = Arrays.copyOf(n.coefficients, n.coefficients.length);
+		int aLength = a.length;
+		int bLength = b.length;
+
+		// keep the longer one in a and reduce it by b until b runs out
+		while (bLength > 0) {
+			if (aLength >= bLength)
+				aLength = remainder(a, aLength, b, bLength, null);
+
+			long[] temp = a;
+			a = b;
+			b = temp;
+			int tempLength = aLength;
+			aLength = bLength;
+			bLength = tempLength;
+		}
+
+		return new GFpPolynomial(field, context, Arrays.copyOf(a, aLength)).monicize();
+	}
+
+	/**
+	 * returns the inverse r of the polynomial with respect to the modulus m,
+	 * i.e. r * x = 1 mod m.
+	 *
+	 * @param m
+	 *            modulus of inversion
+	 * @return the inverse modulo m with degree less than m
+	 *
+	 * @throws IllegalArgumentException
+	 *             if gcd(x, m) != 1
+	 */
+	public GFpPolynomial moduloInverse(GFpPolynomial m) {
+		checkField(m);
+
+		// extended euclidean algorithm only keeping the coefficients of x
+		GFpPolynomial previous = m;
+		GFpPolynomial current = this.mod(m);
+		GFpPolynomial previousCoefficient = ZERO();
+		GFpPolynomial coefficient = IDENTITY();
+		while (!current.isZero()) {
+			GFpPolynomial[] division = previous.divMod(current);
+			GFpPolynomial next = previousCoefficient.subtract(division[0].multiply(coefficient));
+			previous = current;
+			current = division[1];
+			previousCoefficient = coefficient;
+			coefficient = next;
+		}
+
+		if (previous.degree() != 0)
+			throw new IllegalArgumentException("gcd of two numbers needs to be 1 for there to be an inverse.");
+
+		return previousCoefficient.scale(context.inverse(previous.coefficients[0])).mod(m);
+	}
+
+	/**
+	 * raises the polynomial to a power reducing modulo the given polynomial
+	 * after every step.
+	 *
+	 * @param power
+	 *            power to raise to, must not be negative
+	 * @param m
+	 *            polynomial to reduce by
+	 * @return this ^ power mod m
+	 */
+	public GFpPolynomial modPow(long power, GFpPolynomial m) {
+		if (power < 0)
+			throw new IllegalArgumentException("power must not be negative!");
+		checkField(m);
+
+		GFpPolynomial base = this.mod(m);
+		GFpPolynomial results = IDENTITY().mod(m);
+		for (int bit = 63 - Long.numberOfLeadingZeros(power); bit >= 0; bit--) {
+			results = results.multiply(results).mod(m);
+			if ((power >>> bit & 1) != 0)
+				results = results.multiply(base).mod(m);
+		}
+		return results;
+	}
+
+	/**
+	 * scales the polynomial so its leading coefficient is 1, zero stays zero.
+	 *
+	 * @return monic polynomial
+	 */
+	public GFpPolynomial monicize() {
+		if (isZero())
+			return this;
+		return scale(context.inverse(coefficients[coefficients.length - 1]));
+	}
+
+	/**
+	 * evaluates the polynomial at x with horner's rule.
+	 *
+	 * @param x
+	 *            point to evaluate at
+	 * @return value in the range [0, modulus)
+	 */
+	public long evaluate(long x) {
+		long point = Math.floorMod(x, modulus);
+		long results = 0;
+		for (int i = coefficients.length - 1; i >= 0; i--) {
+			results = context.add(context.multiply(results, point), coefficients[i]);
+		}
+		return results;
+	}
+
+	/**
+	 * converts the polynomial into a polynomial of prime field elements.
+	 *
+	 * @return polynomial of prime field elements with the same coefficients
+	 */
+	public FieldPolynomial<PrimeFieldElement> toFieldPolynomial() {
+		if (isZero())
+			return new FieldPolynomial<>(field.element(0));
+
+		// field polynomials start with the leading coefficient
+		PrimeFieldElement[] results = new PrimeFieldElement[coefficients.length];
+		for (int i = 0; i < results.length; i++) {
+			results[i] = new PrimeFieldElement((int) coefficients[coefficients.length - 1 - i], field);
+		}
+		return new FieldPolynomial<>(results);
+	}
+
+	/**
+	 * returns the degree of the polynomial, -1 for zero.
+	 *
+	 * @return degree of the polynomial
+	 */
+	public int degree() {
+		return coefficients.length - 1;
+	}
+
+	/**
+	 * returns the coefficient of x^power, 0 past the degree.
+	 *
+	 * @param power
+	 *            power of the term
+	 * @return coefficient in the range [0, modulus)
+	 */
+	public long getCoefficient(int power) {
+		if (power < 0)
+			throw new IllegalArgumentException("power must not be negative!");
+		return power < coefficients.length ? coefficients[power] : 0;
+	}
+
+	/**
+	 * checks if this is the zero polynomial.
+	 *
+	 * @return true if the polynomial is zero
+	 */
+	public boolean isZero() {
+		return coefficients.length == 0;
+	}
+
+	/**
+	 * returns the field the coefficients are in.
+	 *
+	 * @return field of the polynomial
+	 */
+	public PrimeField getField() {
+		return field;
+	}
+
+	private int reductionBlock() {
+		long square = (modulus - 1) * (modulus - 1);
+		if (square == 0)
+			return Integer.MAX_VALUE;
+		return (int) Math.min(Integer.MAX_VALUE, (Long.MAX_VALUE - modulus) / square);
+	}
+
+	private void checkField(GFpPolynomial other) {
+		if (other.modulus != modulus)
+			throw new IllegalArgumentException("Both polynomials need to be over the same field!");
+	}
+
+	/**
+	 * length of the first length entries of x without trailing zeros.
+	 */
+	private static int trimmedLength(long[] x, int length) {
+		while (length > 0 && x[length - 1] == 0) {
+			length--;
+		}
+		return length;
+	}
+
+	/**
+	 * x without trailing zeros, x itself if there are none.
+	 */
+	private static long[] trim(long[] x, int length) {
+		int trimmed = trimmedLength(x, length);
+		return trimmed == x.length ? x : Arrays.copyOf(x, trimmed);
+	}
+
+	@Override
+	public GFpPolynomial ZERO() {
+		return new GFpPolynomial(field, context, new long[0]);
+	}
+
+	@Override
+	public GFpPolynomial IDENTITY() {
+		return new GFpPolynomial(field, context, new long[] { 1 });
+	}
+
+	@Override
+	public boolean equals(GFpPolynomial compare) {
+		if (compare.modulus != modulus)
+			return false;
+		return Arrays.equals(coefficients, compare.coefficients);
+	}
+
+	@Override
+	public int hashCode() {
+		return 31 * (int) modulus + Arrays.hashCode(coefficients);
+	}
+
+	/**
+	 * lists the coefficients starting with the leading one, the same as
+	 * {@link gmath.types.Polynomial#toString() Polynomial}.
+	 */
+	@Override
+	public String toString() {
+		if (isZero())
+			return "[0]";
+
+		long[] results = new long[coefficients.length];
+		for (int i = 0; i < results.length; i++) {
+			results[i] = coefficients[coefficients.length - 1 - i];
+		}
+		return Arrays.toString(results);
+	}
+}
@@ -0,0 +1,636 @@
+package gmath.types.finitefields;
+
+import java.util.Arrays;
+
+import gmath.numbertheory.ModularContext;
+import gmath.types.Matrix;
+import gmath.types.Ring;
+
+/**
+ * matrix over a {@link gmath.types.finitefields.PrimeField PrimeField} stored
+ * as a single row major array of primitive ints. Unlike a
+ * {@link gmath.types.Matrix Matrix} of
+ * {@link gmath.types.finitefields.PrimeFieldElement PrimeFieldElement} no
+ * object is created per entry and the modulus is only checked once per
+ * operation. Products accumulate in 64 bits and are only reduced once per
+ * block of terms instead of after every multiplication. Use
+ * {@link #toMatrix()} and {@link #ModMatrix(PrimeField, Matrix)} to move
+ * between the two.
+ *
+ * @author Gavin
+ *
+ */
+public class ModMatrix extends Ring<ModMatrix> {
+
+	private final PrimeField field;
+
+	// size of the field, all entries are in the range [0, modulus)
+	private final int modulus;
+
+	// arithmetic modulo the field size, shared with the field
+	private final ModularContext context;
+
+	// row major entries, the entry at (i, j) is at i * columns + j
+	private final int[] entries;
+
+	private final int rows;
+	private final int columns;
+
+	/**
+	 * creates a matrix from the given rows, each value is reduced modulo the
+	 * size of the field. If the rows aren't all the same length the shorter
+	 * rows are padded with zeros.
+	 *
+	 * @param field
+	 *            field the entries are in
+	 * @param rows
+	 *            rows of the matrix
+	 */
+	public ModMatrix(PrimeField field, int[]... rows) {
+		super(ModMatrix.class);
+		this.field = field;
+		this.modulus = field.size();
+		this.context = field.context();
+		this.rows = rows.length;
+
+		// set the number of columns to the maximum column length in the given
+		// array
+		int numOfColumns = 0;
+		for (int i = 0; i < rows.length; i++) {
+			numOfColumns = Math.max(numOfColumns, rows[i].length);
+		}
+		this.columns = numOfColumns;
+
+		// if no rows or columns throw an illegal argument exception as you
+		// cannot have a 0xn or nx0 matrix
+		if (this.rows == 0 || this.columns == 0)
+			throw new IllegalArgumentException("Cannot have a 0xn or nx0 matrix!");
+
+		this.entries = new int[this.rows * this.columns];
+		for (int i = 0; i < this.rows; i++) {
+			for (int j = 0; j < rows[i].length; j++) {
+				entries[i * columns + j] = Math.floorMod(rows[i][j], modulus);
+			}
+		}
+	}
+
+	/**
+	 * creates a matrix with the same entries as the given matrix of prime
+	 * field elements, every entry must be from the given field.
+	 *
+	 * @param field
+	 *            field the entries are in
+	 * @param matrix
+	 *            matrix to copy
+	 */
+	public ModMatrix(PrimeField field, Matrix<PrimeFieldElement> matrix) {
+		super(ModMatrix.class);
+		this.field = field;
+		this.modulus = field.size();
+		this.context = field.context();
+		this.rows = matrix.getRowCount();
+		this.columns = matrix.getColumnCount();
+		this.entries = new int[rows * columns];
+
+		for (int i = 0; i < rows; i++) {
+			for (int j = 0; j < columns; j++) {
+				PrimeFieldElement entry = matrix.getEntry(i, j);
+
+				// make sure the entry is from the same field
+				if (entry.getModulus() != modulus)
+					throw new IllegalArgumentException("All entries must be elements of the given field!");
+
+				entries[i * columns + j] = entry.getValue();
+			}
+		}
+	}
+
+	/**
+	 * private constructor so the arguments don't need to be checked, the entry
+	 * array is used directly and not copied.
+	 */
+	private ModMatrix(PrimeField field, int[] entries, int rows, int columns) {
+		super(ModMatrix.class);
+		this.field = field;
+		this.modulus = field.size();
+		this.context = field.context();
+		this.entries = entries;
+		this.rows = rows;
+		this.columns = columns;
+	}
+
+	@Override
+	public ModMatrix add(ModMatrix add) {
+		// make sure the number of rows and columns match up
+		if (!(this.columns == add.columns && this.rows == add.rows))
+			throw new IllegalArgumentException("You can only add two matricies if they have the same dimension!");
+		checkField(add);
+
+		int[] results = new int[entries.length];
+		for (int i = 0; i < results.length; i++) {
+			// both are less than the modulus so one subtraction is enough
+			int sum = entries[i] + add.entries[i] - modulus;
+			results[i] = sum < 0 ? sum + modulus : sum;
+		}
+
+		return new ModMatrix(field, results, rows, columns);
+	}
+
+	@Override
+	public ModMatrix multiply(ModMatrix mult) {
+		// make sure the dimensions of the matrices are compatible for
+		// multiplication.
+		if (this.columns != mult.rows)
+			throw new IllegalArgumentException("You can only multiply an n x r matrix by an r x m matrix!");
+		checkField(mult);
+
+		int n = this.rows;
+		int k = this.columns;
+		int m = mult.columns;
+		int[] results = new int[n * m];
+
+		// number of products that can be added to a reduced value without
+		// overflowing a long
+		int block = reductionBlock();
+
+		// accumulate each row of the result in 64 bits, only reducing every
+		// block terms
+		long[] accumulator = new long[m];
+		for (int i = 0; i < n; i++) {
+			Arrays.fill(accumulator, 0);
+			int aRow = i * k;
+
+			for (int pStart = 0; pStart < k; pStart += block) {
+				int pEnd = Math.min(pStart + block, k);
+				for (int p = pStart; p < pEnd; p++) {
+					long value = entries[aRow + p];
+					if (value == 0)
+						continue;
+					int bRow = p * m;
+					for (int j = 0; j < m; j++) {
+						accumulator[j] += value * mult.entries[bRow + j];
+					}
+				}
+
+				// reduce so the next block can't overflow
+				for (int j = 0; j < m; j++) {
+					accumulator[j] = context.reduce(accumulator[j]);
+				}
+			}
+
+			for (int j = 0; j < m; j++) {
+				results[i * m + j] = (int) accumulator[j];
+			}
+		}
+
+		return new ModMatrix(field, results, n, m);
+	}
+
+	/**
+	 * scales each term of the matrix by the given scalar
+	 *
+	 * @param scalar
+	 *            number to multiply by
+	 * @return scaled matrix
+	 */
+	public ModMatrix scale(int scalar) {
+		long reduced = Math.floorMod(scalar, modulus);
+		int[] results = new int[entries.length];
+		for (int i = 0; i < results.length; i++) {
+			results[i] = (int) context.multiply(entries[i], reduced);
+		}
+		return new ModMatrix(field, results, rows, columns);
+	}
+
+	/**
+	 * transposes the current matrix
+	 *
+	 * @return current matrix's transposition.
+	 */
+	public ModMatrix transpose() {
+		int[] results = new int[entries.length];
+		for (int i = 0; i < rows; i++) {
+			for (int j = 0; j < columns; j++) {
+				results[j * rows + i] = entries[i * columns + j];
+			}
+		}
+		return new ModMatrix(field, results, columns, rows);
+	}
+
+	@Override
+	public ModMatrix negate() {
+		int[] results = new int[entries.length];
+		for (int i = 0; i < results.length; i++) {
+			results[i] = entries[i] == 0 ? 0 : modulus - entries[i];
+		}
+		return new ModMatrix(field, results, rows, columns);
+	}
+
+	/**
+	 * returns the reduced row echelon form of the matrix.
+	 *
+	 * @return matrix in reduced row echelon form
+	 */
+	public ModMatrix rowReduce() {
+		long[] a = widen();
+		int[] order = new int[rows];
+		int[] pivotColumns = new int[Math.min(rows, columns)];
+		int rank = echelon(a, order, pivotColumns);
+		int block = reductionBlock();
+		int[] pending = new int[rows];
+
+		// work up from the last pivot making each one and clearing above it,
+		// the entries above a pivot aren't touched by the pivots below it so
+		// they are still reduced when they are read
+		for (int r = rank - 1; r >= 0; r--) {
+			int sourceRow = order[r] * columns;
+			int column = pivotColumns[r];
+			reduce(a, sourceRow + column + 1, sourceRow + columns);
+			long inverse = inverse((int) a[sourceRow + column]);
+			for (int j = column; j < columns; j++) {
+				a[sourceRow + j] = context.multiply(a[sourceRow + j], inverse);
+			}
+
+			for (int i = 0; i < r; i++) {
+				int target = order[i];
+				long factor = a[target * columns + column];
+				if (factor == 0)
+					continue;
+				if (pending[target] == block) {
+					reduce(a, target * columns + column + 1, (target + 1) * columns);
+					pending[target] = 0;
+				}
+				subtractRow(a, sourceRow, target * columns, column, factor);
+				pending[target]++;
+			}
+		}
+
+		// the pivot rows go first in the order they were found, the rest are
+		// zero
+		int[] results = new int[entries.length];
+		for (int i = 0; i < rank; i++) {
+			int row = order[i] * columns;
+			for (int j = 0; j < columns; j++) {
+				results[i * columns + j] = (int) context.reduce(a[row + j]);
+			}
+		}
+		return new ModMatrix(field, results, rows, columns);
+	}
+
+	/**
+	 * returns the rank of the matrix.
+	 *
+	 * @return number of linearly independent rows of the matrix
+	 */
+	public int rank() {
+		return echelon(widen(), new int[rows], new int[Math.min(rows, columns)]);
+	}
+
+	/**
+	 * returns the dimension of the right nullspace of the matrix, the number
+	 * of columns minus the rank.
+	 *
+	 * @return number of vectors in a basis of the nullspace
+	 */
+	public int nullity() {
+		return columns - rank();
+	}
+
+	/**
+	 * calculates the determinant of the matrix by gaussian elimination.
+	 *
+	 * @return determinant of the current matrix if it is n x n otherwise
+	 *         illegal argument exception is thrown
+	 */
+	public PrimeFieldElement determinant() {
+		// check that the matrix is square
+		if (rows != columns)
+			throw new IllegalArgumentException("Matrix must be square to find the determinant!");
+
+		int n = rows;
+		long[] a = widen();
+		int[] order = new int[n];
+		if (echelon(a, order, new int[n]) < n)
+			return field.element(0);
+
+		// product of the pivots, the ith pivot is in column i
+		long determinant = 1;
+		for (int i = 0; i < n; i++) {
+			determinant = context.multiply(determinant, a[order[i] * n + i]);
+		}
+
+		// the rows were used out of order, each even cycle of the
+		// permutation flips the sign
+		boolean[] visited = new boolean[n];
+		for (int i = 0; i < n; i++) {
+			if (visited[i])
+				continue;
+			int length = 0;
+			for (int j = i; !visited[j]; j = order[j]) {
+				visited[j] = true;
+				length++;
+			}
+			if (length % 2 == 0)
+				determinant = context.negate(determinant);
+		}
+
+		return field.element((int) determinant);
+	}
+
+	/**
+	 * returns a basis of the right nullspace of the matrix, the vectors x so
+	 * that A x = 0. Check {@link #nullity()} first if the nullspace could only
+	 * contain zero, a matrix can't have 0 columns so an
+	 * {@link java.lang.IllegalArgumentException IllegalArgumentException} is
+	 * thrown in that case.
+	 *
+	 * @return matrix whose columns are a basis of the nullspace
+	 */
+	public ModMatrix nullspace() {
+		long[] a = widen();
+		int[] order = new int[rows];
+		int[] pivotColumns = new int[Math.min(rows, columns)];
+		int rank = echelon(a, order, pivotColumns);
+
+		int dimension = columns - rank;
+		if (dimension == 0)
+			throw new IllegalArgumentException("The nullspace only contains zero!");
+
+		// mark which columns hold pivots, the rest are free variables
+		boolean[] isPivot = new boolean[columns];
+		long[] inverses = new long[rank];
+		for (int i = 0; i < rank; i++) {
+			isPivot[pivotColumns[i]] = true;
+			inverses[i] = a[order[i] * columns + pivotColumns[i]];
+		}
+		context.inverse(inverses, inverses);
+		int block = reductionBlock();
+
+		// each free variable gives one basis vector, set it to one and solve
+		// for the pivot variables by back substitution from the last pivot up
+		int[] basis = new int[columns * dimension];
+		long[] x = new long[columns];
+		int vector = 0;
+		for (int free = 0; free < columns; free++) {
+			if (isPivot[free])
+				continue;
+
+			Arrays.fill(x, 0);
+			x[free] = 1;
+			for (int i = rank - 1; i >= 0; i--) {
+				int row = order[i] * columns;
+				long sum = 0;
+				int terms = 0;
+				for (int j = pivotColumns[i] + 1; j < columns; j++) {
+					if (x[j] == 0)
+						continue;
+					if (terms == block) {
+						sum = context.reduce(sum);
+						terms = 0;
+					}
+					sum += a[row + j] * x[j];
+					terms++;
+				}
+				x[pivotColumns[i]] = context.multiply(context.negate(context.reduce(sum)), inverses[i]);
+			}
+
+			for (int j = 0; j < columns; j++) {
+				basis[j * dimension + vector] = (int) x[j];
+			}
+			vector++;
+		}
+
+		return new ModMatrix(field, basis, columns, dimension);
+	}
+
+	/**
+	 * copies the entries into longs so products can pile up before they are
+	 * reduced.
+	 */
+	private long[] widen() {
+		long[] results = new long[entries.length];
+		for (int i = 0; i < results.length; i++) {
+			results[i] = entries[i];
+		}
+		return results;
+	}
+
+	/**
+	 * brings the entries into row echelon form in place, only clearing the
+	 * column below each pivot. Rows aren't moved, instead order is filled
+	 * with the rows in the order they became pivot rows followed by the
+	 * rest, which end up zero. Each update adds one product to an entry and
+	 * a row is only reduced after {@link #reductionBlock()} of them, the
+	 * pivot column and pivot row are reduced before they are read.
+	 *
+	 * @param a
+	 *            entries to reduce, in the range [0, modulus)
+	 * @param order
+	 *            filled with the order of the rows
+	 * @param pivotColumns
+	 *            filled with the column of the pivot in each non zero row
+	 * @return rank of the matrix
+	 */
+	private int echelon(long[] a, int[] order, int[] pivotColumns) {
+		int block = reductionBlock();
+
+		// number of products added to each row since it was last reduced
+		int[] pending = new int[rows];
+		for (int i = 0; i < rows; i++) {
+			order[i] = i;
+		}
+
+		int row = 0;
+		for (int column = 0; column < columns && row < rows; column++) {
+			// reduce the column and find a non zero pivot in it
+			int pivot = -1;
+			for (int i = row; i < rows; i++) {
+				int index = order[i] * columns + column;
+				a[index] = context.reduce(a[index]);
+				if (pivot < 0 && a[index] != 0)
+					pivot = i;
+			}
+			if (pivot < 0)
+				continue;
+
+			int source = order[pivot];
+			order[pivot] = order[row];
+			order[row] = source;
+
+			int sourceRow = source * columns;
+			reduce(a, sourceRow + column + 1, sourceRow + columns);
+			pending[source] = 0;
+			long inverse = inverse((int) a[sourceRow + column]);
+
+			// eliminate the column below the pivot
+			for (int i = row + 1; i < rows; i++) {
+				int target = order[i];
+				int targetRow = target * columns;
+				long factor = a[targetRow + column];
+				if (factor == 0)
+					continue;
+				if (pending[target] == block) {
+					reduce(a, targetRow + column + 1, targetRow + columns);
+					pending[target] = 0;
+				}
+				subtractRow(a, sourceRow, targetRow, column, context.multiply(factor, inverse));
+				pending[target]++;
+			}
+
+			pivotColumns[row] = column;
+			row++;
+		}
+		return row;
+	}
+
+	/**
+	 * subtracts factor times the source row from the target row starting at
+	 * the pivot column, which is set straight to zero. The products are added
+	 * without reducing so the target row can only take
+	 * {@link #reductionBlock()} of these between reductions.
+	 */
+	private void subtractRow(long[] a, int sourceRow, int targetRow, int column, long factor) {
+		// adding modulus - factor avoids negative values
+		long negated = modulus - factor;
+		a[targetRow + column] = 0;
+		for (int j = column + 1; j < columns; j++) {
+			a[targetRow + j] += negated * a[sourceRow + j];
+		}
+	}
+
+	/**
+	 * reduces the entries from start up to end modulo the field size.
+	 */
+	private void reduce(long[] a, int start, int end) {
+		for (int i = start; i < end; i++) {
+			a[i] = context.reduce(a[i]);
+		}
+	}
+
+	private long inverse(int value) {
+		return context.inverse(value);
+	}
+
+	/**
+	 * returns how many products of two reduced entries can be added to a
+	 * reduced value before a long could overflow.
+	 */
+	private int reductionBlock() {
+		long square = (long) (modulus - 1) * (modulus - 1);
+		if (square == 0)
+			return Integer.MAX_VALUE;
+		return (int) Math.min(Integer.MAX_VALUE, (Long.MAX_VALUE - modulus) / square);
+	}
+
+	private void checkField(ModMatrix other) {
+		if (other.modulus != modulus)
+			throw new IllegalArgumentException("Both matrices need to be over the same field!");
+	}
+
+	/**
+	 * converts the matrix into a matrix of prime field elements.
+	 *
+	 * @return matrix of prime field elements with the same entries
+	 */
+	public Matrix<PrimeFieldElement> toMatrix() {
+		PrimeFieldElement[][] results = new PrimeFieldElement[rows][columns];
+		for (int i = 0; i < rows; i++) {
+			for (int j = 0; j < columns; j++) {
+				results[i][j] = field.element(entries[i * columns + j]);
+			}
+		}
+		return new Matrix<>(results);
+	}
+
+	/**
+	 * returns the entry in the given row and column of the matrix, the first
+	 * coordinate of the matrix is 0.
+	 *
+	 * @param row
+	 *            row of the entry
+	 * @param column
+	 *            column of the entry
+	 * @return entry at the given position in the range [0, modulus)
+	 */
+	public int getEntry(int row, int column) {
+		// check for out of bounds
+		if (row < 0 || column < 0 || row >= rows || column >= columns)
+			throw new IllegalArgumentException("invalid row/column for matrix entry!");
+
+		return entries[row * columns + column];
+	}
+
+	/**
+	 * returns the number of rows in the matrix
+	 *
+	 * @return number of rows
+	 */
+	public int getRowCount() {
+		return rows;
+	}
+
+	/**
+	 * returns the number of columns in the matrix
+	 *
+	 * @return number of columns
+	 */
+	public int getColumnCount() {
+		return columns;
+	}
+
+	/**
+	 * returns the field the entries are in.
+	 *
+	 * @return field of the matrix
+	 */
+	public PrimeField getField() {
+		return field;
+	}
+
+	/**
+	 * defaults to a square zero matrix with dimension the number of columns,
+	 * the same as {@link gmath.types.Matrix#ZERO() Matrix}.
+	 */
+	@Override
+	public ModMatrix ZERO() {
+		return new ModMatrix(field, new int[columns * columns], columns, columns);
+	}
+
+	/**
+	 * defaults to a square identity matrix with dimension the number of
+	 * columns, the same as {@link gmath.types.Matrix#IDENTITY() Matrix}.
+	 */
+	@Override
+	public ModMatrix IDENTITY() {
+		int[] results = new int[columns * columns];
+		for (int i = 0; i < columns; i++) {
+			results[i * columns + i] = 1 % modulus;
+		}
+		return new ModMatrix(field, results, columns, columns);
+	}
+
+	@Override
+	public boolean equals(ModMatrix compare) {
+		// check for field and dimension mismatch
+		if (compare.modulus != modulus || compare.rows != rows || compare.columns != columns)
+			return false;
+
+		return Arrays.equals(entries, compare.entries);
+	}
+
+	@Override
+	public int hashCode() {
+		return 31 * (31 * modulus + rows) + Arrays.hashCode(entries);
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder results = new StringBuilder("{");
+		for (int i = 0; i < rows; i++) {
+			results.append(Arrays.toString(Arrays.copyOfRange(entries, i * columns, (i + 1) * columns))).append("\n");
+		}
+		results.setLength(results.length() - 1);
+		return results.append("}").toString();
+	}
+
+}
@@ -1,6 +1,8 @@
 package gmath.types.finitefields;
 
+import gmath.numbertheory.ModularContext;
 import gmath.numbertheory.Primes;
+import gmath.types.RingContext;
 
 /**
  * prime field is a class that acts as a space for the field with the given
@@ -17,6 +19,12 @@ public class PrimeField {
 	// modulus for the prime field, will be a prime number.
 	private final int modulus;
 
+	// arithmetic modulo the field size shared by all of the elements
+	private final ModularContext context;
+
+	// zero and identity of the field handed out by all of the elements
+	private final RingContext<PrimeFieldElement> ring;
+
 	/**
 	 * creates a new finite field with the modulus as the size of the field. The
 	 * modulus has to be prime for this class to work, if it isn't an
@@ -37,6 +45,8 @@ public class PrimeField {
 
 		// set the modulus for the prime field
 		this.modulus = modulus;
+		this.context = new ModularContext(modulus);
+		this.ring = new RingContext<>(new PrimeFieldElement(0, this), new PrimeFieldElement(1, this));
 	}
 
 	/**
@@ -48,9 +58,52 @@ public class PrimeField {
 	 * @return a prime field element with the given value in the current field.
 	 */
 	public PrimeFieldElement element(int value) {
-		return new PrimeFieldElement(value, modulus);
+		return new PrimeFieldElement(Math.floorMod(value, modulus), this);
 	}
 	
+	/**
+	 * inverts every element in the array with a single modular inverse using
+	 * montgomery's trick, much faster than inverting them one at a time.
+	 * 
+	 * @param elements
+	 *            elements of this field to invert, none can be zero
+	 * @return inverses of the elements
+	 */
+	public PrimeFieldElement[] invert(PrimeFieldElement[] elements) {
+		long[] values = new long[elements.length];
+		for (int i = 0; i < elements.length; i++) {
+			if (elements[i].getModulus() != modulus)
+				throw new IllegalArgumentException("elements must be in this field!");
+			values[i] = elements[i].getValue();
+		}
+		context.inverse(values, values);
+
+		PrimeFieldElement[] results = new PrimeFieldElement[elements.length];
+		for (int i = 0; i < elements.length; i++) {
+			results[i] = new PrimeFieldElement((int) values[i], this);
+		}
+		return results;
+	}
+
+	/**
+	 * returns the arithmetic modulo the size of the field shared by its
+	 * elements.
+	 * 
+	 * @return context of the field
+	 */
+	ModularContext context() {
+		return context;
+	}
+
+	/**
+	 * returns the zero and identity of the field shared by its elements.
+	 * 
+	 * @return ring context of the field
+	 */
+	RingContext<PrimeFieldElement> ringContext() {
+		return ring;
+	}
+
 	/**
 	 * returns the dimension of the field
 	 * @return dimension of the field
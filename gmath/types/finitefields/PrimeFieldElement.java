@@ -1,7 +1,10 @@
 package gmath.types.finitefields;
 
-import gmath.numbertheory.ModuloArithmetic;
+import gmath.numbertheory.ModularContext;
+import gmath.numbertheory.NumberTheoreticTransform;
 import gmath.types.Field;
+import gmath.types.Polynomial;
+import gmath.types.RingContext;
 
 public class PrimeFieldElement extends Field<PrimeFieldElement> {
 
@@ -11,11 +14,21 @@ public class PrimeFieldElement extends Field<PrimeFieldElement> {
 	// size of the finite field the element is in.
 	private final int modulus;
 
+	// arithmetic modulo the size of the field, shared by every element
+	// created from the same field or from arithmetic on this element.
+	private final ModularContext context;
+
+	// field the element is in, holds the shared zero and identity
+	private final PrimeField field;
+
 	/**
 	 * creates a new finite field element with the value as its value and the
-	 * modulus as the size of the field it is in. The modulus has to be prime
-	 * for this class to work, but the only classes that can create instances
-	 * should already be checking this fact.
+	 * modulus as the size of the field it is in. The modulus has to be prime,
+	 * a new {@link gmath.types.finitefields.PrimeField PrimeField} is made for
+	 * it which throws an {@link java.lang.IllegalArgumentException
+	 * IllegalArgumentException} if it isn't. Elements made by
+	 * {@link gmath.types.finitefields.PrimeField#element(int)} share the
+	 * field instead.
 	 * 
 	 * @param value
 	 *            value for the element
@@ -23,23 +36,99 @@ public class PrimeFieldElement extends Field<PrimeFieldElement> {
 	 *            size of field element is in.
 	 */
 	protected PrimeFieldElement(int value, int modulus) {
+		this(Math.floorMod(value, modulus), new PrimeField(modulus));
+	}
+
+	/**
+	 * creates an element from a value that is already reduced, sharing the
+	 * contexts of the field.
+	 * 
+	 * @param value
+	 *            value for the element in the range [0, modulus)
+	 * @param field
+	 *            field the element is in
+	 */
+	PrimeFieldElement(int value, PrimeField field) {
 		super(PrimeFieldElement.class);
 
-		this.value = Math.floorMod(value, modulus);
-		this.modulus = modulus;
+		this.value = value;
+		this.modulus = field.size();
+		this.context = field.context();
+		this.field = field;
+	}
+
+	/**
+	 * returns the value of the element as an integer in the range [0,
+	 * modulus).
+	 * 
+	 * @return value of the element
+	 */
+	public int getValue() {
+		return value;
+	}
+
+	/**
+	 * returns the size of the field the element is in.
+	 * 
+	 * @return modulus of the field
+	 */
+	public int getModulus() {
+		return modulus;
+	}
+
+	/**
+	 * multiplies the polynomials with the
+	 * {@link gmath.numbertheory.NumberTheoreticTransform number theoretic
+	 * transform} once both have at least
+	 * {@link gmath.types.Polynomial#DEFAULT_NTT_THRESHOLD} coefficients, the
+	 * coefficients are only unwrapped and rebuilt once.
+	 */
+	@Override
+	public PrimeFieldElement[] convolve(PrimeFieldElement[] a, PrimeFieldElement[] b) {
+		if (Math.min(a.length, b.length) < Polynomial.DEFAULT_NTT_THRESHOLD
+				|| a.length + b.length - 1 > NumberTheoreticTransform.MAX_LENGTH)
+			return super.convolve(a, b);
+
+		long[] left = values(a, modulus);
+		long[] right = a == b ? left : values(b, modulus);
+
+		long[] product = NumberTheoreticTransform.multiply(left, right, modulus);
+		PrimeFieldElement[] results = new PrimeFieldElement[product.length];
+		for (int i = 0; i < product.length; i++) {
+			results[i] = new PrimeFieldElement((int) product[i], field);
+		}
+		return results;
+	}
+
+	/**
+	 * values of the elements, checking that they are all in the same field.
+	 */
+	private static long[] values(PrimeFieldElement[] elements, int modulus) {
+		long[] results = new long[elements.length];
+		for (int i = 0; i < elements.length; i++) {
+			if (elements[i].modulus != modulus)
+				throw new IllegalArgumentException("you can only multiply two field elements if they have the same modulus!");
+			results[i] = elements[i].value;
+		}
+		return results;
 	}
 
 	@Override
 	public PrimeFieldElement invert() {
 		// check for special modulus = 2
 		if (modulus == 2)
-			return new PrimeFieldElement(value, modulus);
-		return new PrimeFieldElement((int) ModuloArithmetic.moduloInverse(value, modulus), modulus);
+			return this;
+		return new PrimeFieldElement((int) context.inverse(value), field);
 	}
 
 	@Override
 	public PrimeFieldElement IDENTITY() {
-		return new PrimeFieldElement(1, modulus);
+		return field.ringContext().identity();
+	}
+
+	@Override
+	public RingContext<PrimeFieldElement> context() {
+		return field.ringContext();
 	}
 
 	@Override
@@ -48,24 +137,24 @@ public class PrimeFieldElement extends Field<PrimeFieldElement> {
 		if (modulus != add.modulus)
 			throw new IllegalArgumentException("you can only add two field elements if they have the same modulus!");
 
-		return new PrimeFieldElement(this.value + add.value % modulus, modulus);
+		return new PrimeFieldElement((int) context.add(this.value, add.value), field);
 	}
 
 	@Override
 	public PrimeFieldElement multiply(PrimeFieldElement mult) {
 		if (modulus != mult.modulus)
 			throw new IllegalArgumentException("you can only add two field elements if they have the same modulus!");
-		return new PrimeFieldElement((int) (((long) this.value * mult.value) % modulus), modulus);
+		return new PrimeFieldElement((int) context.multiply(this.value, mult.value), field);
 	}
 
 	@Override
 	public PrimeFieldElement negate() {
-		return new PrimeFieldElement(modulus - value, modulus);
+		return new PrimeFieldElement((int) context.negate(value), field);
 	}
 
 	@Override
 	public PrimeFieldElement ZERO() {
-		return new PrimeFieldElement(0, modulus);
+		return field.ringContext().zero();
 	}
 
 	@Override